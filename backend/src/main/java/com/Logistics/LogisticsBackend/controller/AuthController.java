@@ -1,15 +1,18 @@
 package com.Logistics.LogisticsBackend.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -20,6 +23,7 @@ import com.Logistics.LogisticsBackend.payload.request.SignupRequest;
 import com.Logistics.LogisticsBackend.payload.response.JwtResponse;
 import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
 import com.Logistics.LogisticsBackend.security.jwt.JwtUtils;
+import com.Logistics.LogisticsBackend.security.services.LoginExecutor;
 import com.Logistics.LogisticsBackend.security.services.UserDetailsImpl;
 import com.Logistics.LogisticsBackend.security.services.UserService;
 
@@ -37,12 +41,24 @@ public class AuthController {
     @Autowired
     UserService userService;
 
+    @Autowired
+    LoginExecutor loginExecutor;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        // Password hashing runs on the bounded login pool, not on the request thread
+        try {
+            return loginExecutor.submit(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())))
+                    .thenApply(this::buildJwtResponse);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginExecutor.getRetryAfterSeconds()))
+                    .body(new MessageResponse("Too many sign-in requests, please retry shortly.")));
+        }
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+    private ResponseEntity<?> buildJwtResponse(Authentication authentication) {
         String jwt = jwtUtils.generateJwtToken(authentication);
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
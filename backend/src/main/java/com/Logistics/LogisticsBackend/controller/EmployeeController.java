@@ -1,5 +1,6 @@
 package com.Logistics.LogisticsBackend.controller;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,8 +19,11 @@ import com.Logistics.LogisticsBackend.model.User;
 import com.Logistics.LogisticsBackend.payload.request.SignupRequest;
 import com.Logistics.LogisticsBackend.payload.request.UserUpdateRequest;
 import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.EmployeeImportService;
 import com.Logistics.LogisticsBackend.security.services.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
@@ -28,6 +32,9 @@ public class EmployeeController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public List<User> getAllEmployees() {
@@ -66,7 +73,24 @@ public class EmployeeController {
     @PostMapping("/bulk")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> createEmployeesBulk(@Valid @RequestBody List<SignupRequest> signUpRequests) {
-        List<User> createdUsers = userService.registerUsersBulk(signUpRequests);
-        return ResponseEntity.ok(createdUsers);
+        try {
+            List<User> createdUsers = userService.registerUsersBulk(signUpRequests);
+            return ResponseEntity.ok(createdUsers);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Streaming import for large onboarding files. Accepts CSV (header line with SignupRequest
+     * field names) or NDJSON and streams back one NDJSON result line per input row.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importEmployees(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = request.getContentType().startsWith("application/x-ndjson");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        employeeImportService.importEmployees(request.getInputStream(), ndjson, response.getOutputStream());
     }
 }
\ No newline at end of file
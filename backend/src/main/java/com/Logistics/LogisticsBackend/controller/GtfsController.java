@@ -0,0 +1,66 @@
+package com.Logistics.LogisticsBackend.controller;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.GtfsExportService;
+import com.Logistics.LogisticsBackend.security.services.GtfsImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/gtfs")
+public class GtfsController {
+    @Autowired
+    private GtfsImportService gtfsImportService;
+
+    @Autowired
+    private GtfsExportService gtfsExportService;
+
+    /**
+     * Imports stops, routes and route stops from a GTFS zip sent as the request body. The body is
+     * read as a stream, so feeds larger than the multipart limits can be uploaded.
+     */
+    @PostMapping(value = "/import", consumes = { "application/zip", "application/octet-stream" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importFeed(HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(gtfsImportService.importFeed(request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    /** The network and the trips departing from {@code from} (default today) to {@code to}, both included. */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportFeed(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(gtfsExportService.getDefaultDays() - 1);
+        try {
+            gtfsExportService.checkRange(start, end);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+        StreamingResponseBody body = out -> gtfsExportService.export(start, end, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"gtfs-" + start + "-" + end + ".zip\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,32 @@
+package com.Logistics.LogisticsBackend.controller;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.JourneyPlannerService;
+
+@RestController
+@RequestMapping("/api/journeys")
+public class JourneyController {
+
+    @Autowired
+    private JourneyPlannerService journeyPlannerService;
+
+    @GetMapping
+    public ResponseEntity<?> planJourney(@RequestParam Long from, @RequestParam Long to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime departAfter) {
+        try {
+            return ResponseEntity.ok(journeyPlannerService.plan(from, to, departAfter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+}
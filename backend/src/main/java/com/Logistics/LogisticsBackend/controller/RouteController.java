@@ -18,6 +18,8 @@ import org.springframework.web.bind.annotation.RestController;
 import com.Logistics.LogisticsBackend.model.Route;
 import com.Logistics.LogisticsBackend.payload.request.RouteRequest;
 import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.NetworkSnapshotService;
+import com.Logistics.LogisticsBackend.security.services.RouteMetricsService;
 import com.Logistics.LogisticsBackend.security.services.RouteService;
 
 import jakarta.validation.Valid;
@@ -29,6 +31,12 @@ public class RouteController {
     @Autowired
     private RouteService routeService;
 
+    @Autowired
+    private NetworkSnapshotService networkSnapshotService;
+
+    @Autowired
+    private RouteMetricsService routeMetricsService;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> createRoute(@Valid @RequestBody RouteRequest request) {
@@ -37,13 +45,13 @@ public class RouteController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Route>> getAllRoutes() {
-        return ResponseEntity.ok(routeService.getAllRoutes());
+    public ResponseEntity<byte[]> getAllRoutes() {
+        return SnapshotResponses.of(networkSnapshotService.routes());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getRouteById(@PathVariable Long id) {
-        return routeService.getRouteById(id)
+        return routeService.getRouteDetails(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -61,6 +69,12 @@ public class RouteController {
         return ResponseEntity.ok(routeService.searchRoutes(name));
     }
 
+    @PostMapping("/metrics/recompute")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> recomputeMetrics(@RequestParam(defaultValue = "false") boolean overwrite) {
+        return ResponseEntity.ok(routeMetricsService.recompute(overwrite));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> updateRoute(
@@ -1,24 +1,36 @@
 package com.Logistics.LogisticsBackend.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.Logistics.LogisticsBackend.model.RouteStop;
+import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.NetworkSnapshotService;
 import com.Logistics.LogisticsBackend.security.services.RouteStopService;
 
 @RestController
 @RequestMapping("/api/routestops")
 public class RouteStopAdminController {
+    @Autowired
+    private NetworkSnapshotService networkSnapshotService;
+
     @Autowired
     private RouteStopService routeStopService;
 
+    /** Every route stop from the snapshot, or one page of them when a filter or page is asked for. */
     @GetMapping
-    public ResponseEntity<List<RouteStop>> getAllRouteStops() {
-        return ResponseEntity.ok(routeStopService.getAllRouteStops());
+    public ResponseEntity<?> getAllRouteStops(@RequestParam(required = false) Long routeId,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        if (routeId == null && cursor == null && limit == null) {
+            return SnapshotResponses.of(networkSnapshotService.routeStops());
+        }
+        try {
+            return ResponseEntity.ok(routeStopService.findRouteStops(routeId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package com.Logistics.LogisticsBackend.controller;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,7 +14,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.Logistics.LogisticsBackend.model.RouteStop;
 import com.Logistics.LogisticsBackend.payload.request.RouteStopRequest;
+import com.Logistics.LogisticsBackend.payload.request.RouteStopSequenceRequest;
 import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.NetworkSnapshotService;
 import com.Logistics.LogisticsBackend.security.services.RouteStopService;
 
 import jakarta.validation.Valid;
@@ -28,10 +28,12 @@ public class RouteStopController {
     @Autowired
     private RouteStopService routeStopService;
 
+    @Autowired
+    private NetworkSnapshotService networkSnapshotService;
+
     @GetMapping
-    public ResponseEntity<List<RouteStop>> getStopsForRoute(@PathVariable Long routeId) {
-        List<RouteStop> stops = routeStopService.getStopsForRoute(routeId);
-        return ResponseEntity.ok(stops);
+    public ResponseEntity<byte[]> getStopsForRoute(@PathVariable Long routeId) {
+        return SnapshotResponses.of(networkSnapshotService.stopsForRoute(routeId));
     }
 
     @PostMapping
@@ -41,6 +43,16 @@ public class RouteStopController {
         return ResponseEntity.ok(newRouteStop);
     }
 
+    @PutMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> replaceStops(@PathVariable Long routeId, @Valid @RequestBody RouteStopSequenceRequest request) {
+        try {
+            return ResponseEntity.ok(routeStopService.replaceStops(routeId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/{routeStopId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> updateStopOnRoute(
@@ -1,8 +1,13 @@
 package com.Logistics.LogisticsBackend.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,12 +17,22 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.Logistics.LogisticsBackend.model.Schedule;
+import com.Logistics.LogisticsBackend.payload.request.AssignmentRequest;
+import com.Logistics.LogisticsBackend.payload.request.DelayRequest;
+import com.Logistics.LogisticsBackend.payload.request.ScheduleFilter;
 import com.Logistics.LogisticsBackend.payload.request.ScheduleRequest;
+import com.Logistics.LogisticsBackend.payload.request.TimetableRequest;
 import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.AssignmentService;
+import com.Logistics.LogisticsBackend.security.services.DelayPropagationService;
+import com.Logistics.LogisticsBackend.security.services.ScheduleExportService;
 import com.Logistics.LogisticsBackend.security.services.ScheduleService;
+import com.Logistics.LogisticsBackend.security.services.TimetableService;
 
 import jakarta.validation.Valid;
 
@@ -28,7 +43,72 @@ public class ScheduleController {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private ScheduleExportService scheduleExportService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private DelayPropagationService delayPropagationService;
+
     @GetMapping
+    public ResponseEntity<?> getSchedules(ScheduleFilter filter) {
+        try {
+            return ResponseEntity.ok(scheduleService.findSchedules(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<?> countSchedulesByDay(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(scheduleService.countByDay(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public ResponseEntity<?> getArchivedSchedules(ScheduleFilter filter) {
+        try {
+            return ResponseEntity.ok(scheduleService.findArchivedSchedules(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/assign")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> assignTrips(@Valid @RequestBody AssignmentRequest assignmentRequest) {
+        try {
+            return ResponseEntity.ok(assignmentService.assign(assignmentRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+    public ResponseEntity<StreamingResponseBody> exportSchedules(ScheduleFilter filter,
+            @RequestParam(defaultValue = ScheduleExportService.FORMAT_NDJSON) String format) {
+        boolean csv = ScheduleExportService.FORMAT_CSV.equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> scheduleExportService.export(filter,
+                csv ? ScheduleExportService.FORMAT_CSV : ScheduleExportService.FORMAT_NDJSON, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"schedules." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
+    // Unbounded listing of full entities, for explicit opt-in only; clients use the paged GET /api/schedules
+    @GetMapping("/all")
     public List<Schedule> getAllSchedules() {
         return scheduleService.getAllSchedules();
     }
@@ -48,6 +128,26 @@ public class ScheduleController {
         }
     }
 
+    @PostMapping("/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> generateTimetable(@Valid @RequestBody TimetableRequest timetableRequest) {
+        try {
+            return ResponseEntity.ok(timetableService.generate(timetableRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/delay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> delaySchedule(@PathVariable Long id, @Valid @RequestBody DelayRequest delayRequest) {
+        try {
+            return ResponseEntity.ok(delayPropagationService.propagate(id, delayRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> updateSchedule(@PathVariable Long id, @Valid @RequestBody ScheduleRequest scheduleRequest) {
@@ -0,0 +1,25 @@
+package com.Logistics.LogisticsBackend.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.Logistics.LogisticsBackend.security.services.NetworkSnapshotService;
+
+/**
+ * Responses for listings served from {@link NetworkSnapshotService}. Spring answers a GET whose
+ * If-None-Match matches the ETag with 304 and no body; no-cache makes clients revalidate each time.
+ */
+final class SnapshotResponses {
+
+    private SnapshotResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(NetworkSnapshotService.Body body) {
+        return ResponseEntity.ok()
+                .eTag(body.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.getJson());
+    }
+}
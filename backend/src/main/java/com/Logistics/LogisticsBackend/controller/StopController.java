@@ -1,8 +1,9 @@
 package com.Logistics.LogisticsBackend.controller;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,10 +13,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.Logistics.LogisticsBackend.model.Stop;
 import com.Logistics.LogisticsBackend.payload.response.MessageResponse;
+import com.Logistics.LogisticsBackend.security.services.DepartureBoardService;
+import com.Logistics.LogisticsBackend.security.services.NetworkSnapshotService;
 import com.Logistics.LogisticsBackend.security.services.StopService;
 
 import jakarta.validation.Valid;
@@ -27,9 +31,36 @@ public class StopController {
     @Autowired
     private StopService stopService;
 
+    @Autowired
+    private NetworkSnapshotService networkSnapshotService;
+
+    @Autowired
+    private DepartureBoardService departureBoardService;
+
     @GetMapping
-    public List<Stop> getAllStops() {
-        return stopService.getAllStops();
+    public ResponseEntity<byte[]> getAllStops() {
+        return SnapshotResponses.of(networkSnapshotService.stops());
+    }
+
+    @GetMapping("/near")
+    public ResponseEntity<?> getNearbyStops(@RequestParam Double lat, @RequestParam Double lon,
+            @RequestParam(required = false) Double radius, @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(stopService.findNearbyStops(lat, lon, radius, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/departures")
+    public ResponseEntity<?> getDepartures(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(departureBoardService.departures(id, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Validation error: " + e.getMessage()));
+        }
     }
 
     @PostMapping
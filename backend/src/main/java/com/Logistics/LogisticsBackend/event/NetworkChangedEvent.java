@@ -0,0 +1,44 @@
+package com.Logistics.LogisticsBackend.event;
+
+/**
+ * Published when a route or stop is created, changed or deleted. Changes to the stops of a route
+ * are published as {@link RouteStopsChangedEvent} instead.
+ *
+ * An event names the one stop or route that changed; one naming neither means any number of them
+ * may have changed, as after an import. Listeners look the stop or route up again after commit;
+ * one that no longer exists was deleted.
+ */
+public class NetworkChangedEvent {
+    private final Long stopId;
+    private final Long routeId;
+
+    public NetworkChangedEvent() {
+        this(null, null);
+    }
+
+    private NetworkChangedEvent(Long stopId, Long routeId) {
+        this.stopId = stopId;
+        this.routeId = routeId;
+    }
+
+    public static NetworkChangedEvent stop(Long stopId) {
+        return new NetworkChangedEvent(stopId, null);
+    }
+
+    public static NetworkChangedEvent route(Long routeId) {
+        return new NetworkChangedEvent(null, routeId);
+    }
+
+    public Long getStopId() {
+        return stopId;
+    }
+
+    public Long getRouteId() {
+        return routeId;
+    }
+
+    /** Whether any number of routes and stops may have changed. */
+    public boolean isBulk() {
+        return stopId == null && routeId == null;
+    }
+}
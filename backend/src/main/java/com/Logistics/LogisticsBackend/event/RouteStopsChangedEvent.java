@@ -0,0 +1,17 @@
+package com.Logistics.LogisticsBackend.event;
+
+/**
+ * Published when the stops of a route are added, changed, reordered or removed, or the route
+ * itself is deleted. Listeners that keep per-route derived data react after commit.
+ */
+public class RouteStopsChangedEvent {
+    private final Long routeId;
+
+    public RouteStopsChangedEvent(Long routeId) {
+        this.routeId = routeId;
+    }
+
+    public Long getRouteId() {
+        return routeId;
+    }
+}
@@ -0,0 +1,25 @@
+package com.Logistics.LogisticsBackend.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when schedules are created, moved, changed or deleted. Listeners that keep derived
+ * timetables react after commit and look the schedules up again; ids that no longer exist were
+ * deleted.
+ */
+public class SchedulesChangedEvent {
+    private final Collection<Long> scheduleIds;
+
+    public SchedulesChangedEvent(Collection<Long> scheduleIds) {
+        this.scheduleIds = scheduleIds;
+    }
+
+    public SchedulesChangedEvent(Long scheduleId) {
+        this(List.of(scheduleId));
+    }
+
+    public Collection<Long> getScheduleIds() {
+        return scheduleIds;
+    }
+}
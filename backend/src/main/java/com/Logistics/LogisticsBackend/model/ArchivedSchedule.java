@@ -0,0 +1,69 @@
+package com.Logistics.LogisticsBackend.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A completed schedule moved out of the live table by the archiver. Keeps the original id and
+ * columns; read-only for the application.
+ */
+@Entity
+@Table(name = "schedules_archive", indexes = {
+    @Index(name = "idx_schedules_archive_departure_id", columnList = "departure_date_time, id"),
+    @Index(name = "idx_schedules_archive_driver_departure", columnList = "driver_id, departure_date_time"),
+    @Index(name = "idx_schedules_archive_bus_departure", columnList = "bus_id, departure_date_time"),
+    @Index(name = "idx_schedules_archive_route_departure", columnList = "route_id, departure_date_time")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedSchedule {
+
+    @Id
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "driver_id", nullable = false)
+    private User driver;
+
+    @ManyToOne
+    @JoinColumn(name = "bus_id", nullable = false)
+    private Bus bus;
+
+    @ManyToOne
+    @JoinColumn(name = "route_id", nullable = false)
+    private Route route;
+
+    @Column(nullable = false)
+    private LocalDateTime departureDateTime;
+
+    @Column(nullable = false)
+    private LocalDateTime estimatedArrivalDateTime;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "created_at")
+    @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime archivedAt;
+}
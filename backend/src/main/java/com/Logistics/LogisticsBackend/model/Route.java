@@ -1,5 +1,7 @@
 package com.Logistics.LogisticsBackend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -29,6 +31,11 @@ public class Route {
 
     private String direction; // e.g., "Northbound", "Southbound", "Clockwise"
 
+    // route_id of the GTFS feed this was imported from, with "#" and the direction if the feed has them
+    @JsonIgnore
+    @Column(unique = true)
+    private String gtfsId;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -70,4 +77,12 @@ public class Route {
         this.direction = direction;
     }
 
+    public String getGtfsId() {
+        return gtfsId;
+    }
+
+    public void setGtfsId(String gtfsId) {
+        this.gtfsId = gtfsId;
+    }
+
 }
\ No newline at end of file
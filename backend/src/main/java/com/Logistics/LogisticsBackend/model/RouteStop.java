@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.LocalTime;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -13,6 +14,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
@@ -31,7 +33,15 @@ public class RouteStop {
     @JoinColumn(name = "stop_id", nullable = false)
     private Stop stop;
 
+    // Sparse sort key within the route (stored in the stop_order column); inserting a stop takes a key
+    // between its neighbours, so no other row changes. Renumbered in the background as gaps run out.
     @NotNull
+    @Column(name = "stop_order")
+    @JsonIgnore
+    private Integer rankKey;
+
+    // Dense 1..N position exposed by the API, filled in by RouteStopService from the rank order
+    @Transient
     private Integer stopOrder;
 
     private LocalTime arrivalTime;
@@ -59,6 +69,12 @@ public class RouteStop {
         return route;
     }
 
+    // The route itself is not serialized, only its id, so listings across routes can be grouped
+    @JsonProperty("routeId")
+    public Long getRouteId() {
+        return route != null ? route.getId() : null;
+    }
+
     public void setRoute(Route route) {
         this.route = route;
     }
@@ -71,6 +87,14 @@ public class RouteStop {
         this.stop = stop;
     }
 
+    public Integer getRankKey() {
+        return rankKey;
+    }
+
+    public void setRankKey(Integer rankKey) {
+        this.rankKey = rankKey;
+    }
+
     public Integer getStopOrder() {
         return stopOrder;
     }
@@ -9,6 +9,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -19,12 +20,25 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "schedules")
+@Table(name = "schedules", indexes = {
+    // Keyset paging orders by (departure, id); the per-resource indexes serve filters and overlap checks
+    @Index(name = "idx_schedules_departure_id", columnList = "departure_date_time, id"),
+    @Index(name = "idx_schedules_driver_departure", columnList = "driver_id, departure_date_time"),
+    @Index(name = "idx_schedules_bus_departure", columnList = "bus_id, departure_date_time"),
+    @Index(name = "idx_schedules_route_departure", columnList = "route_id, departure_date_time"),
+    // Status sweeper
+    @Index(name = "idx_schedules_status_departure", columnList = "status, departure_date_time"),
+    @Index(name = "idx_schedules_status_arrival", columnList = "status, estimated_arrival_date_time"),
+    @Index(name = "idx_schedules_updated_at", columnList = "updated_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Schedule {
 
+    // Upper bound on a trip's length; lets overlap queries bound the departure from below
+    public static final int MAX_DURATION_HOURS = 24;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -68,4 +82,9 @@ public class Schedule {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
-}
\ No newline at end of file
+
+    /** Earliest departure of a schedule that can still be running at the given time. */
+    public static LocalDateTime earliestOverlappingDeparture(LocalDateTime time) {
+        return time.minusHours(MAX_DURATION_HOURS);
+    }
+}
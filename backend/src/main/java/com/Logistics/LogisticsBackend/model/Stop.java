@@ -1,5 +1,7 @@
 package com.Logistics.LogisticsBackend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -33,6 +35,11 @@ public class Stop {
 
     private Double longitude;
 
+    // stop_id of the GTFS feed this was imported from, so a re-import updates it in place
+    @JsonIgnore
+    @Column(unique = true)
+    private String gtfsId;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -105,4 +112,12 @@ public class Stop {
     public void setLongitude(Double longitude) {
         this.longitude = longitude;
     }
+
+    public String getGtfsId() {
+        return gtfsId;
+    }
+
+    public void setGtfsId(String gtfsId) {
+        this.gtfsId = gtfsId;
+    }
 }
\ No newline at end of file
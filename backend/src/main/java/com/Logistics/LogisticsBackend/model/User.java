@@ -5,6 +5,10 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -94,6 +98,12 @@ public class User {
     @Column(length = 20)
     private EmployeeStatus status;
 
+    // Raised whenever the user's tokens must stop being accepted; see UserSecurityVersions
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "security_version", nullable = false)
+    private long securityVersion;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
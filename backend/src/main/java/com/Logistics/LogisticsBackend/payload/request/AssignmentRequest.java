@@ -0,0 +1,67 @@
+package com.Logistics.LogisticsBackend.payload.request;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A day's trips to be given a driver and a bus. Without groups every ACTIVE driver and bus may
+ * serve every trip; with groups (e.g. one per depot) each group's routes are served only from its
+ * own drivers and buses, and no driver or bus may belong to two groups.
+ */
+@Getter
+@Setter
+public class AssignmentRequest {
+    @NotNull(message = "Date is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    // Minimum break between two trips of the same driver or bus
+    @Min(value = 0, message = "Turnaround must not be negative")
+    private Integer turnaroundMinutes;
+
+    @NotEmpty(message = "At least one trip is required")
+    @Valid
+    private List<Trip> trips;
+
+    @Valid
+    private List<Group> groups;
+
+    // Create the schedules instead of only returning the plan
+    private boolean apply;
+
+    @Getter
+    @Setter
+    public static class Trip {
+        @NotNull(message = "Route ID is required")
+        private Long routeId;
+
+        @NotNull(message = "Departure time is required")
+        @JsonFormat(pattern = "HH:mm")
+        private LocalTime departureTime;
+    }
+
+    @Getter
+    @Setter
+    public static class Group {
+        private String name;
+
+        @NotEmpty(message = "A group needs at least one route")
+        private List<Long> routeIds;
+
+        @NotEmpty(message = "A group needs at least one driver")
+        private List<Long> driverIds;
+
+        @NotEmpty(message = "A group needs at least one bus")
+        private List<Long> busIds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.Logistics.LogisticsBackend.payload.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class DelayRequest {
+    @NotNull(message = "Delay is required")
+    @Min(value = 1, message = "Delay must be at least one minute")
+    private Integer delayMinutes;
+
+    // Minimum break between two trips of the same driver or bus
+    @Min(value = 0, message = "Turnaround must not be negative")
+    private Integer turnaroundMinutes;
+
+    // Shift the delayed schedule and every affected one instead of only reporting them
+    private boolean apply;
+}
@@ -0,0 +1,39 @@
+package com.Logistics.LogisticsBackend.payload.request;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The complete stop sequence of a route, first stop first. Stop order follows the list; each stop
+ * may appear once.
+ */
+@Getter
+@Setter
+public class RouteStopSequenceRequest {
+    @NotNull(message = "Stops are required")
+    @Valid
+    private List<Item> stops;
+
+    @Getter
+    @Setter
+    public static class Item {
+        @NotNull(message = "Stop ID is required")
+        private Long stopId;
+
+        private LocalTime arrivalTime;
+
+        private LocalTime departureTime;
+
+        private BigDecimal distanceFromStartKm;
+
+        private Integer travelTimeFromPrevMin;
+
+        private String remarks;
+    }
+}
@@ -0,0 +1,34 @@
+package com.Logistics.LogisticsBackend.payload.request;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Query parameters of the paged schedule listing. {@code from} is inclusive and {@code to}
+ * exclusive on the departure time; {@code cursor} is the {@code nextCursor} of the previous page.
+ */
+@Getter
+@Setter
+public class ScheduleFilter {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private Long routeId;
+
+    private Long driverId;
+
+    private Long busId;
+
+    private String status;
+
+    private String cursor;
+
+    private Integer limit;
+}
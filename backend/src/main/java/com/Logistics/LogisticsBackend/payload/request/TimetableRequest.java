@@ -0,0 +1,56 @@
+package com.Logistics.LogisticsBackend.payload.request;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Recurring timetable for one route: every day from startDate to endDate (inclusive), either at
+ * the listed departureTimes or every headwayMinutes from firstDeparture to lastDeparture.
+ * Drivers and buses are assigned round robin, skipping any that are busy at the departure.
+ */
+@Getter
+@Setter
+public class TimetableRequest {
+    @NotNull(message = "Route ID is required")
+    private Long routeId;
+
+    @NotNull(message = "Start date is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime firstDeparture;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime lastDeparture;
+
+    @Positive(message = "Headway must be positive")
+    private Integer headwayMinutes;
+
+    @JsonFormat(pattern = "HH:mm")
+    private List<LocalTime> departureTimes;
+
+    @NotEmpty(message = "At least one driver is required")
+    private List<Long> driverIds;
+
+    @NotEmpty(message = "At least one bus is required")
+    private List<Long> busIds;
+
+    private String status;
+
+    // Only report what would be created
+    private boolean dryRun;
+}
@@ -0,0 +1,29 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AssignedTrip {
+    private String group;
+    private Long routeId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime departureDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime estimatedArrivalDateTime;
+
+    private Long driverId;
+    private Long busId;
+
+    // Why the trip could not be assigned
+    private String reason;
+}
@@ -0,0 +1,17 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class AssignmentResponse {
+    private int trips;
+    private int assigned;
+    private int created;
+    private List<AssignedTrip> plan;
+}
@@ -0,0 +1,19 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class DelayResponse {
+    private Long scheduleId;
+    private int delayMinutes;
+    // Later trips that now conflict or miss their turnaround
+    private int affected;
+    private boolean applied;
+    private List<DelayedTrip> trips;
+}
@@ -0,0 +1,37 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DelayedTrip {
+    private Long scheduleId;
+    private Long routeId;
+    private Long driverId;
+    private Long busId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime departureDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime estimatedArrivalDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime newDepartureDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime newEstimatedArrivalDateTime;
+
+    private long shiftMinutes;
+
+    // The earlier trip that pushes this one back, and why; both null for the delayed trip itself
+    private Long causedByScheduleId;
+    private String reason;
+}
@@ -0,0 +1,23 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class GtfsImportResponse {
+    private int stopsCreated;
+    private int stopsUpdated;
+    private int routesCreated;
+    private int routesUpdated;
+    // Routes whose stop sequence was set from the feed; unchanged route stops keep their rows
+    private int routesWithStops;
+    // Feed rows that were missing a field or referred to something not in the feed
+    private long skippedRows;
+    private List<String> warnings;
+    private long elapsedMs;
+}
@@ -0,0 +1,30 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One line of a bulk import report. Rows are numbered from 1, excluding any header line.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportRowResult {
+    private long row;
+    private String status; // CREATED or ERROR
+    private String key;
+    private Long id;
+    private String message;
+
+    public static ImportRowResult created(long row, String key, Long id) {
+        return new ImportRowResult(row, "CREATED", key, id, null);
+    }
+
+    public static ImportRowResult error(long row, String key, String message) {
+        return new ImportRowResult(row, "ERROR", key, null, message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class JourneyLeg {
+    private Long scheduleId;
+    private Long routeId;
+    private String routeCode;
+    private String routeName;
+    private Long fromStopId;
+    private String fromStopName;
+    private Long toStopId;
+    private String toStopName;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime departureDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime arrivalDateTime;
+}
@@ -0,0 +1,28 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class JourneyResponse {
+    private Long fromStopId;
+    private Long toStopId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime departureDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime arrivalDateTime;
+
+    private long durationMinutes;
+    private int transfers;
+    private List<JourneyLeg> legs;
+}
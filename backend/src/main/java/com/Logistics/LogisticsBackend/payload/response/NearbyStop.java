@@ -0,0 +1,17 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class NearbyStop {
+    private Long id;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    // Great-circle distance from the query point, to a tenth of a meter
+    private double distanceMeters;
+}
@@ -0,0 +1,19 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import com.Logistics.LogisticsBackend.model.Route;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A route with its stop summary; the route's own fields stay at the top level.
+ */
+@Getter
+@AllArgsConstructor
+public class RouteDetailsResponse {
+    @JsonUnwrapped
+    private Route route;
+
+    private RouteSummary summary;
+}
@@ -0,0 +1,17 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class RouteMetricsResponse {
+    private int routes;
+    private int routesChanged;
+    private int routeStopsChanged;
+    // Route stops after the first stop without a position on their route
+    private int routeStopsUnmeasured;
+    private long elapsedMs;
+}
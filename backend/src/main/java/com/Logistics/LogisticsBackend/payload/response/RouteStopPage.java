@@ -0,0 +1,17 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.util.List;
+
+import com.Logistics.LogisticsBackend.model.RouteStop;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RouteStopPage {
+    private List<RouteStop> items;
+
+    // Null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,36 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Derived figures for a route's stop sequence. {@code arrivalOffsetsMin[i]} is the minutes from
+ * departure until the bus reaches the i-th stop: travel time so far plus 5 minutes of boarding at
+ * each earlier stop. The estimated duration also counts boarding at the last stop, and is one hour
+ * for a route without stops.
+ */
+@Getter
+@AllArgsConstructor
+public class RouteSummary {
+    private Long routeId;
+    private int stopCount;
+    private BigDecimal totalDistanceKm;
+    private int totalTravelTimeMin;
+    private int estimatedDurationMin;
+    private StopRef firstStop;
+    private StopRef lastStop;
+    private int[] arrivalOffsetsMin;
+
+    public int arrivalOffsetMin(int stopIndex) {
+        return arrivalOffsetsMin[stopIndex];
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StopRef {
+        private Long id;
+        private String name;
+    }
+}
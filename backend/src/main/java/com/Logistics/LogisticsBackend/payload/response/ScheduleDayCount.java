@@ -0,0 +1,13 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ScheduleDayCount {
+    private LocalDate date;
+    private long count;
+}
@@ -0,0 +1,15 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SchedulePage {
+    private List<ScheduleView> items;
+
+    // Null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,66 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Read model of a schedule with just the driver, bus and route fields a listing needs. Built
+ * directly by a JPQL constructor expression, so no entities (or their eager associations) load.
+ */
+@Getter
+public class ScheduleView {
+    private Long id;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime departureDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime estimatedArrivalDateTime;
+
+    private String status;
+    private DriverRef driver;
+    private BusRef bus;
+    private RouteRef route;
+
+    public ScheduleView(Long id, LocalDateTime departureDateTime, LocalDateTime estimatedArrivalDateTime, String status,
+            Long driverId, String driverFirstName, String driverLastName,
+            Long busId, String busNumber, String plateNumber,
+            Long routeId, String routeCode, String routeName, String routeDirection) {
+        this.id = id;
+        this.departureDateTime = departureDateTime;
+        this.estimatedArrivalDateTime = estimatedArrivalDateTime;
+        this.status = status;
+        this.driver = new DriverRef(driverId, driverFirstName, driverLastName);
+        this.bus = new BusRef(busId, busNumber, plateNumber);
+        this.route = new RouteRef(routeId, routeCode, routeName, routeDirection);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DriverRef {
+        private Long id;
+        private String firstName;
+        private String lastName;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BusRef {
+        private Long id;
+        private String busNumber;
+        private String plateNumber;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class RouteRef {
+        private Long id;
+        private String routeCode;
+        private String name;
+        private String direction;
+    }
+}
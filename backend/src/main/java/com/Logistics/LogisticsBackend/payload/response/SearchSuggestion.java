@@ -0,0 +1,21 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchSuggestion {
+    // ROUTE or STOP
+    private String type;
+    private Long id;
+    private String label;
+    // Route code and direction, or the stop's street or landmark
+    private String detail;
+    private double score;
+}
@@ -0,0 +1,18 @@
+package com.Logistics.LogisticsBackend.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TimetableResponse {
+    private int requested;
+    private int created;
+    private boolean dryRun;
+    private int tripMinutes;
+    private List<TimetableConflict> conflicts;
+}
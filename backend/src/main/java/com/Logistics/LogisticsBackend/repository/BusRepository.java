@@ -1,8 +1,10 @@
 package com.Logistics.LogisticsBackend.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.Logistics.LogisticsBackend.model.Bus;
@@ -12,4 +14,7 @@ public interface BusRepository extends JpaRepository<Bus, Long> {
     Optional<Bus> findByBusNumber(String busNumber);
     boolean existsByBusNumber(String busNumber);
     boolean existsByPlateNumber(String plateNumber);
+
+    @Query("SELECT b.id FROM Bus b WHERE UPPER(b.status) = 'ACTIVE'")
+    List<Long> findActiveIds();
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.Logistics.LogisticsBackend.repository;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,5 +14,4 @@ public interface RouteRepository extends JpaRepository<Route, Long> {
     boolean existsByName(String name);
     boolean existsByRouteCode(String routeCode);
     boolean existsByNameAndDirection(String name, String direction);
-    List<Route> findByNameContainingIgnoreCase(String name);
 }
\ No newline at end of file
@@ -2,23 +2,40 @@ package com.Logistics.LogisticsBackend.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.Logistics.LogisticsBackend.model.RouteStop;
 
+/**
+ * The listing queries fetch the route and stop of every row in the same statement; left to
+ * themselves, the EAGER links would cost one more query per distinct route and stop.
+ */
 @Repository
 public interface RouteStopRepository extends JpaRepository<RouteStop, Long> {
-    List<RouteStop> findByRouteIdOrderByStopOrderAsc(Long routeId);
+    @Query("SELECT rs FROM RouteStop rs JOIN FETCH rs.route r JOIN FETCH rs.stop WHERE r.id = :routeId ORDER BY rs.rankKey")
+    List<RouteStop> findByRouteIdOrderByRankKeyAsc(Long routeId);
+
+    // Spelled out: derived from its name, the routeId getter of RouteStop would be taken for a column
+    @Query("SELECT rs FROM RouteStop rs WHERE rs.route.id = :routeId")
     List<RouteStop> findByRouteId(Long routeId);
 
-    @Query("SELECT rs FROM RouteStop rs WHERE rs.route.id = :routeId AND rs.stopOrder >= :stopOrder")
-    List<RouteStop> findByRouteIdAndStopOrderGreaterThanEqual(Long routeId, Integer stopOrder);
+    // Every route's stops in order
+    @Query("SELECT rs FROM RouteStop rs JOIN FETCH rs.route r JOIN FETCH rs.stop ORDER BY r.id, rs.rankKey")
+    List<RouteStop> findAllOrderedByRoute();
+
+    // Keyset page over every route's stops in order, after the given position; the page size is the limit
+    @Query("SELECT rs FROM RouteStop rs JOIN FETCH rs.route r JOIN FETCH rs.stop "
+            + "WHERE r.id > :afterRouteId OR (r.id = :afterRouteId AND rs.rankKey > :afterRankKey) ORDER BY r.id, rs.rankKey")
+    List<RouteStop> findPageAfter(long afterRouteId, int afterRankKey, Pageable limit);
+
+    // Keyset page over one route's stops in order
+    @Query("SELECT rs FROM RouteStop rs JOIN FETCH rs.route r JOIN FETCH rs.stop "
+            + "WHERE r.id = :routeId AND rs.rankKey > :afterRankKey ORDER BY rs.rankKey")
+    List<RouteStop> findRoutePageAfter(Long routeId, int afterRankKey, Pageable limit);
 
-    @Modifying
-    @Query("UPDATE RouteStop rs SET rs.stopOrder = rs.stopOrder - 1 WHERE rs.route.id = :routeId AND rs.stopOrder > :stopOrder")
-    void decrementStopOrders(Long routeId, Integer stopOrder);
-    boolean existsByRouteIdAndStopOrder(Long routeId, Integer stopOrder);
-}
\ No newline at end of file
+    @Query("SELECT DISTINCT rs.route.id FROM RouteStop rs WHERE rs.stop.id = :stopId")
+    List<Long> findRouteIdsByStopId(Long stopId);
+}
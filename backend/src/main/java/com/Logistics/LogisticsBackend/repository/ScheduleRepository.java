@@ -1,9 +1,11 @@
 package com.Logistics.LogisticsBackend.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,12 +13,68 @@ import org.springframework.stereotype.Repository;
 import com.Logistics.LogisticsBackend.model.Schedule;
 
 @Repository
-public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
-    @Query("SELECT s FROM Schedule s WHERE s.driver.id = :driverId AND s.id <> :scheduleId AND s.departureDateTime < :end AND s.estimatedArrivalDateTime > :start")
-    List<Schedule> findOverlappingSchedulesForDriver(@Param("driverId") Long driverId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("scheduleId") Long scheduleId);
+public interface ScheduleRepository extends JpaRepository<Schedule, Long>, ScheduleRepositoryCustom {
+    // Every overlap query is also bounded below on departure, so on a table partitioned by month it
+    // only touches the partitions around the window instead of the whole history
+    @Query("SELECT s FROM Schedule s WHERE s.driver.id = :driverId AND s.id <> :scheduleId AND s.departureDateTime > :earliest AND s.departureDateTime < :end AND s.estimatedArrivalDateTime > :start")
+    List<Schedule> findOverlappingSchedulesForDriver(@Param("driverId") Long driverId, @Param("earliest") LocalDateTime earliest, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("scheduleId") Long scheduleId);
 
-    @Query("SELECT s FROM Schedule s WHERE s.bus.id = :busId AND s.id <> :scheduleId AND s.departureDateTime < :end AND s.estimatedArrivalDateTime > :start")
-    List<Schedule> findOverlappingSchedulesForBus(@Param("busId") Long busId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("scheduleId") Long scheduleId);
+    default List<Schedule> findOverlappingSchedulesForDriver(Long driverId, LocalDateTime start, LocalDateTime end, Long scheduleId) {
+        return findOverlappingSchedulesForDriver(driverId, Schedule.earliestOverlappingDeparture(start), start, end, scheduleId);
+    }
+
+    @Query("SELECT s FROM Schedule s WHERE s.bus.id = :busId AND s.id <> :scheduleId AND s.departureDateTime > :earliest AND s.departureDateTime < :end AND s.estimatedArrivalDateTime > :start")
+    List<Schedule> findOverlappingSchedulesForBus(@Param("busId") Long busId, @Param("earliest") LocalDateTime earliest, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("scheduleId") Long scheduleId);
+
+    default List<Schedule> findOverlappingSchedulesForBus(Long busId, LocalDateTime start, LocalDateTime end, Long scheduleId) {
+        return findOverlappingSchedulesForBus(busId, Schedule.earliestOverlappingDeparture(start), start, end, scheduleId);
+    }
 
     List<Schedule> findByRouteIdAndDepartureDateTimeBetween(Long routeId, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    // id, driver id, bus id, route id, departure, arrival of every schedule overlapping the window
+    @Query("SELECT s.id, s.driver.id, s.bus.id, s.route.id, s.departureDateTime, s.estimatedArrivalDateTime FROM Schedule s WHERE s.departureDateTime > :earliest AND s.departureDateTime < :end AND s.estimatedArrivalDateTime > :start")
+    List<Object[]> findScheduleSlotsBetween(@Param("earliest") LocalDateTime earliest, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    default List<Object[]> findScheduleSlotsBetween(LocalDateTime start, LocalDateTime end) {
+        return findScheduleSlotsBetween(Schedule.earliestOverlappingDeparture(start), start, end);
+    }
+
+    // Same columns, limited to schedules that use the route or any of the drivers or buses
+    @Query("SELECT s.id, s.driver.id, s.bus.id, s.route.id, s.departureDateTime, s.estimatedArrivalDateTime FROM Schedule s WHERE s.departureDateTime > :earliest AND s.departureDateTime < :end AND s.estimatedArrivalDateTime > :start AND (s.route.id = :routeId OR s.driver.id IN :driverIds OR s.bus.id IN :busIds)")
+    List<Object[]> findScheduleSlotsForResources(@Param("earliest") LocalDateTime earliest, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("routeId") Long routeId, @Param("driverIds") Collection<Long> driverIds, @Param("busIds") Collection<Long> busIds);
+
+    default List<Object[]> findScheduleSlotsForResources(LocalDateTime start, LocalDateTime end, Long routeId, Collection<Long> driverIds, Collection<Long> busIds) {
+        return findScheduleSlotsForResources(Schedule.earliestOverlappingDeparture(start), start, end, routeId, driverIds, busIds);
+    }
+
+    // id, route id, departure of every trip departing in [from, to) that still runs, for the journey planner
+    @Query("SELECT s.id, s.route.id, s.departureDateTime FROM Schedule s WHERE s.departureDateTime >= :from AND s.departureDateTime < :to AND s.status <> 'CANCELLED'")
+    List<Object[]> findTripsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // id, route id, departure, status of the given schedules; deleted ones are missing
+    @Query("SELECT s.id, s.route.id, s.departureDateTime, s.status FROM Schedule s WHERE s.id IN :ids")
+    List<Object[]> findTripsByIds(@Param("ids") Collection<Long> ids);
+
+    // Departure date and number of schedules of each day with any in [from, to)
+    @Query("SELECT CAST(s.departureDateTime AS LocalDate), COUNT(s) FROM Schedule s WHERE s.departureDateTime >= :from AND s.departureDateTime < :to GROUP BY CAST(s.departureDateTime AS LocalDate) ORDER BY CAST(s.departureDateTime AS LocalDate)")
+    List<Object[]> countByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Bulk status transitions for the sweeper; bounded below by the previous sweep so they stay on the indexes
+    @Modifying
+    @Query("UPDATE Schedule s SET s.status = 'COMPLETED', s.updatedAt = :now WHERE s.status IN ('SCHEDULED', 'IN_TRANSIT') AND s.estimatedArrivalDateTime > :since AND s.estimatedArrivalDateTime <= :now")
+    int markCompleted(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Schedule s SET s.status = 'IN_TRANSIT', s.updatedAt = :now WHERE s.status = 'SCHEDULED' AND s.departureDateTime > :since AND s.departureDateTime <= :now AND s.estimatedArrivalDateTime > :now")
+    int markInTransit(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    // The same transitions for rows written since the previous sweep, which may have been moved behind its lower bound
+    @Modifying
+    @Query("UPDATE Schedule s SET s.status = 'COMPLETED', s.updatedAt = :now WHERE s.status IN ('SCHEDULED', 'IN_TRANSIT') AND s.updatedAt > :since AND s.estimatedArrivalDateTime <= :now")
+    int markCompletedUpdatedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Schedule s SET s.status = 'IN_TRANSIT', s.updatedAt = :now WHERE s.status = 'SCHEDULED' AND s.updatedAt > :since AND s.departureDateTime <= :now AND s.estimatedArrivalDateTime > :now")
+    int markInTransitUpdatedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,19 @@
+package com.Logistics.LogisticsBackend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.Logistics.LogisticsBackend.payload.request.ScheduleFilter;
+import com.Logistics.LogisticsBackend.payload.response.ScheduleView;
+
+public interface ScheduleRepositoryCustom {
+
+    /**
+     * One page of schedules matching the filter, ordered by departure then id, starting after the
+     * given keyset position (both null for the first page). Runs as a single SQL statement.
+     */
+    List<ScheduleView> findPage(ScheduleFilter filter, LocalDateTime afterDeparture, Long afterId, int limit);
+
+    /** Same as {@link #findPage} over archived schedules. */
+    List<ScheduleView> findArchivePage(ScheduleFilter filter, LocalDateTime afterDeparture, Long afterId, int limit);
+}
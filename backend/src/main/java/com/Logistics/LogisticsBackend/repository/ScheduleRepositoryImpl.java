@@ -0,0 +1,74 @@
+package com.Logistics.LogisticsBackend.repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.Logistics.LogisticsBackend.payload.request.ScheduleFilter;
+import com.Logistics.LogisticsBackend.payload.response.ScheduleView;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class ScheduleRepositoryImpl implements ScheduleRepositoryCustom {
+
+    private static final String SELECT_VIEW = "SELECT new com.Logistics.LogisticsBackend.payload.response.ScheduleView("
+            + "s.id, s.departureDateTime, s.estimatedArrivalDateTime, s.status, "
+            + "d.id, d.firstName, d.lastName, b.id, b.busNumber, b.plateNumber, r.id, r.routeCode, r.name, r.direction) "
+            + "FROM %s s JOIN s.driver d JOIN s.bus b JOIN s.route r WHERE 1 = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ScheduleView> findPage(ScheduleFilter filter, LocalDateTime afterDeparture, Long afterId, int limit) {
+        return findPage("Schedule", filter, afterDeparture, afterId, limit);
+    }
+
+    @Override
+    public List<ScheduleView> findArchivePage(ScheduleFilter filter, LocalDateTime afterDeparture, Long afterId, int limit) {
+        return findPage("ArchivedSchedule", filter, afterDeparture, afterId, limit);
+    }
+
+    private List<ScheduleView> findPage(String entity, ScheduleFilter filter, LocalDateTime afterDeparture, Long afterId, int limit) {
+        // Only the filters that are set end up in the statement, so each combination gets its own plan
+        StringBuilder jpql = new StringBuilder(String.format(SELECT_VIEW, entity));
+        Map<String, Object> params = new HashMap<>();
+        if (filter.getFrom() != null) {
+            jpql.append(" AND s.departureDateTime >= :from");
+            params.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND s.departureDateTime < :to");
+            params.put("to", filter.getTo());
+        }
+        if (filter.getRouteId() != null) {
+            jpql.append(" AND r.id = :routeId");
+            params.put("routeId", filter.getRouteId());
+        }
+        if (filter.getDriverId() != null) {
+            jpql.append(" AND d.id = :driverId");
+            params.put("driverId", filter.getDriverId());
+        }
+        if (filter.getBusId() != null) {
+            jpql.append(" AND b.id = :busId");
+            params.put("busId", filter.getBusId());
+        }
+        if (filter.getStatus() != null && !filter.getStatus().isBlank()) {
+            jpql.append(" AND s.status = :status");
+            params.put("status", filter.getStatus().trim().toUpperCase());
+        }
+        if (afterDeparture != null) {
+            jpql.append(" AND (s.departureDateTime > :afterDeparture OR (s.departureDateTime = :afterDeparture AND s.id > :afterId))");
+            params.put("afterDeparture", afterDeparture);
+            params.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY s.departureDateTime, s.id");
+
+        TypedQuery<ScheduleView> query = entityManager.createQuery(jpql.toString(), ScheduleView.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
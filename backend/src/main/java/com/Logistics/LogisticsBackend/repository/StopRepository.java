@@ -1,6 +1,9 @@
 package com.Logistics.LogisticsBackend.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.Logistics.LogisticsBackend.model.Stop;
@@ -8,4 +11,8 @@ import com.Logistics.LogisticsBackend.model.Stop;
 @Repository
 public interface StopRepository extends JpaRepository<Stop, Long> {
     boolean existsByName(String name);
+
+    // id, name, latitude, longitude of every stop that has a position
+    @Query("SELECT s.id, s.name, s.latitude, s.longitude FROM Stop s WHERE s.latitude IS NOT NULL AND s.longitude IS NOT NULL")
+    List<Object[]> findLocatedStops();
 }
\ No newline at end of file
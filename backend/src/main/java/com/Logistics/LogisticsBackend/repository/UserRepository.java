@@ -1,9 +1,14 @@
 package com.Logistics.LogisticsBackend.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.Logistics.LogisticsBackend.model.ERole;
 import com.Logistics.LogisticsBackend.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -16,4 +21,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByEmail(String email);
 
     Boolean existsByEmployeeId(String employeeId);
-}
\ No newline at end of file
+
+    // Set-based duplicate checks for bulk registration: one query per unique column
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.employeeId FROM User u WHERE u.employeeId IN :employeeIds")
+    List<String> findExistingEmployeeIds(@Param("employeeIds") Collection<String> employeeIds);
+
+    @Query("SELECT u.securityVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findSecurityVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.name = :role AND u.status = :status")
+    List<Long> findIdsByRoleAndStatus(@Param("role") ERole role, @Param("status") User.EmployeeStatus status);
+}
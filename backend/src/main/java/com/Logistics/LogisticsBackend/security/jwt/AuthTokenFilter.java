@@ -1,11 +1,17 @@
 package com.Logistics.LogisticsBackend.security.jwt;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,6 +20,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.Logistics.LogisticsBackend.security.services.UserDetailsImpl;
+import com.Logistics.LogisticsBackend.security.services.UserSecurityVersions;
+
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -28,6 +37,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserSecurityVersions userSecurityVersions;
+
+    // When enabled, the principal is built from the token's claims instead of loading the user per request
+    @Value("${urbansync.app.jwtClaimsOnlyAuth:false}")
+    private boolean claimsOnlyAuth;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -35,19 +51,27 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+            // Verified once, then served from the token cache until the token expires
+            Claims claims = jwt != null ? jwtUtils.getVerifiedClaims(jwt) : null;
+            if (claims != null) {
                 // Get username and roles directly from the token
-                Claims claims = jwtUtils.getClaimsFromToken(jwt);
                 String username = claims.getSubject();
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails;
+                if (claimsOnlyAuth && claims.get("id") != null) {
+                    userDetails = userDetailsFromClaims(claims);
+                } else {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                }
+
+                if (userDetails != null) {
+                    // Create authentication token
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
 
-                // Create authentication token
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -56,6 +80,25 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Builds the principal from the subject, id and roles claims. Returns null when the
+     * user's security version has moved past the one the token was issued with.
+     */
+    private UserDetails userDetailsFromClaims(Claims claims) {
+        Long userId = ((Number) claims.get("id")).longValue();
+        Number tokenVersion = claims.get("sv", Number.class);
+        if (!userSecurityVersions.isCurrent(userId, tokenVersion != null ? tokenVersion.longValue() : 0L)) {
+            logger.warn("Rejected token for user {}: roles or status changed since it was issued", claims.getSubject());
+            return null;
+        }
+
+        List<?> roles = claims.get("roles", List.class);
+        Collection<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
+        return UserDetailsImpl.fromClaims(userId, claims.getSubject(), authorities);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
@@ -0,0 +1,126 @@
+package com.Logistics.LogisticsBackend.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded LRU cache of claims for tokens whose signature has already been verified.
+ * Entries are keyed by a SHA-256 digest of the token (the raw token is never stored)
+ * and are dropped once the token's own expiration has passed.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${urbansync.app.jwtCacheMaxEntries:10000}")
+    private int maxEntries;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private Map<String, Entry> entries;
+
+    @PostConstruct
+    void init() {
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        if (meterRegistry != null) {
+            FunctionCounter.builder("jwt.cache.requests", hits, LongAdder::sum)
+                    .tag("result", "hit")
+                    .description("Token lookups answered from the verified-token cache")
+                    .register(meterRegistry);
+            FunctionCounter.builder("jwt.cache.requests", misses, LongAdder::sum)
+                    .tag("result", "miss")
+                    .description("Token lookups that required signature verification")
+                    .register(meterRegistry);
+            Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the cached claims for the token, or null if the token has not been
+     * verified yet or its cached entry has expired.
+     */
+    public Claims get(String token) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtMs > now) {
+                hits.increment();
+                return entry.claims;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return; // Never cache tokens that do not expire
+        }
+        long expiresAtMs = claims.getExpiration().getTime();
+        if (expiresAtMs <= System.currentTimeMillis()) {
+            return;
+        }
+        String key = digest(token);
+        synchronized (this) {
+            entries.put(key, new Entry(claims, expiresAtMs));
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Entry(Claims claims, long expiresAtMs) {
+    }
+}
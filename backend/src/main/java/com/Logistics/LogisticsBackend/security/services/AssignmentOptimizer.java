@@ -0,0 +1,197 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Assigns a driver and a bus to every trip of a group with greedy interval partitioning: trips are
+ * taken in order of departure, resources that have finished their last trip (plus turnaround) move
+ * from a min-heap keyed on the time they become free into an idle stack, and each trip takes the
+ * most recently freed idle driver and bus whose existing schedules leave room for it. Without
+ * existing schedules this uses the minimum number of drivers and buses; with them it is a good
+ * greedy plan that is always conflict-free. Without existing schedules every idle resource fits, so
+ * a group of n trips runs in O(n log n); with them a trip may scan all m idle resources before one
+ * fits, each check a binary search over that resource's b schedules, so O(n log n + n m log b).
+ *
+ * Groups (a depot or a set of routes) must have disjoint resource pools; they are optimized in
+ * parallel. Times are epoch seconds. The class is stateless and thread-safe.
+ */
+public final class AssignmentOptimizer {
+
+    public static final long UNASSIGNED = 0L;
+
+    public static final class Trip {
+        final long start;
+        final long end;
+
+        public Trip(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /** A driver or bus, with its existing schedules as [start, end) intervals sorted by start. */
+    public static final class Resource {
+        final long id;
+        final long[] blockedStarts;
+        final long[] blockedEnds;
+        final long maxBlockLength;
+        long freeAt = Long.MIN_VALUE;
+
+        public Resource(long id, long[] blockedStarts, long[] blockedEnds) {
+            this.id = id;
+            this.blockedStarts = blockedStarts;
+            this.blockedEnds = blockedEnds;
+            long max = 0;
+            for (int i = 0; i < blockedStarts.length; i++) {
+                max = Math.max(max, blockedEnds[i] - blockedStarts[i]);
+            }
+            this.maxBlockLength = max;
+        }
+
+        public Resource(long id) {
+            this(id, new long[0], new long[0]);
+        }
+
+        private Resource copy() {
+            return new Resource(id, blockedStarts, blockedEnds);
+        }
+
+        /** True if [start, end) keeps the turnaround gap to every existing schedule. */
+        boolean fits(long start, long end, long turnaround) {
+            // Blocks starting at or after end + turnaround are clear; walk back from the last one before that
+            int i = Arrays.binarySearch(blockedStarts, end + turnaround);
+            i = i >= 0 ? i - 1 : -i - 2;
+            for (; i >= 0 && blockedStarts[i] + maxBlockLength + turnaround > start; i--) {
+                if (blockedEnds[i] + turnaround > start) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public static final class Group {
+        final List<Trip> trips;
+        final List<Resource> drivers;
+        final List<Resource> buses;
+
+        public Group(List<Trip> trips, List<Resource> drivers, List<Resource> buses) {
+            this.trips = trips;
+            this.drivers = drivers;
+            this.buses = buses;
+        }
+    }
+
+    /** Driver and bus per trip, in the order of the group's trips; {@link #UNASSIGNED} if none was free. */
+    public static final class Plan {
+        private final long[] driverIds;
+        private final long[] busIds;
+
+        Plan(long[] driverIds, long[] busIds) {
+            this.driverIds = driverIds;
+            this.busIds = busIds;
+        }
+
+        public long driverId(int trip) {
+            return driverIds[trip];
+        }
+
+        public long busId(int trip) {
+            return busIds[trip];
+        }
+    }
+
+    private final long turnaroundSeconds;
+
+    public AssignmentOptimizer(long turnaroundSeconds) {
+        this.turnaroundSeconds = turnaroundSeconds;
+    }
+
+    /** Optimizes every group on the executor and returns the plans in group order. */
+    public List<Plan> optimize(List<Group> groups, Executor executor) {
+        List<CompletableFuture<Plan>> futures = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            futures.add(CompletableFuture.supplyAsync(() -> optimize(group), executor));
+        }
+        List<Plan> plans = new ArrayList<>(groups.size());
+        for (CompletableFuture<Plan> future : futures) {
+            plans.add(future.join());
+        }
+        return plans;
+    }
+
+    public Plan optimize(Group group) {
+        int n = group.trips.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> group.trips.get(i).start));
+
+        Pool drivers = new Pool(group.drivers);
+        Pool buses = new Pool(group.buses);
+        long[] driverIds = new long[n];
+        long[] busIds = new long[n];
+        for (int index : order) {
+            Trip trip = group.trips.get(index);
+            Resource driver = drivers.take(trip, turnaroundSeconds);
+            if (driver == null) {
+                continue;
+            }
+            Resource bus = buses.take(trip, turnaroundSeconds);
+            if (bus == null) {
+                drivers.giveBack(driver);
+                continue;
+            }
+            drivers.busyUntil(driver, trip.end + turnaroundSeconds);
+            buses.busyUntil(bus, trip.end + turnaroundSeconds);
+            driverIds[index] = driver.id;
+            busIds[index] = bus.id;
+        }
+        return new Plan(driverIds, busIds);
+    }
+
+    private static final class Pool {
+        private final PriorityQueue<Resource> busy = new PriorityQueue<>(Comparator.comparingLong(r -> r.freeAt));
+        private final Deque<Resource> idle = new ArrayDeque<>();
+
+        Pool(List<Resource> resources) {
+            // Copies, so the caller's resources can be reused across runs
+            for (int i = resources.size() - 1; i >= 0; i--) {
+                idle.push(resources.get(i).copy());
+            }
+        }
+
+        Resource take(Trip trip, long turnaround) {
+            while (!busy.isEmpty() && busy.peek().freeAt <= trip.start) {
+                idle.push(busy.poll());
+            }
+            for (Iterator<Resource> it = idle.iterator(); it.hasNext();) {
+                Resource resource = it.next();
+                if (resource.fits(trip.start, trip.end, turnaround)) {
+                    it.remove();
+                    return resource;
+                }
+            }
+            return null;
+        }
+
+        void giveBack(Resource resource) {
+            idle.push(resource);
+        }
+
+        void busyUntil(Resource resource, long freeAt) {
+            resource.freeAt = freeAt;
+            busy.add(resource);
+        }
+    }
+}
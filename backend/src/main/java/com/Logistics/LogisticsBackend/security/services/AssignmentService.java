@@ -0,0 +1,330 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.model.ERole;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.Schedule;
+import com.Logistics.LogisticsBackend.model.User;
+import com.Logistics.LogisticsBackend.payload.request.AssignmentRequest;
+import com.Logistics.LogisticsBackend.payload.response.AssignedTrip;
+import com.Logistics.LogisticsBackend.payload.response.AssignmentResponse;
+import com.Logistics.LogisticsBackend.repository.BusRepository;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+import com.Logistics.LogisticsBackend.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Plans drivers and buses for a day's trips with {@link AssignmentOptimizer}. The schedules that
+ * already exist that day block their drivers and buses, and a trip whose route already departs at
+ * the same minute is not planned. With {@code apply} the drivers, buses and routes of the plan are
+ * locked, the plan is checked again against what was committed in the meantime, and it is written in
+ * one batch, the same way as a generated timetable.
+ */
+@Service
+public class AssignmentService {
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentService.class);
+
+    private static final String DEFAULT_GROUP = "default";
+
+    // 0 means one worker per available processor
+    @Value("${urbansync.app.assignThreads:0}")
+    private int threads;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private RouteSummaryService routeSummaryService;
+
+    @Autowired
+    private ScheduleConflictIndex scheduleConflictIndex;
+
+    @Autowired
+    private ScheduleBatchWriter scheduleBatchWriter;
+
+    @Autowired
+    private ResourceLockService resourceLockService;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Transactional
+    public AssignmentResponse assign(AssignmentRequest request) {
+        long turnaround = request.getTurnaroundMinutes() != null ? request.getTurnaroundMinutes() * 60L : 0L;
+        Set<Long> activeDrivers = new HashSet<>(userRepository.findIdsByRoleAndStatus(ERole.ROLE_DRIVER, User.EmployeeStatus.ACTIVE));
+        Set<Long> activeBuses = new HashSet<>(busRepository.findActiveIds());
+        List<AssignmentRequest.Group> groups = groups(request, activeDrivers, activeBuses);
+
+        Set<Long> routeIds = request.getTrips().stream().map(AssignmentRequest.Trip::getRouteId).collect(Collectors.toSet());
+        Map<Long, Route> routes = routeRepository.findAllById(routeIds).stream()
+                .collect(Collectors.toMap(Route::getId, Function.identity()));
+        for (Long routeId : routeIds) {
+            if (!routes.containsKey(routeId)) {
+                throw new ResourceNotFoundException("Route not found with ID: " + routeId);
+            }
+        }
+
+        List<AssignedTrip> plan = new ArrayList<>(request.getTrips().size());
+        for (AssignmentRequest.Trip trip : request.getTrips()) {
+            AssignedTrip assigned = new AssignedTrip();
+            assigned.setRouteId(trip.getRouteId());
+            assigned.setDepartureDateTime(request.getDate().atTime(trip.getDepartureTime()));
+            assigned.setEstimatedArrivalDateTime(assigned.getDepartureDateTime()
+                    .plusMinutes(routeSummaryService.getSummary(trip.getRouteId()).getEstimatedDurationMin()));
+            plan.add(assigned);
+        }
+
+        // Existing schedules of the day block their drivers and buses and their route departures
+        LocalDateTime from = plan.stream().map(AssignedTrip::getDepartureDateTime).min(LocalDateTime::compareTo).get()
+                .minusMinutes(turnaround / 60);
+        LocalDateTime to = plan.stream().map(AssignedTrip::getEstimatedArrivalDateTime).max(LocalDateTime::compareTo).get()
+                .plusMinutes(turnaround / 60);
+        Map<Long, List<ScheduleSlot>> driverBlocks = new HashMap<>();
+        Map<Long, List<ScheduleSlot>> busBlocks = new HashMap<>();
+        Set<String> routeDepartures = new HashSet<>();
+        for (Object[] row : scheduleRepository.findScheduleSlotsBetween(from, to)) {
+            ScheduleSlot slot = ScheduleSlot.fromRow(row);
+            driverBlocks.computeIfAbsent(slot.driverId, id -> new ArrayList<>()).add(slot);
+            busBlocks.computeIfAbsent(slot.busId, id -> new ArrayList<>()).add(slot);
+            routeDepartures.add(slot.routeId + "@" + slot.start);
+        }
+
+        boolean singleGroup = request.getGroups() == null || request.getGroups().isEmpty();
+        Map<Long, Integer> groupByRoute = new HashMap<>();
+        for (int g = 0; g < groups.size(); g++) {
+            for (Long routeId : groups.get(g).getRouteIds()) {
+                groupByRoute.put(routeId, g);
+            }
+        }
+        List<List<AssignedTrip>> tripsByGroup = new ArrayList<>();
+        List<List<AssignmentOptimizer.Trip>> optimizerTrips = new ArrayList<>();
+        for (int g = 0; g < groups.size(); g++) {
+            tripsByGroup.add(new ArrayList<>());
+            optimizerTrips.add(new ArrayList<>());
+        }
+        for (AssignedTrip trip : plan) {
+            long start = ScheduleSlot.toSeconds(trip.getDepartureDateTime());
+            Integer g = singleGroup ? Integer.valueOf(0) : groupByRoute.get(trip.getRouteId());
+            if (!routeDepartures.add(trip.getRouteId() + "@" + start)) {
+                trip.setReason("Route already departs at this time.");
+            } else if (g == null) {
+                trip.setReason("No group covers this route.");
+            } else {
+                trip.setGroup(groups.get(g).getName());
+                tripsByGroup.get(g).add(trip);
+                optimizerTrips.get(g).add(new AssignmentOptimizer.Trip(start, ScheduleSlot.toSeconds(trip.getEstimatedArrivalDateTime())));
+            }
+        }
+
+        List<AssignmentOptimizer.Group> optimizerGroups = new ArrayList<>();
+        for (int g = 0; g < groups.size(); g++) {
+            optimizerGroups.add(new AssignmentOptimizer.Group(optimizerTrips.get(g),
+                    resources(groups.get(g).getDriverIds(), driverBlocks),
+                    resources(groups.get(g).getBusIds(), busBlocks)));
+        }
+        List<AssignmentOptimizer.Plan> plans = new AssignmentOptimizer(turnaround).optimize(optimizerGroups, executor);
+
+        int assigned = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            List<AssignedTrip> trips = tripsByGroup.get(g);
+            for (int i = 0; i < trips.size(); i++) {
+                long driverId = plans.get(g).driverId(i);
+                if (driverId == AssignmentOptimizer.UNASSIGNED) {
+                    trips.get(i).setReason("No driver and bus are free for this trip.");
+                } else {
+                    trips.get(i).setDriverId(driverId);
+                    trips.get(i).setBusId(plans.get(g).busId(i));
+                    assigned++;
+                }
+            }
+        }
+
+        int created = 0;
+        if (request.isApply() && assigned > 0) {
+            created = apply(plan, routes, from, to, turnaround);
+            logger.info("Assigned and created {} of {} trips on {}", created, plan.size(), request.getDate());
+        }
+        return new AssignmentResponse(plan.size(), assigned, created, plan);
+    }
+
+    /**
+     * Locks only the drivers, buses and routes the plan uses, then reads the window again: a trip
+     * that now overlaps a schedule committed since the plan was made is dropped instead of saved.
+     */
+    private int apply(List<AssignedTrip> plan, Map<Long, Route> routes, LocalDateTime from, LocalDateTime to, long turnaround) {
+        Set<Long> driverIds = new HashSet<>();
+        Set<Long> busIds = new HashSet<>();
+        Set<Long> routeIds = new HashSet<>();
+        for (AssignedTrip trip : plan) {
+            if (trip.getDriverId() != null) {
+                driverIds.add(trip.getDriverId());
+                busIds.add(trip.getBusId());
+                routeIds.add(trip.getRouteId());
+            }
+        }
+        List<String> keys = new ArrayList<>(ScheduleConstraints.keys(null, driverIds, busIds));
+        routeIds.forEach(id -> keys.add(ScheduleConstraints.routeKey(id)));
+        resourceLockService.lockForTransaction(keys);
+
+        Map<Long, List<ScheduleSlot>> driverSlots = new HashMap<>();
+        Map<Long, List<ScheduleSlot>> busSlots = new HashMap<>();
+        Set<String> routeDepartures = new HashSet<>();
+        for (Object[] row : scheduleRepository.findScheduleSlotsBetween(from, to)) {
+            ScheduleSlot slot = ScheduleSlot.fromRow(row);
+            driverSlots.computeIfAbsent(slot.driverId, id -> new ArrayList<>()).add(slot);
+            busSlots.computeIfAbsent(slot.busId, id -> new ArrayList<>()).add(slot);
+            routeDepartures.add(slot.routeId + "@" + slot.start);
+        }
+
+        Map<Schedule, AssignedTrip> tripBySchedule = new IdentityHashMap<>();
+        List<Schedule> schedules = new ArrayList<>();
+        for (AssignedTrip trip : plan) {
+            if (trip.getDriverId() == null) {
+                continue;
+            }
+            long start = ScheduleSlot.toSeconds(trip.getDepartureDateTime());
+            long end = ScheduleSlot.toSeconds(trip.getEstimatedArrivalDateTime());
+            if (routeDepartures.contains(trip.getRouteId() + "@" + start)
+                    || overlaps(driverSlots.get(trip.getDriverId()), start, end, turnaround)
+                    || overlaps(busSlots.get(trip.getBusId()), start, end, turnaround)) {
+                trip.setDriverId(null);
+                trip.setBusId(null);
+                trip.setReason("Conflicts with a schedule saved in the meantime.");
+                continue;
+            }
+            Schedule schedule = new Schedule();
+            schedule.setRoute(routes.get(trip.getRouteId()));
+            schedule.setDriver(userRepository.getReferenceById(trip.getDriverId()));
+            schedule.setBus(busRepository.getReferenceById(trip.getBusId()));
+            schedule.setDepartureDateTime(trip.getDepartureDateTime());
+            schedule.setEstimatedArrivalDateTime(trip.getEstimatedArrivalDateTime());
+            schedule.setStatus("SCHEDULED");
+            schedules.add(schedule);
+            tripBySchedule.put(schedule, trip);
+        }
+        // Catch anything committed since the day was read, then hold the rest until commit
+        for (Schedule rejected : scheduleConflictIndex.holdAll(schedules)) {
+            AssignedTrip trip = tripBySchedule.get(rejected);
+            trip.setDriverId(null);
+            trip.setBusId(null);
+            trip.setReason("Conflicts with a schedule saved in the meantime.");
+            schedules.remove(rejected);
+        }
+        try {
+            scheduleBatchWriter.insertAll(schedules);
+        } catch (DataIntegrityViolationException e) {
+            throw ScheduleConstraints.translate(e);
+        }
+        return schedules.size();
+    }
+
+    private static boolean overlaps(List<ScheduleSlot> slots, long start, long end, long turnaround) {
+        if (slots != null) {
+            for (ScheduleSlot slot : slots) {
+                if (slot.start < end + turnaround && start < slot.end + turnaround) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<AssignmentRequest.Group> groups(AssignmentRequest request, Set<Long> activeDrivers, Set<Long> activeBuses) {
+        if (request.getGroups() == null || request.getGroups().isEmpty()) {
+            AssignmentRequest.Group all = new AssignmentRequest.Group();
+            all.setName(DEFAULT_GROUP);
+            all.setRouteIds(List.of());
+            all.setDriverIds(activeDrivers.stream().sorted().collect(Collectors.toList()));
+            all.setBusIds(activeBuses.stream().sorted().collect(Collectors.toList()));
+            return List.of(all);
+        }
+        Set<Long> seenDrivers = new HashSet<>();
+        Set<Long> seenBuses = new HashSet<>();
+        Set<Long> seenRoutes = new HashSet<>();
+        for (AssignmentRequest.Group group : request.getGroups()) {
+            for (Long id : group.getDriverIds()) {
+                if (!activeDrivers.contains(id)) {
+                    throw new IllegalArgumentException("User with ID " + id + " is not an active driver.");
+                }
+                if (!seenDrivers.add(id)) {
+                    throw new IllegalArgumentException("Driver with ID " + id + " is in more than one group.");
+                }
+            }
+            for (Long id : group.getBusIds()) {
+                if (!activeBuses.contains(id)) {
+                    throw new IllegalArgumentException("Bus with ID " + id + " is not active.");
+                }
+                if (!seenBuses.add(id)) {
+                    throw new IllegalArgumentException("Bus with ID " + id + " is in more than one group.");
+                }
+            }
+            for (Long id : group.getRouteIds()) {
+                if (!seenRoutes.add(id)) {
+                    throw new IllegalArgumentException("Route with ID " + id + " is in more than one group.");
+                }
+            }
+        }
+        return request.getGroups();
+    }
+
+    private static List<AssignmentOptimizer.Resource> resources(List<Long> ids, Map<Long, List<ScheduleSlot>> blocks) {
+        List<AssignmentOptimizer.Resource> resources = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            List<ScheduleSlot> slots = blocks.getOrDefault(id, List.of());
+            long[] starts = new long[slots.size()];
+            long[] ends = new long[slots.size()];
+            List<ScheduleSlot> sorted = slots.stream().sorted((a, b) -> Long.compare(a.start, b.start)).collect(Collectors.toList());
+            for (int i = 0; i < sorted.size(); i++) {
+                starts[i] = sorted.get(i).start;
+                ends[i] = sorted.get(i).end;
+            }
+            resources.add(new AssignmentOptimizer.Resource(id, starts, ends));
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,579 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.payload.response.SearchSuggestion;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.StopRepository;
+
+/**
+ * In-memory autocomplete over route names and codes and stop names, landmarks and streets. Text is
+ * folded to lowercase ASCII words; each word of the query must match a word of the entry exactly,
+ * as a prefix, or (for words of four letters or more) as a prefix within one or two typos. Typo
+ * candidates are found through a trigram index over the vocabulary and checked with a bounded
+ * edit distance, so no query scans every entry.
+ *
+ * Entries are replaced when the {@link NetworkChangedEvent} of their route or stop commits; a
+ * background job reloads everything and replays changes that committed while it was reading.
+ * Searches share a read lock.
+ */
+@Component
+public class AutocompleteIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    public static final String ROUTE = "ROUTE";
+    public static final String STOP = "STOP";
+
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // Per-field weights: what the user most likely typed counts most
+    private static final float NAME_WEIGHT = 1.0f;
+    private static final float CODE_WEIGHT = 1.0f;
+    private static final float LANDMARK_WEIGHT = 0.6f;
+    private static final float STREET_WEIGHT = 0.5f;
+
+    private static final float EXACT_SCORE = 1.0f;
+    private static final float PREFIX_SCORE = 0.8f;
+    private static final float TYPO_SCORE = 0.6f;
+    private static final float TYPO_PENALTY = 0.15f;
+    private static final float LABEL_PREFIX_BONUS = 0.5f;
+
+    // A one-letter prefix can match much of the vocabulary; only the first words in order are used
+    private static final int MAX_EXPANSIONS = 2048;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private StopRepository stopRepository;
+
+    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private Index index = new Index(); // Guarded by rwLock
+
+    // Guards the journal; taken before rwLock's write lock, never the other way round
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private List<Consumer<Index>> journal; // Non-null while a reload is reading from the database
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${urbansync.app.autocompleteReconcileMs:600000}",
+            initialDelayString = "${urbansync.app.autocompleteReconcileMs:600000}")
+    public void reconcile() {
+        reload();
+    }
+
+    public void reload() {
+        journalLock.lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            journalLock.unlock();
+        }
+
+        Index fresh = new Index();
+        try {
+            routeRepository.findAll().forEach(route -> fresh.put(routeEntry(route)));
+            stopRepository.findAll().forEach(stop -> fresh.put(stopEntry(stop)));
+        } catch (RuntimeException e) {
+            journalLock.lock();
+            try {
+                journal = null;
+            } finally {
+                journalLock.unlock();
+            }
+            logger.warn("Could not load the autocomplete index: {}", e.getMessage());
+            return;
+        }
+
+        journalLock.lock();
+        try {
+            journal.forEach(change -> change.accept(fresh));
+            journal = null;
+            rwLock.writeLock().lock();
+            try {
+                index = fresh;
+            } finally {
+                rwLock.writeLock().unlock();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+        logger.info("Autocomplete index loaded {} entries, {} words", fresh.size(), fresh.postings.size());
+    }
+
+    /**
+     * Re-reads a route or stop once its change commits and replaces its entry; one deleted is
+     * dropped. A change to any number of them reloads the index.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        if (event.isBulk()) {
+            reload();
+            return;
+        }
+        String type = event.getStopId() != null ? STOP : ROUTE;
+        Long id = event.getStopId() != null ? event.getStopId() : event.getRouteId();
+        Optional<Entry> entry;
+        try {
+            entry = STOP.equals(type)
+                    ? stopRepository.findById(id).map(AutocompleteIndex::stopEntry)
+                    : routeRepository.findById(id).map(AutocompleteIndex::routeEntry);
+        } catch (RuntimeException e) {
+            // The write itself has committed; the next reconcile picks the change up
+            logger.warn("Could not refresh {} {} in the autocomplete index: {}", type.toLowerCase(Locale.ROOT), id, e.getMessage());
+            return;
+        }
+        apply(current -> {
+            if (entry.isPresent()) {
+                current.put(entry.get());
+            } else {
+                current.remove(key(type, id));
+            }
+        });
+    }
+
+    private void apply(Consumer<Index> change) {
+        journalLock.lock();
+        try {
+            rwLock.writeLock().lock();
+            try {
+                change.accept(index);
+            } finally {
+                rwLock.writeLock().unlock();
+            }
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Best matches for the query, highest score first. Every word of the query must match.
+     *
+     * @param type {@link #ROUTE}, {@link #STOP} or null for both
+     */
+    public List<SearchSuggestion> search(String query, String type, int limit) {
+        List<String> terms = words(query);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String phrase = String.join(" ", terms);
+        rwLock.readLock().lock();
+        try {
+            return index.search(terms, phrase, type, limit);
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
+    private static Entry routeEntry(Route route) {
+        Map<String, Float> words = new HashMap<>();
+        addWords(words, route.getName(), NAME_WEIGHT);
+        addWords(words, route.getRouteCode(), CODE_WEIGHT);
+        String detail = route.getDirection() != null ? route.getRouteCode() + " " + route.getDirection() : route.getRouteCode();
+        return new Entry(ROUTE, route.getId(), route.getName(), detail, words);
+    }
+
+    private static Entry stopEntry(Stop stop) {
+        Map<String, Float> words = new HashMap<>();
+        addWords(words, stop.getName(), NAME_WEIGHT);
+        addWords(words, stop.getLandmark(), LANDMARK_WEIGHT);
+        addWords(words, stop.getStreet(), STREET_WEIGHT);
+        String detail = stop.getStreet() != null ? stop.getStreet() : stop.getLandmark();
+        return new Entry(STOP, stop.getId(), stop.getName(), detail, words);
+    }
+
+    private static void addWords(Map<String, Float> words, String text, float weight) {
+        for (String word : words(text)) {
+            words.merge(word, weight, Math::max);
+        }
+    }
+
+    /** Lowercase words with accents removed and punctuation as separators. */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        for (String word : NON_WORD.split(folded)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String key(String type, Long id) {
+        return type + ":" + id;
+    }
+
+    private static int allowedTypos(String term) {
+        return term.length() < 4 ? 0 : term.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Fewest edits (insertions, deletions, substitutions, adjacent swaps) that turn {@code term}
+     * into some prefix of {@code word}, or {@code max + 1} if more than {@code max} are needed.
+     */
+    static int prefixEditDistance(String term, String word, int max) {
+        int n = term.length();
+        int m = Math.min(word.length(), n + max);
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = term.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && term.charAt(i - 1) == word.charAt(j - 2) && term.charAt(i - 2) == word.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = max + 1;
+        for (int j = 0; j <= m; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private static final class Entry {
+        final String type;
+        final Long id;
+        final String key;
+        final String label;
+        final String detail;
+        final String phrase; // The label as words, for the whole-query prefix bonus
+        final String[] words; // Distinct words, with the best field weight of each in weights
+        final float[] weights;
+
+        Entry(String type, Long id, String label, String detail, Map<String, Float> words) {
+            this.type = type;
+            this.id = id;
+            this.key = key(type, id);
+            this.label = label;
+            this.detail = detail;
+            this.phrase = String.join(" ", words(label));
+            this.words = new String[words.size()];
+            this.weights = new float[words.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> word : words.entrySet()) {
+                this.words[i] = word.getKey();
+                this.weights[i] = word.getValue();
+                i++;
+            }
+        }
+    }
+
+    /** Entries containing a word, by ordinal, with the word's field weight in each. */
+    private static final class Posting {
+        int[] ordinals = new int[2];
+        float[] weights = new float[2];
+        int size;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Per-thread score buffers, indexed by entry ordinal and all zero between queries. */
+    private static final class Scratch {
+        float[] scores = new float[0];
+        int[] matched = new int[0];
+
+        Scratch fit(int size) {
+            if (scores.length < size) {
+                scores = new float[size + size / 4];
+                matched = new int[scores.length];
+            }
+            return this;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Index {
+        // Entries by ordinal; a removed entry leaves a null until the next reload
+        final List<Entry> entries = new ArrayList<>();
+        final Map<String, Integer> ordinals = new HashMap<>();
+        final Map<String, Posting> postings = new HashMap<>();
+        final TreeSet<String> vocabulary = new TreeSet<>();
+        final Map<String, Set<String>> trigrams = new HashMap<>();
+
+        void put(Entry entry) {
+            remove(entry.key);
+            int ordinal = entries.size();
+            entries.add(entry);
+            ordinals.put(entry.key, ordinal);
+            for (int i = 0; i < entry.words.length; i++) {
+                String word = entry.words[i];
+                Posting posting = postings.get(word);
+                if (posting == null) {
+                    posting = new Posting();
+                    postings.put(word, posting);
+                    vocabulary.add(word);
+                    for (String trigram : trigrams(word)) {
+                        trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(word);
+                    }
+                }
+                posting.add(ordinal, entry.weights[i]);
+            }
+        }
+
+        void remove(String key) {
+            Integer ordinal = ordinals.remove(key);
+            if (ordinal == null) {
+                return;
+            }
+            Entry entry = entries.set(ordinal, null);
+            for (String word : entry.words) {
+                Posting posting = postings.get(word);
+                posting.remove(ordinal);
+                if (posting.size == 0) {
+                    postings.remove(word);
+                    vocabulary.remove(word);
+                    for (String trigram : trigrams(word)) {
+                        Set<String> words = trigrams.get(trigram);
+                        words.remove(word);
+                        if (words.isEmpty()) {
+                            trigrams.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+
+        int size() {
+            return ordinals.size();
+        }
+
+        List<SearchSuggestion> search(List<String> terms, String phrase, String type, int limit) {
+            // Start from the term with the fewest postings, then only check those entries for the others
+            List<Map<String, Float>> termMatches = new ArrayList<>();
+            int cheapest = 0;
+            long cheapestCost = Long.MAX_VALUE;
+            for (String term : terms) {
+                Map<String, Float> matches = matches(term);
+                long cost = 0;
+                for (String word : matches.keySet()) {
+                    cost += postings.get(word).size;
+                }
+                if (cost < cheapestCost) {
+                    cheapest = termMatches.size();
+                    cheapestCost = cost;
+                }
+                termMatches.add(matches);
+            }
+            if (cheapestCost == 0) {
+                return new ArrayList<>();
+            }
+
+            // Scores by ordinal; zero means not (or no longer) a match. Reused across queries and
+            // cleared again below, so a keystroke does not allocate an array the size of the index.
+            Scratch scratch = SCRATCH.get().fit(entries.size());
+            float[] scores = scratch.scores;
+            int[] matched = scratch.matched;
+            int count = 0;
+            for (Map.Entry<String, Float> word : termMatches.get(cheapest).entrySet()) {
+                Posting posting = postings.get(word.getKey());
+                for (int i = 0; i < posting.size; i++) {
+                    int ordinal = posting.ordinals[i];
+                    if (type != null && !type.equals(entries.get(ordinal).type)) {
+                        continue;
+                    }
+                    float score = word.getValue() * posting.weights[i];
+                    if (scores[ordinal] == 0) {
+                        matched[count++] = ordinal;
+                    }
+                    scores[ordinal] = Math.max(scores[ordinal], score);
+                }
+            }
+            for (int t = 0; t < termMatches.size(); t++) {
+                if (t == cheapest) {
+                    continue;
+                }
+                Map<String, Float> matches = termMatches.get(t);
+                for (int i = 0; i < count; i++) {
+                    int ordinal = matched[i];
+                    if (scores[ordinal] == 0) {
+                        continue;
+                    }
+                    float best = 0;
+                    Entry entry = entries.get(ordinal);
+                    for (int w = 0; w < entry.words.length; w++) {
+                        Float match = matches.get(entry.words[w]);
+                        if (match != null) {
+                            best = Math.max(best, match * entry.weights[w]);
+                        }
+                    }
+                    scores[ordinal] = best == 0 ? 0 : scores[ordinal] + best;
+                }
+            }
+
+            // Keep only the best few while scanning instead of sorting every match
+            Comparator<Integer> ranking = (a, b) -> rank(scores, a, b);
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+            for (int i = 0; i < count; i++) {
+                int ordinal = matched[i];
+                if (scores[ordinal] == 0) {
+                    continue;
+                }
+                if (entries.get(ordinal).phrase.startsWith(phrase)) {
+                    scores[ordinal] += LABEL_PREFIX_BONUS;
+                }
+                // Most matches of a common word tie with the worst kept one; rejecting them here
+                // keeps them out of the queue
+                if (best.size() == limit && rank(scores, ordinal, best.peek()) >= 0) {
+                    continue;
+                }
+                best.add(ordinal);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Integer> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            List<SearchSuggestion> suggestions = new ArrayList<>(ranked.size());
+            for (int ordinal : ranked) {
+                Entry entry = entries.get(ordinal);
+                suggestions.add(new SearchSuggestion(entry.type, entry.id, entry.label, entry.detail,
+                        Math.round(scores[ordinal] * 100) / 100.0));
+            }
+            for (int i = 0; i < count; i++) {
+                scores[matched[i]] = 0;
+            }
+            return suggestions;
+        }
+
+        /** Orders higher scores first, then shorter labels, then labels alphabetically. */
+        private int rank(float[] scores, int a, int b) {
+            int byScore = Float.compare(scores[b], scores[a]);
+            if (byScore != 0) {
+                return byScore;
+            }
+            String labelA = labelOf(a);
+            String labelB = labelOf(b);
+            return labelA.length() != labelB.length() ? Integer.compare(labelA.length(), labelB.length())
+                    : labelA.compareTo(labelB);
+        }
+
+        private String labelOf(int ordinal) {
+            String label = entries.get(ordinal).label;
+            return label != null ? label : "";
+        }
+
+        /** Vocabulary words the term may stand for, with how well each matches. */
+        private Map<String, Float> matches(String term) {
+            Map<String, Float> matches = new LinkedHashMap<>();
+            int expansions = 0;
+            for (String word : vocabulary.subSet(term, true, term + Character.MAX_VALUE, false)) {
+                matches.put(word, word.length() == term.length() ? EXACT_SCORE
+                        : PREFIX_SCORE + (EXACT_SCORE - PREFIX_SCORE) * term.length() / word.length());
+                if (++expansions >= MAX_EXPANSIONS) {
+                    break;
+                }
+            }
+
+            int typos = allowedTypos(term);
+            if (typos > 0) {
+                // Words sharing a trigram and the first letter; the typo is rarely the first thing typed
+                Set<String> candidates = new HashSet<>();
+                for (String trigram : trigrams(term)) {
+                    Set<String> words = trigrams.get(trigram);
+                    if (words != null) {
+                        for (String word : words) {
+                            if (word.charAt(0) == term.charAt(0) && !matches.containsKey(word)) {
+                                candidates.add(word);
+                            }
+                        }
+                    }
+                }
+                for (String word : candidates) {
+                    int distance = prefixEditDistance(term, word, typos);
+                    if (distance <= typos) {
+                        matches.put(word, TYPO_SCORE - TYPO_PENALTY * (distance - 1));
+                    }
+                }
+            }
+            return matches;
+        }
+
+        // Trigrams of the word with a start marker, so a word's first letters count as well
+        private static List<String> trigrams(String word) {
+            String padded = "$" + word;
+            List<String> trigrams = new ArrayList<>();
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+            return trigrams;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.Logistics.LogisticsBackend.event.SchedulesChangedEvent;
+import com.Logistics.LogisticsBackend.exception.DuplicateResourceException;
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.model.Schedule;
+import com.Logistics.LogisticsBackend.payload.request.DelayRequest;
+import com.Logistics.LogisticsBackend.payload.response.DelayResponse;
+import com.Logistics.LogisticsBackend.payload.response.DelayedTrip;
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+
+/**
+ * Reports, and optionally applies, the knock-on effect of a late trip on the later trips of the
+ * same drivers and buses. One query loads every schedule in the horizon after the delayed trip's
+ * departure; the ripple itself is computed in memory by {@link DelayPropagator}. Applying it locks
+ * the drivers, buses and routes involved, rejects a shift onto another departure of the same route
+ * and saves each moved trip the same checked way as a single schedule update.
+ */
+@Service
+public class DelayPropagationService {
+
+    // Lock rounds before a ripple that keeps reaching new drivers, buses or routes is given up
+    private static final int MAX_LOCK_ROUNDS = 4;
+
+    @Value("${urbansync.app.delayHorizonHours:24}")
+    private int horizonHours;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ScheduleConflictIndex scheduleConflictIndex;
+
+    @Autowired
+    private ResourceLockService resourceLockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public DelayResponse propagate(Long scheduleId, DelayRequest request) {
+        Schedule schedule = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule not found with id: " + scheduleId));
+        if ("COMPLETED".equals(schedule.getStatus()) || "CANCELLED".equals(schedule.getStatus())) {
+            throw new IllegalArgumentException("Schedule " + scheduleId + " is " + schedule.getStatus() + " and cannot be delayed");
+        }
+        DelayPropagator propagator = new DelayPropagator(
+                request.getTurnaroundMinutes() != null ? request.getTurnaroundMinutes() * 60L : 0L);
+
+        List<ScheduleSlot> slots = slots(schedule, request.getDelayMinutes());
+        List<DelayPropagator.Shift> shifts = ripple(propagator, slots, schedule, request.getDelayMinutes());
+        if (request.isApply()) {
+            // Lock every driver, bus and route the ripple touches and recompute, so the shifts are based
+            // on what was committed before the locks were taken. A recomputed ripple can reach further
+            // than the first one, so repeat until it touches nothing that is not locked yet.
+            Set<String> locked = new HashSet<>();
+            Set<String> keys = keys(shifts);
+            for (int round = 0; !locked.containsAll(keys); round++) {
+                if (round == MAX_LOCK_ROUNDS) {
+                    throw new CannotAcquireLockException("The schedules around schedule " + scheduleId
+                            + " kept changing while the delay was applied");
+                }
+                keys.removeAll(locked);
+                resourceLockService.lockForTransaction(keys);
+                locked.addAll(keys);
+                slots = slots(schedule, request.getDelayMinutes());
+                shifts = ripple(propagator, slots, schedule, request.getDelayMinutes());
+                keys = keys(shifts);
+            }
+            checkRouteDepartures(slots, shifts);
+            apply(shifts);
+        }
+
+        List<DelayedTrip> trips = shifts.stream().map(DelayPropagationService::toTrip).collect(Collectors.toList());
+        return new DelayResponse(scheduleId, request.getDelayMinutes(), trips.size() - 1, request.isApply(), trips);
+    }
+
+    /** Every schedule in the horizon after the delayed trip's departure. */
+    private List<ScheduleSlot> slots(Schedule schedule, int delayMinutes) {
+        LocalDateTime from = schedule.getDepartureDateTime();
+        LocalDateTime to = schedule.getEstimatedArrivalDateTime().plusMinutes(delayMinutes).plusHours(horizonHours);
+        List<ScheduleSlot> slots = new ArrayList<>();
+        for (Object[] row : scheduleRepository.findScheduleSlotsBetween(from, to)) {
+            slots.add(ScheduleSlot.fromRow(row));
+        }
+        return slots;
+    }
+
+    private static List<DelayPropagator.Shift> ripple(DelayPropagator propagator, List<ScheduleSlot> slots, Schedule schedule,
+            int delayMinutes) {
+        boolean departed = "IN_TRANSIT".equals(schedule.getStatus());
+        return propagator.propagate(slots, schedule.getId(), delayMinutes * 60L, departed);
+    }
+
+    private static Set<String> keys(List<DelayPropagator.Shift> shifts) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (DelayPropagator.Shift shift : shifts) {
+            keys.add(ScheduleConstraints.driverKey(shift.slot.driverId));
+            keys.add(ScheduleConstraints.busKey(shift.slot.busId));
+            keys.add(ScheduleConstraints.routeKey(shift.slot.routeId));
+        }
+        return keys;
+    }
+
+    /** Rejects the delay if a shifted trip would depart when its route already does. */
+    private static void checkRouteDepartures(List<ScheduleSlot> slots, List<DelayPropagator.Shift> shifts) {
+        Map<Long, ScheduleSlot> shifted = new HashMap<>();
+        for (DelayPropagator.Shift shift : shifts) {
+            shifted.put(shift.slot.scheduleId, shifted(shift));
+        }
+        ScheduleTimelines routes = new ScheduleTimelines(slot -> slot.routeId);
+        for (ScheduleSlot slot : slots) {
+            routes.add(shifted.getOrDefault(slot.scheduleId, slot));
+        }
+        for (ScheduleSlot slot : shifted.values()) {
+            if (ScheduleConstraints.routeDepartsAt(routes, slot.routeId, slot.start, slot.scheduleId)) {
+                throw new DuplicateResourceException("Route is already scheduled for this time period.");
+            }
+        }
+    }
+
+    private void apply(List<DelayPropagator.Shift> shifts) {
+        Map<Long, Schedule> schedules = scheduleRepository.findAllById(
+                shifts.stream().map(shift -> shift.slot.scheduleId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Schedule::getId, Function.identity()));
+        // Latest first, so no trip is moved onto one that has not been moved out of the way yet
+        List<DelayPropagator.Shift> latestFirst = new ArrayList<>(shifts);
+        latestFirst.sort(Comparator.comparingLong((DelayPropagator.Shift shift) -> shift.slot.start).reversed());
+        for (DelayPropagator.Shift shift : latestFirst) {
+            Schedule schedule = schedules.get(shift.slot.scheduleId);
+            schedule.setDepartureDateTime(ScheduleSlot.fromSeconds(shift.slot.start + shift.startShift));
+            schedule.setEstimatedArrivalDateTime(ScheduleSlot.fromSeconds(shift.slot.end + shift.endShift));
+            saveChecked(schedule);
+            scheduleConflictIndex.scheduleSaved(schedule);
+        }
+        eventPublisher.publishEvent(new SchedulesChangedEvent(schedules.keySet()));
+    }
+
+    // Flushes each move, as ScheduleService does, so a database overlap constraint fails with the usual message
+    private void saveChecked(Schedule schedule) {
+        try {
+            scheduleRepository.saveAndFlush(schedule);
+        } catch (DataIntegrityViolationException e) {
+            throw ScheduleConstraints.translate(e);
+        }
+    }
+
+    private static ScheduleSlot shifted(DelayPropagator.Shift shift) {
+        return new ScheduleSlot(shift.slot.scheduleId, shift.slot.driverId, shift.slot.busId, shift.slot.routeId,
+                shift.slot.start + shift.startShift, shift.slot.end + shift.endShift);
+    }
+
+    private static DelayedTrip toTrip(DelayPropagator.Shift shift) {
+        DelayedTrip trip = new DelayedTrip();
+        trip.setScheduleId(shift.slot.scheduleId);
+        trip.setRouteId(shift.slot.routeId);
+        trip.setDriverId(shift.slot.driverId);
+        trip.setBusId(shift.slot.busId);
+        trip.setDepartureDateTime(ScheduleSlot.fromSeconds(shift.slot.start));
+        trip.setEstimatedArrivalDateTime(ScheduleSlot.fromSeconds(shift.slot.end));
+        trip.setNewDepartureDateTime(ScheduleSlot.fromSeconds(shift.slot.start + shift.startShift));
+        trip.setNewEstimatedArrivalDateTime(ScheduleSlot.fromSeconds(shift.slot.end + shift.endShift));
+        trip.setShiftMinutes(shift.endShift / 60);
+        if (shift.causedBy != null) {
+            trip.setCausedByScheduleId(shift.causedBy.scheduleId);
+            trip.setReason(shift.cause.name());
+        }
+        return trip;
+    }
+}
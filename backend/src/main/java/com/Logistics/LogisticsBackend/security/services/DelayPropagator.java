@@ -0,0 +1,112 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Works out how a late trip ripples through the trips that follow it. Every schedule has at most
+ * one next trip per driver and one per bus; sorted by departure these links always point forward,
+ * so one pass over the schedules in departure order settles every shift: a shifted trip pushes its
+ * driver's and its bus's next trip back by whatever no longer fits before it, including the
+ * turnaround. A trip is pushed back by at most the delay it inherits, so conflicts that existed
+ * before the delay are not blamed on it. Runs in O(n log n) for the sort, O(n) for the pass.
+ *
+ * Times are epoch seconds. The class is stateless and thread-safe.
+ */
+final class DelayPropagator {
+
+    enum Cause {
+        DRIVER_OVERLAP, DRIVER_TURNAROUND, BUS_OVERLAP, BUS_TURNAROUND
+    }
+
+    /** A schedule that moves: by {@code startShift} at departure and {@code endShift} at arrival. */
+    static final class Shift {
+        final ScheduleSlot slot;
+        final long startShift;
+        final long endShift;
+        // Null for the delayed schedule itself
+        final ScheduleSlot causedBy;
+        final Cause cause;
+
+        Shift(ScheduleSlot slot, long startShift, long endShift, ScheduleSlot causedBy, Cause cause) {
+            this.slot = slot;
+            this.startShift = startShift;
+            this.endShift = endShift;
+            this.causedBy = causedBy;
+            this.cause = cause;
+        }
+    }
+
+    private final long turnaroundSeconds;
+
+    DelayPropagator(long turnaroundSeconds) {
+        this.turnaroundSeconds = turnaroundSeconds;
+    }
+
+    /**
+     * @param slots    the delayed schedule and everything after it that could be affected
+     * @param departed true if the delayed trip is already under way, so only its arrival moves
+     * @return the delayed schedule followed by every schedule it pushes back, in departure order
+     */
+    List<Shift> propagate(List<ScheduleSlot> slots, long delayedId, long delaySeconds, boolean departed) {
+        ScheduleSlot[] sorted = slots.toArray(new ScheduleSlot[0]);
+        Arrays.sort(sorted, Comparator.comparingLong((ScheduleSlot s) -> s.start).thenComparingLong(s -> s.scheduleId));
+        int n = sorted.length;
+
+        // Next trip of the same driver and of the same bus, -1 if none
+        int[] nextByDriver = new int[n];
+        int[] nextByBus = new int[n];
+        Map<Long, Integer> laterDriverTrip = new HashMap<>();
+        Map<Long, Integer> laterBusTrip = new HashMap<>();
+        int delayed = -1;
+        for (int i = n - 1; i >= 0; i--) {
+            Integer next = laterDriverTrip.put(sorted[i].driverId, i);
+            nextByDriver[i] = next != null ? next : -1;
+            next = laterBusTrip.put(sorted[i].busId, i);
+            nextByBus[i] = next != null ? next : -1;
+            if (sorted[i].scheduleId == delayedId) {
+                delayed = i;
+            }
+        }
+        if (delayed < 0) {
+            throw new IllegalArgumentException("Delayed schedule " + delayedId + " is not among the given schedules");
+        }
+
+        long[] endShift = new long[n];
+        int[] causedBy = new int[n];
+        Cause[] causes = new Cause[n];
+        endShift[delayed] = delaySeconds;
+        causedBy[delayed] = -1;
+
+        List<Shift> shifts = new ArrayList<>();
+        for (int i = delayed; i < n; i++) {
+            if (endShift[i] == 0) {
+                continue;
+            }
+            boolean self = i == delayed;
+            shifts.add(new Shift(sorted[i], self && departed ? 0 : endShift[i], endShift[i],
+                    self ? null : sorted[causedBy[i]], causes[i]));
+            long newEnd = sorted[i].end + endShift[i];
+            push(sorted, endShift, causedBy, causes, i, nextByDriver[i], newEnd, Cause.DRIVER_OVERLAP, Cause.DRIVER_TURNAROUND);
+            push(sorted, endShift, causedBy, causes, i, nextByBus[i], newEnd, Cause.BUS_OVERLAP, Cause.BUS_TURNAROUND);
+        }
+        return shifts;
+    }
+
+    private void push(ScheduleSlot[] sorted, long[] endShift, int[] causedBy, Cause[] causes,
+            int from, int next, long newEnd, Cause overlap, Cause turnaround) {
+        if (next < 0) {
+            return;
+        }
+        long needed = Math.min(newEnd + turnaroundSeconds - sorted[next].start, endShift[from]);
+        if (needed > endShift[next]) {
+            endShift[next] = needed;
+            causedBy[next] = from;
+            causes[next] = newEnd > sorted[next].start ? overlap : turnaround;
+        }
+    }
+}
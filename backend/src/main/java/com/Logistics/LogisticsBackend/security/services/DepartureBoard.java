@@ -0,0 +1,263 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The departures of the next few hours at every stop. Each stop's departures are an array sorted
+ * by time and replaced as a whole on change, so a lookup is a binary search and a copy of the
+ * next few entries, without locking; writers must be serialized by the caller.
+ *
+ * A trip leaves each stop of its route but the last at the route's offset from the trip's
+ * departure. Departures before {@link #from()} are dropped as the window rolls forward; trips
+ * departing at or after {@link #to()} are not held.
+ */
+final class DepartureBoard {
+
+    /** A route's labels and its stops in order, with the offset of each from the trip's departure in seconds. */
+    static final class Line {
+        final long routeId;
+        final String code;
+        final String name;
+        final String destination;
+        final long[] stopIds;
+        final int[] offsets;
+
+        Line(long routeId, String code, String name, String destination, long[] stopIds, int[] offsets) {
+            this.routeId = routeId;
+            this.code = code;
+            this.name = name;
+            this.destination = destination;
+            this.stopIds = stopIds;
+            this.offsets = offsets;
+        }
+
+        // Offset of the last stop a trip departs from
+        int lastDeparture() {
+            return offsets.length > 1 ? offsets[offsets.length - 2] : 0;
+        }
+    }
+
+    /** One trip leaving one stop; time in epoch seconds. */
+    static final class Departure {
+        final long time;
+        final long scheduleId;
+        final Line line;
+
+        Departure(long time, long scheduleId, Line line) {
+            this.time = time;
+            this.scheduleId = scheduleId;
+            this.line = line;
+        }
+    }
+
+    private static final Departure[] NONE = new Departure[0];
+    private static final Comparator<Departure> ORDER = Comparator.<Departure>comparingLong(d -> d.time)
+            .thenComparingLong(d -> d.scheduleId);
+
+    private final Map<Long, Line> lines = new HashMap<>();
+    private final Map<Long, TransitNetwork.Trip> trips = new HashMap<>();
+    private final Map<Long, Departure[]> byStop = new ConcurrentHashMap<>();
+    private volatile long from;
+    private volatile long to;
+
+    private DepartureBoard(long from, long to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /** A board of the departures in [from, to) of the given trips; trips of routes without a line are kept but list nothing. */
+    static DepartureBoard build(long from, long to, Collection<Line> lines, Collection<TransitNetwork.Trip> trips) {
+        DepartureBoard board = new DepartureBoard(from, to);
+        lines.forEach(line -> board.lines.put(line.routeId, line));
+        Map<Long, List<Departure>> collected = new HashMap<>();
+        for (TransitNetwork.Trip trip : trips) {
+            if (board.holds(trip)) {
+                board.trips.put(trip.scheduleId, trip);
+                board.forEachDeparture(trip, (stopId, departure) ->
+                        collected.computeIfAbsent(stopId, id -> new ArrayList<>()).add(departure));
+            }
+        }
+        collected.forEach((stopId, departures) -> {
+            Departure[] sorted = departures.toArray(NONE);
+            Arrays.sort(sorted, ORDER);
+            board.byStop.put(stopId, sorted);
+        });
+        return board;
+    }
+
+    long from() {
+        return from;
+    }
+
+    long to() {
+        return to;
+    }
+
+    int tripCount() {
+        return trips.size();
+    }
+
+    int stopCount() {
+        return byStop.size();
+    }
+
+    /**
+     * The first {@code limit} departures from the stop at or after {@code after} and before the end
+     * of the window, in order. A stop no trip leaves has none.
+     */
+    List<Departure> departures(long stopId, long after, int limit) {
+        Departure[] at = byStop.get(stopId);
+        if (at == null) {
+            return Collections.emptyList();
+        }
+        int start = firstAtOrAfter(at, after, Long.MIN_VALUE);
+        int end = start;
+        long until = to;
+        while (end < at.length && end - start < limit && at[end].time < until) {
+            end++;
+        }
+        return Arrays.asList(Arrays.copyOfRange(at, start, end));
+    }
+
+    /** Adds or moves a trip; one departing outside the window is removed. */
+    void putTrip(TransitNetwork.Trip trip) {
+        removeTrip(trip.scheduleId);
+        if (!holds(trip)) {
+            return;
+        }
+        trips.put(trip.scheduleId, trip);
+        forEachDeparture(trip, this::insert);
+    }
+
+    void removeTrip(long scheduleId) {
+        TransitNetwork.Trip trip = trips.remove(scheduleId);
+        if (trip == null) {
+            return;
+        }
+        Line line = lines.get(trip.routeId);
+        if (line == null) {
+            return;
+        }
+        for (int i = 0; i < line.stopIds.length - 1; i++) {
+            remove(line.stopIds[i], scheduleId);
+        }
+    }
+
+    /** Replaces the line of a route, or drops it when null, and lists the route's trips again. */
+    void putLine(long routeId, Line line) {
+        List<TransitNetwork.Trip> onRoute = new ArrayList<>();
+        for (TransitNetwork.Trip trip : trips.values()) {
+            if (trip.routeId == routeId) {
+                onRoute.add(trip);
+            }
+        }
+        onRoute.forEach(trip -> removeTrip(trip.scheduleId));
+        if (line != null) {
+            lines.put(routeId, line);
+        } else {
+            lines.remove(routeId);
+        }
+        onRoute.forEach(this::putTrip);
+    }
+
+    /**
+     * Moves the window to [newFrom, newTo): drops the departures and trips now in the past, then
+     * adds the trips that departed into the window's new end.
+     */
+    void roll(long newFrom, long newTo, Collection<TransitNetwork.Trip> entering) {
+        from = newFrom;
+        to = newTo;
+        for (Map.Entry<Long, Departure[]> entry : byStop.entrySet()) {
+            Departure[] at = entry.getValue();
+            int keep = firstAtOrAfter(at, newFrom, Long.MIN_VALUE);
+            if (keep == at.length) {
+                byStop.remove(entry.getKey());
+            } else if (keep > 0) {
+                byStop.put(entry.getKey(), Arrays.copyOfRange(at, keep, at.length));
+            }
+        }
+        trips.values().removeIf(trip -> !holds(trip));
+        entering.forEach(this::putTrip);
+    }
+
+    // Whether any departure of the trip falls in the window
+    private boolean holds(TransitNetwork.Trip trip) {
+        if (trip.departure >= to) {
+            return false;
+        }
+        Line line = lines.get(trip.routeId);
+        return trip.departure + (line != null ? line.lastDeparture() : 0) >= from;
+    }
+
+    private void forEachDeparture(TransitNetwork.Trip trip, DepartureSink sink) {
+        Line line = lines.get(trip.routeId);
+        if (line == null) {
+            return;
+        }
+        for (int i = 0; i < line.stopIds.length - 1; i++) {
+            long time = trip.departure + line.offsets[i];
+            if (time >= from) {
+                sink.accept(line.stopIds[i], new Departure(time, trip.scheduleId, line));
+            }
+        }
+    }
+
+    private void insert(long stopId, Departure departure) {
+        Departure[] at = byStop.getOrDefault(stopId, NONE);
+        int index = firstAtOrAfter(at, departure.time, departure.scheduleId);
+        Departure[] next = new Departure[at.length + 1];
+        System.arraycopy(at, 0, next, 0, index);
+        next[index] = departure;
+        System.arraycopy(at, index, next, index + 1, at.length - index);
+        byStop.put(stopId, next);
+    }
+
+    // A loop route leaves the same stop twice on one trip, so every entry of the trip goes
+    private void remove(long stopId, long scheduleId) {
+        Departure[] at = byStop.get(stopId);
+        if (at == null) {
+            return;
+        }
+        int kept = 0;
+        Departure[] next = new Departure[at.length];
+        for (Departure departure : at) {
+            if (departure.scheduleId != scheduleId) {
+                next[kept++] = departure;
+            }
+        }
+        if (kept == 0) {
+            byStop.remove(stopId);
+        } else if (kept < at.length) {
+            byStop.put(stopId, Arrays.copyOf(next, kept));
+        }
+    }
+
+    // Index of the first departure not before (time, scheduleId)
+    private static int firstAtOrAfter(Departure[] at, long time, long scheduleId) {
+        int low = 0;
+        int high = at.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Departure d = at[mid];
+            if (d.time < time || (d.time == time && d.scheduleId < scheduleId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @FunctionalInterface
+    private interface DepartureSink {
+        void accept(long stopId, Departure departure);
+    }
+}
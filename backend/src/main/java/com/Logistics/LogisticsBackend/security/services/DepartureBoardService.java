@@ -0,0 +1,306 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
+import com.Logistics.LogisticsBackend.event.SchedulesChangedEvent;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.RouteStop;
+import com.Logistics.LogisticsBackend.payload.response.StopDeparture;
+import com.Logistics.LogisticsBackend.repository.RouteStopRepository;
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+
+/**
+ * Next departures at each stop, answered from a {@link DepartureBoard} of the next
+ * {@code departureBoardHours} hours held in memory. The board is loaded on startup, patched after
+ * every committed schedule, route or route stop change, rolled forward every minute and rebuilt
+ * from the database by a background job; lookups never touch the database. Bulk changes such as a
+ * GTFS import are left to the next roll, which rebuilds the board off the request path.
+ *
+ * A trip leaves each stop at the route's arrival offset from its departure (see
+ * {@link RouteSummaryService#arrivalOffsetsMin}), as in the journey planner.
+ */
+@Service
+public class DepartureBoardService {
+    private static final Logger logger = LoggerFactory.getLogger(DepartureBoardService.class);
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    @Value("${urbansync.app.departureBoardHours:3}")
+    private int windowHours;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private RouteStopRepository routeStopRepository;
+
+    private volatile DepartureBoard board;
+
+    // Set by changes too broad to patch in; the next roll rebuilds the board instead
+    private volatile boolean stale;
+
+    // Guards changes to board and the journal; lookups only read
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Consumer<DepartureBoard>> journal; // Non-null while a reload or roll is reading from the database
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${urbansync.app.departureBoardReconcileMs:900000}",
+            initialDelayString = "${urbansync.app.departureBoardReconcileMs:900000}")
+    public void reconcile() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the board for the window starting now from the database. Changes that commit while
+     * the queries run are journaled and replayed on top of the fresh board before it is swapped in.
+     * Reloads and rolls run one at a time.
+     */
+    public synchronized void reload() {
+        stale = false;
+        long from = ScheduleSlot.toSeconds(LocalDateTime.now());
+        long to = from + windowHours * 3600L;
+        startJournal();
+
+        DepartureBoard fresh;
+        try {
+            List<DepartureBoard.Line> lines = new ArrayList<>();
+            Map<Long, List<RouteStop>> stopsByRoute = routeStopRepository.findAllOrderedByRoute().stream()
+                    .collect(Collectors.groupingBy(rs -> rs.getRoute().getId(), LinkedHashMap::new, Collectors.toList()));
+            stopsByRoute.values().forEach(stops -> lines.add(line(stops)));
+            int longest = 0;
+            for (DepartureBoard.Line line : lines) {
+                longest = Math.max(longest, line.lastDeparture());
+            }
+
+            // Trips that left before the window may still reach a stop in it
+            List<TransitNetwork.Trip> trips = new ArrayList<>();
+            for (Object[] row : scheduleRepository.findTripsBetween(ScheduleSlot.fromSeconds(from - longest), ScheduleSlot.fromSeconds(to))) {
+                trips.add(trip(row));
+            }
+            fresh = DepartureBoard.build(from, to, lines, trips);
+        } catch (RuntimeException e) {
+            dropJournal();
+            logger.warn("Could not load the departure board: {}", e.getMessage());
+            return;
+        }
+
+        lock.lock();
+        try {
+            for (Consumer<DepartureBoard> change : journal) {
+                change.accept(fresh);
+            }
+            journal = null;
+            board = fresh;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Departure board loaded {} trips at {} stops for the next {} hours",
+                fresh.tripCount(), fresh.stopCount(), windowHours);
+    }
+
+    /**
+     * Moves the window up to now: departures in the past are dropped and the trips departing into
+     * the window's new end are read and added. Changes committed meanwhile are replayed after them.
+     * A board marked stale is reloaded instead.
+     */
+    @Scheduled(fixedDelayString = "${urbansync.app.departureBoardRollMs:60000}",
+            initialDelayString = "${urbansync.app.departureBoardRollMs:60000}")
+    public synchronized void roll() {
+        DepartureBoard current = board;
+        if (current == null || stale) {
+            reload();
+            return;
+        }
+        long from = ScheduleSlot.toSeconds(LocalDateTime.now());
+        long to = from + windowHours * 3600L;
+        if (to <= current.to()) {
+            return;
+        }
+        startJournal();
+
+        List<TransitNetwork.Trip> entering = new ArrayList<>();
+        try {
+            for (Object[] row : scheduleRepository.findTripsBetween(ScheduleSlot.fromSeconds(current.to()), ScheduleSlot.fromSeconds(to))) {
+                entering.add(trip(row));
+            }
+        } catch (RuntimeException e) {
+            dropJournal();
+            logger.warn("Could not roll the departure board forward: {}", e.getMessage());
+            return;
+        }
+
+        lock.lock();
+        try {
+            current.roll(from, to, entering);
+            // Already applied to the board, but possibly before the window reached them
+            for (Consumer<DepartureBoard> change : journal) {
+                change.accept(current);
+            }
+            journal = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSchedulesChanged(SchedulesChangedEvent event) {
+        if (event.getScheduleIds().isEmpty()) {
+            return;
+        }
+        Set<Long> removed = new HashSet<>(event.getScheduleIds());
+        List<TransitNetwork.Trip> upserted = new ArrayList<>();
+        try {
+            for (Object[] row : scheduleRepository.findTripsByIds(event.getScheduleIds())) {
+                if (!"CANCELLED".equals(row[3])) {
+                    TransitNetwork.Trip trip = trip(row);
+                    removed.remove(trip.scheduleId);
+                    upserted.add(trip);
+                }
+            }
+        } catch (RuntimeException e) {
+            // The write itself has committed; the next reconcile picks the change up
+            logger.warn("Could not refresh {} schedules on the departure board: {}", event.getScheduleIds().size(), e.getMessage());
+            return;
+        }
+        apply(current -> {
+            removed.forEach(current::removeTrip);
+            upserted.forEach(current::putTrip);
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRouteStopsChanged(RouteStopsChangedEvent event) {
+        refreshLine(event.getRouteId());
+    }
+
+    /**
+     * A route's code and name are on its line, which is read again. Stops only show on the board by
+     * name, and a rename is published for each route through the stop as well; a change to any
+     * number of routes and stops marks the board for the next roll to rebuild.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        if (event.isBulk()) {
+            stale = true;
+        } else if (event.getRouteId() != null) {
+            refreshLine(event.getRouteId());
+        }
+    }
+
+    private void refreshLine(Long routeId) {
+        List<RouteStop> stops;
+        try {
+            stops = routeStopRepository.findByRouteIdOrderByRankKeyAsc(routeId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh route {} on the departure board: {}", routeId, e.getMessage());
+            return;
+        }
+        DepartureBoard.Line line = stops.isEmpty() ? null : line(stops);
+        apply(current -> current.putLine(routeId, line));
+    }
+
+    /** Applies a committed change to the live board and, during a reload or roll, to the journal. */
+    private void apply(Consumer<DepartureBoard> change) {
+        lock.lock();
+        try {
+            if (board != null) {
+                change.accept(board);
+            }
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void startJournal() {
+        lock.lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dropJournal() {
+        lock.lock();
+        try {
+            journal = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The next departures from the stop at or after {@code after} (now by default), at most
+     * {@code limit}, within the next {@code departureBoardHours} hours.
+     */
+    public List<StopDeparture> departures(Long stopId, LocalDateTime after, Integer limit) {
+        DepartureBoard current = board;
+        if (current == null) {
+            reload();
+            current = board;
+        }
+        if (current == null) {
+            return List.of();
+        }
+        long at = ScheduleSlot.toSeconds(after != null ? after : LocalDateTime.now());
+        if (at >= current.to()) {
+            throw new IllegalArgumentException("Departures are only known for the next " + windowHours + " hours");
+        }
+        int max = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        List<StopDeparture> departures = new ArrayList<>();
+        for (DepartureBoard.Departure departure : current.departures(stopId, at, max)) {
+            DepartureBoard.Line line = departure.line;
+            departures.add(new StopDeparture(departure.scheduleId, line.routeId, line.code, line.name, line.destination,
+                    ScheduleSlot.fromSeconds(departure.time)));
+        }
+        return departures;
+    }
+
+    private static DepartureBoard.Line line(List<RouteStop> stops) {
+        Route route = stops.get(0).getRoute();
+        long[] stopIds = new long[stops.size()];
+        for (int i = 0; i < stopIds.length; i++) {
+            stopIds[i] = stops.get(i).getStop().getId();
+        }
+        int[] offsets = RouteSummaryService.arrivalOffsetsMin(stops);
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] *= 60;
+        }
+        return new DepartureBoard.Line(route.getId(), route.getRouteCode(), route.getName(),
+                stops.get(stops.size() - 1).getStop().getName(), stopIds, offsets);
+    }
+
+    private static TransitNetwork.Trip trip(Object[] row) {
+        return new TransitNetwork.Trip((Long) row[0], (Long) row[1], ScheduleSlot.toSeconds((LocalDateTime) row[2]));
+    }
+}
@@ -0,0 +1,392 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.model.ERole;
+import com.Logistics.LogisticsBackend.model.Role;
+import com.Logistics.LogisticsBackend.model.User;
+import com.Logistics.LogisticsBackend.payload.request.SignupRequest;
+import com.Logistics.LogisticsBackend.payload.response.ImportRowResult;
+import com.Logistics.LogisticsBackend.repository.RoleRepository;
+import com.Logistics.LogisticsBackend.repository.UserRepository;
+import com.Logistics.LogisticsBackend.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Streaming employee import. Rows are read from CSV or NDJSON one at a time and processed in
+ * chunks: duplicates are checked with one IN query per unique column, passwords are hashed in
+ * parallel on a bounded pool, and users and their role links are written with JDBC batches.
+ * A per-row report line is written to the output as soon as each chunk is committed, so neither
+ * the input nor the report is ever held in memory as a whole.
+ */
+@Service
+public class EmployeeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    private static final String INSERT_USER = "INSERT INTO users (employee_id, username, email, password, first_name, "
+            + "last_name, phone, address, date_of_birth, joining_date, emergency_contact, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    @Value("${urbansync.app.importChunkSize:500}")
+    private int chunkSize;
+
+    // 0 means half of the available processors, so an import never takes every core from the login pool
+    @Value("${urbansync.app.importHashThreads:0}")
+    private int hashThreads;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private ThreadPoolExecutor hashExecutor;
+
+    @PostConstruct
+    void init() {
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // When the queue is full the importing thread hashes the password itself, which throttles the import
+        hashExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    /**
+     * Imports employees from the input stream and writes one NDJSON {@link ImportRowResult} per row.
+     *
+     * @param ndjson true for newline-delimited JSON, false for CSV with a header line
+     */
+    public void importEmployees(InputStream input, boolean ndjson, OutputStream report) throws IOException {
+        Map<ERole, Integer> roleIds = new EnumMap<>(ERole.class);
+        for (Role role : roleRepository.findAll()) {
+            roleIds.put(role.getName(), role.getId());
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = ndjson ? new NdjsonRowSource(reader) : new CsvRowSource(new CsvReader(reader));
+
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long rowNumber = 0;
+        long created = 0;
+        PendingRow row;
+        while ((row = source.next(rowNumber + 1)) != null) {
+            rowNumber++;
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                created += writeResults(processChunk(chunk, roleIds), report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += writeResults(processChunk(chunk, roleIds), report);
+        }
+        logger.info("Employee import finished: {} of {} rows created", created, rowNumber);
+    }
+
+    private int writeResults(List<ImportRowResult> results, OutputStream report) throws IOException {
+        int created = 0;
+        for (ImportRowResult result : results) {
+            report.write(objectMapper.writeValueAsBytes(result));
+            report.write('\n');
+            if (result.getId() != null) {
+                created++;
+            }
+        }
+        report.flush();
+        return created;
+    }
+
+    private List<ImportRowResult> processChunk(List<PendingRow> chunk, Map<ERole, Integer> roleIds) {
+        Map<Long, ImportRowResult> results = new LinkedHashMap<>();
+        List<PendingRow> valid = new ArrayList<>();
+
+        // Field validation and duplicates inside the chunk itself
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> employeeIds = new HashSet<>();
+        for (PendingRow row : chunk) {
+            results.put(row.number, null); // Keep report lines in input order
+            String error = row.parseError != null ? row.parseError : validate(row.request);
+            if (error == null && usernames.contains(row.request.getUsername())) {
+                error = "Username '" + row.request.getUsername() + "' appears more than once in the import";
+            }
+            if (error == null && emails.contains(row.request.getEmail())) {
+                error = "Email '" + row.request.getEmail() + "' appears more than once in the import";
+            }
+            if (error == null && row.request.getEmployeeId() != null && employeeIds.contains(row.request.getEmployeeId())) {
+                error = "Employee ID '" + row.request.getEmployeeId() + "' appears more than once in the import";
+            }
+            if (error != null) {
+                results.put(row.number, ImportRowResult.error(row.number, row.key(), error));
+            } else {
+                // Only accepted rows claim their keys, so a rejected row does not block a later one
+                usernames.add(row.request.getUsername());
+                emails.add(row.request.getEmail());
+                if (row.request.getEmployeeId() != null) {
+                    employeeIds.add(row.request.getEmployeeId());
+                }
+                valid.add(row);
+            }
+        }
+
+        // Duplicates against existing users: one IN query per unique column for the whole chunk
+        if (!valid.isEmpty()) {
+            Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(usernames));
+            Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(emails));
+            Set<String> takenEmployeeIds = employeeIds.isEmpty() ? Set.of()
+                    : new HashSet<>(userRepository.findExistingEmployeeIds(employeeIds));
+            valid.removeIf(row -> {
+                String error = null;
+                if (takenUsernames.contains(row.request.getUsername())) {
+                    error = "Username '" + row.request.getUsername() + "' is already taken";
+                } else if (takenEmails.contains(row.request.getEmail())) {
+                    error = "Email '" + row.request.getEmail() + "' is already in use";
+                } else if (row.request.getEmployeeId() != null && takenEmployeeIds.contains(row.request.getEmployeeId())) {
+                    error = "Employee ID '" + row.request.getEmployeeId() + "' is already in use";
+                }
+                if (error != null) {
+                    results.put(row.number, ImportRowResult.error(row.number, row.key(), error));
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        if (!valid.isEmpty()) {
+            hashPasswords(valid);
+            try {
+                Map<String, Long> ids = transactionTemplate.execute(status -> insertUsers(valid, roleIds));
+                for (PendingRow row : valid) {
+                    results.put(row.number, ImportRowResult.created(row.number, row.key(), ids.get(row.request.getUsername())));
+                }
+            } catch (DataAccessException e) {
+                // Typically a concurrent insert of the same username/email; the whole chunk was rolled back
+                logger.warn("Employee import chunk failed: {}", e.getMessage());
+                for (PendingRow row : valid) {
+                    results.put(row.number, ImportRowResult.error(row.number, row.key(),
+                            "Chunk rolled back: " + e.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    private String validate(SignupRequest request) {
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            User.EmployeeStatus.valueOf(request.getStatus().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return "status must be one of " + Arrays.toString(User.EmployeeStatus.values());
+        }
+        return null;
+    }
+
+    private void hashPasswords(List<PendingRow> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            String rawPassword = row.request.getPassword();
+            hashes.add(hashExecutor.submit(() -> passwordEncoder.encode(rawPassword)));
+        }
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).encodedPassword = hashes.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Employee import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private Map<String, Long> insertUsers(List<PendingRow> rows, Map<ERole, Integer> roleIds) {
+        List<Object[]> userArgs = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            SignupRequest r = row.request;
+            userArgs.add(new Object[] { r.getEmployeeId(), r.getUsername(), r.getEmail(), row.encodedPassword,
+                    r.getFirstName(), r.getLastName(), r.getPhone(), r.getAddress(),
+                    r.getDateOfBirth() != null ? new Date(r.getDateOfBirth().getTime()) : null,
+                    r.getJoiningDate() != null ? new Date(r.getJoiningDate().getTime()) : null,
+                    r.getEmergencyContact(), User.EmployeeStatus.valueOf(r.getStatus().toUpperCase()).name() });
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, userArgs);
+
+        // Read the generated ids back in one query instead of one round trip per row
+        Map<String, Long> ids = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, username FROM users WHERE username IN (:usernames)",
+                Map.of("usernames", rows.stream().map(row -> row.request.getUsername()).collect(Collectors.toList())),
+                rs -> {
+                    ids.put(rs.getString("username"), rs.getLong("id"));
+                });
+
+        List<Object[]> roleArgs = new ArrayList<>();
+        for (PendingRow row : rows) {
+            Long userId = ids.get(row.request.getUsername());
+            Set<ERole> roles = row.request.getRole() == null || row.request.getRole().isEmpty()
+                    ? Set.of(ERole.ROLE_EMPLOYEE)
+                    : row.request.getRole().stream().map(UserService::toERole).collect(Collectors.toSet());
+            for (ERole role : roles) {
+                Integer roleId = roleIds.get(role);
+                if (roleId == null) {
+                    throw new IllegalStateException("Role " + role + " has not been seeded");
+                }
+                roleArgs.add(new Object[] { userId, roleId });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, roleArgs);
+        return ids;
+    }
+
+    private static class PendingRow {
+        final long number;
+        final SignupRequest request;
+        final String parseError;
+        String encodedPassword;
+
+        PendingRow(long number, SignupRequest request, String parseError) {
+            this.number = number;
+            this.request = request;
+            this.parseError = parseError;
+        }
+
+        String key() {
+            return request != null ? request.getUsername() : null;
+        }
+    }
+
+    private interface RowSource {
+        PendingRow next(long rowNumber) throws IOException;
+    }
+
+    private class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public PendingRow next(long rowNumber) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return new PendingRow(rowNumber, objectMapper.readValue(line, SignupRequest.class), null);
+            } catch (JsonProcessingException e) {
+                return new PendingRow(rowNumber, null, "Unreadable JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * CSV with a header line naming SignupRequest fields. Multiple roles are separated by ';'.
+     */
+    private class CsvRowSource implements RowSource {
+        private final CsvReader reader;
+        private List<String> header;
+
+        CsvRowSource(CsvReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public PendingRow next(long rowNumber) throws IOException {
+            if (header == null) {
+                header = reader.readRecord();
+                if (header == null) {
+                    return null;
+                }
+                header = header.stream().map(String::trim).collect(Collectors.toList());
+            }
+            List<String> record = reader.readRecord();
+            if (record == null) {
+                return null;
+            }
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < header.size() && i < record.size(); i++) {
+                String value = record.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                String column = header.get(i);
+                values.put(column, "role".equals(column) ? Arrays.asList(value.split("\\s*;\\s*")) : value);
+            }
+            try {
+                return new PendingRow(rowNumber, objectMapper.convertValue(values, SignupRequest.class), null);
+            } catch (IllegalArgumentException e) {
+                return new PendingRow(rowNumber, null, "Unreadable row: " + e.getMessage());
+            }
+        }
+    }
+}
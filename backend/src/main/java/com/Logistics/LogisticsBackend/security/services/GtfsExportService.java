@@ -0,0 +1,437 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
+import com.Logistics.LogisticsBackend.event.SchedulesChangedEvent;
+import com.Logistics.LogisticsBackend.model.RouteStop;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Exports the network and the scheduled trips of a date range as a GTFS feed, written with
+ * {@link GtfsFeedWriter} straight to the output. Stops, routes and schedules are read through
+ * forward-only JDBC cursors in one read-only, repeatable-read transaction, so the files agree with
+ * each other; only the stop sequences of the routes are held in memory. Every schedule that is not
+ * cancelled becomes a trip that reaches each stop at the route's arrival offset from its departure,
+ * as in the journey planner.
+ *
+ * The last feed is also written to a file in {@code gtfsCacheDir} and served from there while its
+ * key stays the same and for at most {@code gtfsCacheTtlMs}. The key combines a local version,
+ * counting route, stop, route stop and schedule changes committed by this instance, with a
+ * fingerprint read from the database: the row counts of the network tables and the count and
+ * latest update of the schedules in the range. Schedule changes made by other instances thus
+ * change the key at once; network edits made elsewhere that keep the row counts are picked up
+ * when the entry expires. A feed whose export overlapped a local change is not kept.
+ */
+@Service
+public class GtfsExportService {
+    private static final Logger logger = LoggerFactory.getLogger(GtfsExportService.class);
+
+    private static final String SELECT_STOPS = "SELECT id, name, description, latitude, longitude, gtfs_id FROM stops "
+            + "WHERE latitude IS NOT NULL AND longitude IS NOT NULL ORDER BY id";
+
+    private static final String SELECT_ROUTES = "SELECT id, route_code, name, description, gtfs_id FROM routes ORDER BY id";
+
+    private static final String SELECT_ROUTE_STOPS = "SELECT route_id, stop_id, travel_time_from_prev_min FROM route_stops "
+            + "ORDER BY route_id, stop_order";
+
+    private static final String SELECT_SCHEDULES = "SELECT s.id, s.route_id, s.departure_date_time, r.direction "
+            + "FROM schedules s JOIN routes r ON r.id = s.route_id "
+            + "WHERE s.departure_date_time >= :from AND s.departure_date_time < :to AND s.status <> 'CANCELLED' "
+            + "ORDER BY s.departure_date_time, s.id";
+
+    private static final String SELECT_FINGERPRINT = "SELECT (SELECT COUNT(*) FROM stops) AS stops, "
+            + "(SELECT COUNT(*) FROM routes) AS routes, (SELECT COUNT(*) FROM route_stops) AS route_stops, "
+            + "COUNT(*) AS schedules, MAX(updated_at) AS updated FROM schedules "
+            + "WHERE departure_date_time >= :from AND departure_date_time < :to";
+
+    @Value("${urbansync.app.exportFetchSize:1000}")
+    private int fetchSize;
+
+    @Value("${urbansync.app.exportFlushRows:1000}")
+    private int flushRows;
+
+    @Value("${urbansync.app.gtfsAgencyName:UrbanSync}")
+    private String agencyName;
+
+    @Value("${urbansync.app.gtfsAgencyUrl:https://example.com}")
+    private String agencyUrl;
+
+    // Empty means the server's time zone, in which schedule times are stored
+    @Value("${urbansync.app.gtfsAgencyTimezone:}")
+    private String agencyTimezone;
+
+    @Value("${urbansync.app.gtfsExportDays:30}")
+    private int defaultDays;
+
+    @Value("${urbansync.app.gtfsExportMaxDays:366}")
+    private int maxDays;
+
+    // Empty means a folder in the system's temporary directory
+    @Value("${urbansync.app.gtfsCacheDir:}")
+    private String cacheDir;
+
+    @Value("${urbansync.app.gtfsCacheTtlMs:300000}")
+    private long cacheTtlMs;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private NamedParameterJdbcTemplate cursorTemplate;
+    private TransactionTemplate snapshotTransaction;
+    private Path cacheDirectory;
+
+    private final AtomicLong version = new AtomicLong();
+
+    // Guards cachedKey, cachedFile and cachedAt
+    private final Object cacheLock = new Object();
+    private String cachedKey;
+    private Path cachedFile;
+    private long cachedAt;
+
+    @PostConstruct
+    void init() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        cursorTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        cacheDirectory = cacheDir.isBlank() ? Paths.get(System.getProperty("java.io.tmpdir"), "urbansync-gtfs") : Paths.get(cacheDir);
+        if (agencyTimezone.isBlank()) {
+            agencyTimezone = ZoneId.systemDefault().getId();
+        }
+        // Versions start over with the process, so feeds cached by an earlier run are of no use
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(cacheDirectory, "gtfs-*")) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing cached yet
+        } catch (IOException e) {
+            logger.warn("Could not clear the GTFS cache in {}: {}", cacheDirectory, e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRouteStopsChanged(RouteStopsChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSchedulesChanged(SchedulesChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    public int getDefaultDays() {
+        return defaultDays;
+    }
+
+    /** @throws IllegalArgumentException if the range is empty or longer than {@code gtfsExportMaxDays} */
+    public void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > maxDays) {
+            throw new IllegalArgumentException("The export covers at most " + maxDays + " days");
+        }
+    }
+
+    /** Writes the feed for trips departing from {@code from} to {@code to}, both days included. */
+    public void export(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        checkRange(from, to);
+        long exportVersion = version.get();
+        // Read before the export's snapshot, so a cached feed is never older than its key
+        String key = exportVersion + "-" + fingerprint(from, to) + "-" + from + "-" + to;
+        Path cached;
+        synchronized (cacheLock) {
+            boolean fresh = System.currentTimeMillis() - cachedAt < cacheTtlMs;
+            cached = fresh && key.equals(cachedKey) ? cachedFile : null;
+        }
+        if (cached != null) {
+            try {
+                Files.copy(cached, out);
+                return;
+            } catch (NoSuchFileException e) {
+                // Replaced by a newer feed in the meantime
+            }
+        }
+
+        Files.createDirectories(cacheDirectory);
+        Path part = Files.createTempFile(cacheDirectory, "gtfs-", ".part");
+        boolean kept = false;
+        try {
+            long started = System.nanoTime();
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                long trips = write(from, to, new Tee(out, file));
+                logger.info("Exported GTFS feed from {} to {} with {} trips in {} ms", from, to, trips,
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+            kept = keep(key, exportVersion, part);
+        } finally {
+            if (!kept) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    private boolean keep(String key, long exportVersion, Path part) throws IOException {
+        synchronized (cacheLock) {
+            if (version.get() != exportVersion) {
+                return false; // Something changed while the feed was written; it may mix old and new
+            }
+            Path target = cacheDirectory.resolve("gtfs-" + key + ".zip");
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (cachedFile != null && !cachedFile.equals(target)) {
+                Files.deleteIfExists(cachedFile);
+            }
+            cachedKey = key;
+            cachedFile = target;
+            cachedAt = System.currentTimeMillis();
+            return true;
+        }
+    }
+
+    /** Row counts and the latest schedule update, which change with writes from any instance. */
+    private String fingerprint(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from.atStartOfDay()))
+                .addValue("to", Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        return cursorTemplate.queryForObject(SELECT_FINGERPRINT, params, (rs, row) -> {
+            Timestamp updated = rs.getTimestamp("updated");
+            return rs.getLong("stops") + "." + rs.getLong("routes") + "." + rs.getLong("route_stops") + "."
+                    + rs.getLong("schedules") + "." + (updated == null ? 0 : updated.getTime());
+        });
+    }
+
+    /** Writes the feed and returns the number of trips. */
+    private long write(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        GtfsFeedWriter feed = new GtfsFeedWriter(out);
+        long[] trips = new long[1];
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                try {
+                    feed.agency(agencyName, agencyUrl, agencyTimezone);
+                    Map<Long, Pattern> patterns = readPatterns(writeStops(feed), writeRoutes(feed));
+                    MapSqlParameterSource params = new MapSqlParameterSource()
+                            .addValue("from", Timestamp.valueOf(from.atStartOfDay()))
+                            .addValue("to", Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+                    TreeSet<LocalDate> serviceDates = new TreeSet<>();
+                    feed.beginTrips();
+                    eachSchedule(params, patterns, (rs, pattern, departure) -> {
+                        feed.trip(pattern.routeId, departure.toLocalDate(), tripId(rs.getLong("id")), rs.getString("direction"));
+                        serviceDates.add(departure.toLocalDate());
+                        trips[0]++;
+                    }, feed);
+                    feed.beginStopTimes();
+                    eachSchedule(params, patterns, (rs, pattern, departure) -> {
+                        String tripId = tripId(rs.getLong("id"));
+                        int start = departure.toLocalTime().toSecondOfDay();
+                        for (int i = 0; i < pattern.stopIds.size(); i++) {
+                            int time = start + pattern.offsets[i];
+                            feed.stopTime(tripId, time, time, pattern.stopIds.get(i), i + 1);
+                        }
+                    }, feed);
+                    feed.beginCalendarDates();
+                    for (LocalDate date : serviceDates) {
+                        feed.serviceDate(date);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Client went away; abort the queries
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        feed.finish();
+        return trips[0];
+    }
+
+    /** Writes stops.txt and returns the GTFS id of every stop in it by stop id. */
+    private Map<Long, String> writeStops(GtfsFeedWriter feed) throws IOException {
+        Map<Long, String> stopIds = new HashMap<>();
+        feed.beginStops();
+        cursorTemplate.getJdbcTemplate().query(SELECT_STOPS, rs -> {
+            String gtfsId = rs.getString("gtfs_id");
+            // Stops entered here have no GTFS id; the prefix keeps their ids apart from imported ones
+            String stopId = gtfsId != null ? gtfsId : "stop-" + rs.getLong("id");
+            stopIds.put(rs.getLong("id"), stopId);
+            try {
+                feed.stop(stopId, rs.getString("name"), rs.getString("description"), rs.getDouble("latitude"),
+                        rs.getDouble("longitude"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return stopIds;
+    }
+
+    /** Writes routes.txt and returns the GTFS id of every route by route id. */
+    private Map<Long, String> writeRoutes(GtfsFeedWriter feed) throws IOException {
+        Map<Long, String> routeIds = new HashMap<>();
+        feed.beginRoutes();
+        cursorTemplate.getJdbcTemplate().query(SELECT_ROUTES, rs -> {
+            String gtfsId = rs.getString("gtfs_id");
+            String routeId = gtfsId != null ? gtfsId : "route-" + rs.getLong("id");
+            routeIds.put(rs.getLong("id"), routeId);
+            try {
+                feed.route(routeId, rs.getString("route_code"), rs.getString("name"), rs.getString("description"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return routeIds;
+    }
+
+    /**
+     * Every route's stops in order with their arrival offsets. Stops without a position are not in
+     * the feed and are left out; routes with fewer than two stops left have no trips.
+     */
+    private Map<Long, Pattern> readPatterns(Map<Long, String> stopIds, Map<Long, String> routeIds) {
+        Map<Long, Pattern> patterns = new HashMap<>();
+        Map<Long, List<RouteStop>> stopsOfRoute = new HashMap<>();
+        Map<Long, List<Long>> stopIdsOfRoute = new HashMap<>();
+        cursorTemplate.getJdbcTemplate().query(SELECT_ROUTE_STOPS, rs -> {
+            RouteStop routeStop = new RouteStop();
+            routeStop.setTravelTimeFromPrevMin(rs.getObject("travel_time_from_prev_min", Integer.class));
+            stopsOfRoute.computeIfAbsent(rs.getLong("route_id"), id -> new ArrayList<>()).add(routeStop);
+            stopIdsOfRoute.computeIfAbsent(rs.getLong("route_id"), id -> new ArrayList<>()).add(rs.getLong("stop_id"));
+        });
+        for (Map.Entry<Long, List<RouteStop>> entry : stopsOfRoute.entrySet()) {
+            int[] offsets = RouteSummaryService.arrivalOffsetsMin(entry.getValue());
+            List<Long> ids = stopIdsOfRoute.get(entry.getKey());
+            Pattern pattern = new Pattern(routeIds.get(entry.getKey()), ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                String stopId = stopIds.get(ids.get(i));
+                if (stopId != null) {
+                    pattern.add(stopId, offsets[i] * 60);
+                }
+            }
+            if (pattern.stopIds.size() >= 2) {
+                patterns.put(entry.getKey(), pattern);
+            }
+        }
+        return patterns;
+    }
+
+    private void eachSchedule(MapSqlParameterSource params, Map<Long, Pattern> patterns, TripHandler handler, GtfsFeedWriter feed) {
+        int[] rows = new int[1];
+        cursorTemplate.query(SELECT_SCHEDULES, params, rs -> {
+            Pattern pattern = patterns.get(rs.getLong("route_id"));
+            if (pattern == null) {
+                return;
+            }
+            try {
+                handler.accept(rs, pattern, rs.getTimestamp("departure_date_time").toLocalDateTime());
+                if (++rows[0] % flushRows == 0) {
+                    feed.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String tripId(long scheduleId) {
+        return "schedule-" + scheduleId;
+    }
+
+    private interface TripHandler {
+        void accept(ResultSet rs, Pattern pattern, LocalDateTime departure) throws SQLException, IOException;
+    }
+
+    /** A route's GTFS id and its stops with arrival offsets in seconds. */
+    private static final class Pattern {
+        final String routeId;
+        final List<String> stopIds;
+        final int[] offsets;
+
+        Pattern(String routeId, int capacity) {
+            this.routeId = routeId;
+            this.stopIds = new ArrayList<>(capacity);
+            this.offsets = new int[capacity];
+        }
+
+        void add(String stopId, int offset) {
+            offsets[stopIds.size()] = offset;
+            stopIds.add(stopId);
+        }
+    }
+
+    /** Writes to the client and the cache file at once. */
+    private static final class Tee extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        Tee(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
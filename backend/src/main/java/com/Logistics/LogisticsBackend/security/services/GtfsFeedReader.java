@@ -0,0 +1,335 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.Logistics.LogisticsBackend.util.CsvReader;
+
+/**
+ * Reads the parts of a GTFS feed that map onto stops, routes and route stops. Each file is
+ * streamed record by record from the zip, so memory grows with the number of stops, routes and
+ * trips but not with {@code stop_times.txt}.
+ *
+ * A route of this application has one stop sequence, so every GTFS route and direction becomes
+ * one {@link Pattern}, following the trip of that route and direction with the most stops. Two
+ * passes over {@code stop_times.txt} find it: the first counts the stops of every trip, the second
+ * keeps only the rows of the chosen trips.
+ */
+public final class GtfsFeedReader implements Closeable {
+
+    public static final String STOPS = "stops.txt";
+    public static final String ROUTES = "routes.txt";
+    public static final String TRIPS = "trips.txt";
+    public static final String STOP_TIMES = "stop_times.txt";
+
+    /** Seconds after midnight of the service day for a time that is not given. */
+    public static final int NO_TIME = -1;
+
+    public static final class Stop {
+        public final String id;
+        public final String code;
+        public final String name;
+        public final String description;
+        public final Double latitude;
+        public final Double longitude;
+
+        Stop(String id, String code, String name, String description, Double latitude, Double longitude) {
+            this.id = id;
+            this.code = code;
+            this.name = name;
+            this.description = description;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    public static final class Route {
+        public final String id;
+        public final String shortName;
+        public final String longName;
+        public final String description;
+
+        Route(String id, String shortName, String longName, String description) {
+            this.id = id;
+            this.shortName = shortName;
+            this.longName = longName;
+            this.description = description;
+        }
+    }
+
+    /** The stop sequence of a route in one direction, with the times of its longest trip. */
+    public static final class Pattern {
+        public final Route route;
+        public final String directionId; // "0", "1", or empty if the feed has no directions
+        public final String headsign;
+        public final List<String> stopIds = new ArrayList<>();
+        public final List<Integer> arrivals = new ArrayList<>(); // Seconds, NO_TIME if not given
+        public final List<Integer> departures = new ArrayList<>();
+
+        Pattern(Route route, String directionId, String headsign) {
+            this.route = route;
+            this.directionId = directionId;
+            this.headsign = headsign;
+        }
+    }
+
+    public interface StopHandler {
+        void accept(Stop stop) throws IOException;
+    }
+
+    private final ZipFile zip;
+
+    // Rows skipped because a field was missing or referred to something not in the feed
+    private long skippedRows;
+
+    public GtfsFeedReader(Path file) throws IOException {
+        this.zip = new ZipFile(file.toFile(), StandardCharsets.UTF_8);
+        for (String name : new String[] { STOPS, ROUTES, TRIPS, STOP_TIMES }) {
+            if (entry(name) == null) {
+                zip.close();
+                throw new IllegalArgumentException("The feed has no " + name);
+            }
+        }
+    }
+
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    /** Passes every stop or platform (location type 0) to the handler, in file order. */
+    public void readStops(StopHandler handler) throws IOException {
+        try (Table table = open(STOPS)) {
+            while (table.next()) {
+                String locationType = table.get("location_type");
+                if (locationType != null && !"0".equals(locationType)) {
+                    continue; // Stations, entrances and nodes have no route stops
+                }
+                String id = table.get("stop_id");
+                String name = table.get("stop_name");
+                if (id == null || name == null) {
+                    skippedRows++;
+                    continue;
+                }
+                handler.accept(new Stop(id, table.get("stop_code"), name, table.get("stop_desc"),
+                        parseCoordinate(table.get("stop_lat")), parseCoordinate(table.get("stop_lon"))));
+            }
+        }
+    }
+
+    /** Every route's stop pattern per direction, in the order routes and directions first appear. */
+    public List<Pattern> readPatterns() throws IOException {
+        Map<String, Route> routes = new HashMap<>();
+        try (Table table = open(ROUTES)) {
+            while (table.next()) {
+                String id = table.get("route_id");
+                if (id == null) {
+                    skippedRows++;
+                    continue;
+                }
+                routes.put(id, new Route(id, table.get("route_short_name"), table.get("route_long_name"), table.get("route_desc")));
+            }
+        }
+
+        // Trips are numbered in file order; each refers to the pattern of its route and direction
+        Map<String, Integer> tripNumbers = new HashMap<>();
+        int[] patternOfTrip = new int[1024];
+        Map<String, Integer> patternNumbers = new HashMap<>();
+        List<Route> patternRoutes = new ArrayList<>();
+        List<String> patternDirections = new ArrayList<>();
+        List<String> headsigns = new ArrayList<>();
+        try (Table table = open(TRIPS)) {
+            while (table.next()) {
+                String tripId = table.get("trip_id");
+                Route route = routes.get(table.get("route_id"));
+                if (tripId == null || route == null || tripNumbers.containsKey(tripId)) {
+                    skippedRows++;
+                    continue;
+                }
+                String direction = table.get("direction_id");
+                String directionId = direction != null ? direction : "";
+                Integer pattern = patternNumbers.get(route.id + "\u0000" + directionId);
+                if (pattern == null) {
+                    pattern = patternRoutes.size();
+                    patternNumbers.put(route.id + "\u0000" + directionId, pattern);
+                    patternRoutes.add(route);
+                    patternDirections.add(directionId);
+                }
+                int trip = tripNumbers.size();
+                if (trip == patternOfTrip.length) {
+                    patternOfTrip = Arrays.copyOf(patternOfTrip, trip * 2);
+                }
+                patternOfTrip[trip] = pattern;
+                tripNumbers.put(tripId, trip);
+                headsigns.add(table.get("trip_headsign"));
+            }
+        }
+
+        int[] stopCounts = new int[tripNumbers.size()];
+        try (Table table = open(STOP_TIMES)) {
+            while (table.next()) {
+                Integer trip = tripNumbers.get(table.get("trip_id"));
+                if (trip != null) {
+                    stopCounts[trip]++;
+                }
+            }
+        }
+        int[] longestTrip = new int[patternRoutes.size()];
+        Arrays.fill(longestTrip, -1);
+        for (int trip = 0; trip < stopCounts.length; trip++) {
+            int pattern = patternOfTrip[trip];
+            if (stopCounts[trip] > 0 && (longestTrip[pattern] < 0 || stopCounts[trip] > stopCounts[longestTrip[pattern]])) {
+                longestTrip[pattern] = trip;
+            }
+        }
+        Set<Integer> chosen = new HashSet<>();
+        for (int trip : longestTrip) {
+            if (trip >= 0) {
+                chosen.add(trip);
+            }
+        }
+
+        Map<Integer, List<int[]>> rowsOfTrip = new HashMap<>(); // Sequence, stop ordinal, arrival, departure
+        Map<Integer, List<String>> stopIdsOfTrip = new HashMap<>();
+        try (Table table = open(STOP_TIMES)) {
+            while (table.next()) {
+                Integer trip = tripNumbers.get(table.get("trip_id"));
+                if (trip == null) {
+                    skippedRows++;
+                    continue;
+                }
+                if (!chosen.contains(trip)) {
+                    continue;
+                }
+                String stopId = table.get("stop_id");
+                Integer sequence = parseInteger(table.get("stop_sequence"));
+                if (stopId == null || sequence == null) {
+                    skippedRows++;
+                    continue;
+                }
+                List<String> stopIds = stopIdsOfTrip.computeIfAbsent(trip, t -> new ArrayList<>());
+                rowsOfTrip.computeIfAbsent(trip, t -> new ArrayList<>()).add(new int[] { sequence, stopIds.size(),
+                        parseTime(table.get("arrival_time")), parseTime(table.get("departure_time")) });
+                stopIds.add(stopId);
+            }
+        }
+
+        List<Pattern> patterns = new ArrayList<>();
+        for (int p = 0; p < longestTrip.length; p++) {
+            int trip = longestTrip[p];
+            List<int[]> rows = rowsOfTrip.get(trip);
+            if (rows == null) {
+                continue;
+            }
+            Pattern pattern = new Pattern(patternRoutes.get(p), patternDirections.get(p), headsigns.get(trip));
+            List<String> stopIds = stopIdsOfTrip.get(trip);
+            rows.sort(Comparator.comparingInt(row -> row[0]));
+            for (int[] row : rows) {
+                pattern.stopIds.add(stopIds.get(row[1]));
+                pattern.arrivals.add(row[2]);
+                pattern.departures.add(row[3]);
+            }
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+
+    /** Feeds are sometimes zipped with their folder; files are found by name wherever they are. */
+    private ZipEntry entry(String name) {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry != null) {
+            return entry;
+        }
+        return zip.stream().filter(e -> !e.isDirectory() && e.getName().endsWith("/" + name)).findFirst().orElse(null);
+    }
+
+    private Table open(String name) throws IOException {
+        return new Table(new CsvReader(new InputStreamReader(zip.getInputStream(entry(name)), StandardCharsets.UTF_8)));
+    }
+
+    /** Seconds after midnight from H:MM:SS; GTFS times after midnight go past 24:00:00. */
+    static int parseTime(String value) {
+        if (value == null) {
+            return NO_TIME;
+        }
+        String[] parts = value.split(":");
+        if (parts.length != 3) {
+            return NO_TIME;
+        }
+        try {
+            return Integer.parseInt(parts[0]) * 3600 + Integer.parseInt(parts[1]) * 60 + Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return NO_TIME;
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseCoordinate(String value) {
+        try {
+            return value != null ? Double.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** A GTFS file read one record at a time; fields are looked up by header name. */
+    private static final class Table implements Closeable {
+        private final CsvReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private List<String> record;
+
+        Table(CsvReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = reader.readRecord();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim(), i);
+                }
+            }
+        }
+
+        boolean next() throws IOException {
+            record = reader.readRecord();
+            return record != null;
+        }
+
+        /** The trimmed field, or null if the column is missing or the field is empty. */
+        String get(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
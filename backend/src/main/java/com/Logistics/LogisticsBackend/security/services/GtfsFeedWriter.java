@@ -0,0 +1,145 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.Logistics.LogisticsBackend.util.CsvWriter;
+
+/**
+ * Writes a GTFS feed as a zip, one file after the other: each {@code begin} method starts a new
+ * zip entry with its header, and records are written to it as they come, so no file is held in
+ * memory. The counterpart of {@link GtfsFeedReader}; every trip runs on a service id of its own
+ * date, listed in {@code calendar_dates.txt}.
+ */
+public final class GtfsFeedWriter {
+
+    public static final String AGENCY = "agency.txt";
+    public static final String CALENDAR_DATES = "calendar_dates.txt";
+
+    // Route type of a bus in routes.txt
+    private static final int BUS = 3;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final ZipOutputStream zip;
+    private final BufferedWriter writer;
+    private final CsvWriter csv;
+    private boolean inEntry;
+
+    public GtfsFeedWriter(OutputStream out) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        this.csv = new CsvWriter(writer);
+    }
+
+    public void agency(String name, String url, String timezone) throws IOException {
+        begin(AGENCY, "agency_name", "agency_url", "agency_timezone");
+        csv.writeRecord(name, url, timezone);
+    }
+
+    public void beginStops() throws IOException {
+        begin(GtfsFeedReader.STOPS, "stop_id", "stop_name", "stop_desc", "stop_lat", "stop_lon");
+    }
+
+    public void stop(String id, String name, String description, double latitude, double longitude) throws IOException {
+        csv.writeRecord(id, name, description, latitude, longitude);
+    }
+
+    public void beginRoutes() throws IOException {
+        begin(GtfsFeedReader.ROUTES, "route_id", "route_short_name", "route_long_name", "route_desc", "route_type");
+    }
+
+    public void route(String id, String shortName, String longName, String description) throws IOException {
+        csv.writeRecord(id, shortName, longName, description, BUS);
+    }
+
+    public void beginTrips() throws IOException {
+        begin(GtfsFeedReader.TRIPS, "route_id", "service_id", "trip_id", "trip_headsign");
+    }
+
+    public void trip(String routeId, LocalDate serviceDate, String tripId, String headsign) throws IOException {
+        csv.writeRecord(routeId, serviceId(serviceDate), tripId, headsign);
+    }
+
+    /** Times are estimated from travel times, not timed at the stop, so none is a timepoint. */
+    public void beginStopTimes() throws IOException {
+        begin(GtfsFeedReader.STOP_TIMES, "trip_id", "arrival_time", "departure_time", "stop_id", "stop_sequence", "timepoint");
+    }
+
+    /**
+     * Times are seconds after midnight of the trip's service date, so they may pass 24:00:00. The
+     * trip id is written as is, so it must be one that needs no quoting.
+     */
+    public void stopTime(String tripId, int arrival, int departure, String stopId, int sequence) throws IOException {
+        writer.write(tripId);
+        writer.write(',');
+        writeTime(arrival);
+        writer.write(',');
+        writeTime(departure);
+        writer.write(',');
+        csv.writeRecord(stopId, sequence, 0);
+    }
+
+    public void beginCalendarDates() throws IOException {
+        begin(CALENDAR_DATES, "service_id", "date", "exception_type");
+    }
+
+    public void serviceDate(LocalDate date) throws IOException {
+        csv.writeRecord(serviceId(date), date.format(DATE), 1);
+    }
+
+    /** Flushes the writer every so many rows, so the client gets data while the feed is written. */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /** Completes the zip without closing the stream underneath. */
+    public void finish() throws IOException {
+        closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    static String serviceId(LocalDate date) {
+        return date.format(DATE);
+    }
+
+    private void begin(String name, String... header) throws IOException {
+        closeEntry();
+        zip.putNextEntry(new ZipEntry(name));
+        inEntry = true;
+        csv.writeRecord((Object[]) header);
+    }
+
+    private void closeEntry() throws IOException {
+        if (inEntry) {
+            writer.flush();
+            zip.closeEntry();
+            inEntry = false;
+        }
+    }
+
+    // Stop times are most of the feed; this avoids a format string per field
+    private void writeTime(int seconds) throws IOException {
+        int hours = seconds / 3600;
+        int minutes = seconds / 60 % 60;
+        int rest = seconds % 60;
+        if (hours < 10) {
+            writer.write('0');
+        }
+        writer.write(Integer.toString(hours));
+        writer.write(':');
+        writer.write((char) ('0' + minutes / 10));
+        writer.write((char) ('0' + minutes % 10));
+        writer.write(':');
+        writer.write((char) ('0' + rest / 10));
+        writer.write((char) ('0' + rest % 10));
+    }
+}
@@ -0,0 +1,425 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Types;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.payload.request.RouteStopSequenceRequest;
+import com.Logistics.LogisticsBackend.payload.response.GtfsImportResponse;
+
+/**
+ * Imports stops, routes and route stops from a GTFS feed. Stops are streamed from the feed and
+ * upserted in chunks with JDBC batches; existing rows are matched by their GTFS id, or adopted by
+ * name (stops) or route code (routes) if they were entered by hand. Foreign keys are resolved
+ * through in-memory maps from GTFS ids to row ids, so no row of {@code stop_times.txt} costs a
+ * query. Each route's stop sequence is then replaced through {@link RouteStopService}, one
+ * transaction per route, which keeps rows that did not change.
+ */
+@Service
+public class GtfsImportService {
+    private static final Logger logger = LoggerFactory.getLogger(GtfsImportService.class);
+
+    private static final int MAX_WARNINGS = 100;
+
+    private static final String SELECT_STOPS = "SELECT id, name, description, latitude, longitude, gtfs_id FROM stops";
+    private static final String INSERT_STOP = "INSERT INTO stops (name, description, latitude, longitude, gtfs_id) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_STOP = "UPDATE stops SET name = ?, description = ?, latitude = ?, longitude = ?, "
+            + "gtfs_id = ? WHERE id = ?";
+    private static final String SELECT_STOP_IDS = "SELECT id, gtfs_id FROM stops WHERE gtfs_id IN (:gtfsIds)";
+
+    private static final String SELECT_ROUTES = "SELECT id, route_code, name, description, direction, gtfs_id FROM routes";
+    private static final String INSERT_ROUTE = "INSERT INTO routes (route_code, name, description, direction, gtfs_id) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_ROUTE = "UPDATE routes SET route_code = ?, name = ?, description = ?, direction = ?, "
+            + "gtfs_id = ? WHERE id = ?";
+    private static final String SELECT_ROUTE_IDS = "SELECT id, gtfs_id FROM routes WHERE gtfs_id IN (:gtfsIds)";
+
+    @Value("${urbansync.app.importChunkSize:500}")
+    private int chunkSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RouteStopService routeStopService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Imports the GTFS zip read from the input. The zip is spooled to a temporary file first: its
+     * directory is at the end, and the files must be read in dependency order rather than zip order.
+     */
+    public GtfsImportResponse importFeed(InputStream input) throws IOException {
+        long started = System.nanoTime();
+        Path file = Files.createTempFile("gtfs-", ".zip");
+        Run run = new Run();
+        try {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            try (GtfsFeedReader reader = new GtfsFeedReader(file)) {
+                importStops(reader, run);
+                importRoutes(reader.readPatterns(), run);
+                run.skippedRows += reader.getSkippedRows();
+            }
+        } catch (ZipException e) {
+            throw new IllegalArgumentException("The feed is not a valid zip file: " + e.getMessage());
+        } finally {
+            Files.deleteIfExists(file);
+            // Chunks committed before a failure stay, so the caches must see them either way
+            if (run.stopsCreated + run.stopsUpdated + run.routesCreated + run.routesUpdated + run.routesWithStops > 0) {
+                eventPublisher.publishEvent(new NetworkChangedEvent());
+            }
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        logger.info("GTFS import finished in {} ms: {} stops created, {} updated, {} routes created, {} updated, "
+                + "{} stop sequences set, {} rows skipped", elapsedMs, run.stopsCreated, run.stopsUpdated,
+                run.routesCreated, run.routesUpdated, run.routesWithStops, run.skippedRows);
+        return new GtfsImportResponse(run.stopsCreated, run.stopsUpdated, run.routesCreated, run.routesUpdated,
+                run.routesWithStops, run.skippedRows, run.warnings, elapsedMs);
+    }
+
+    private void importStops(GtfsFeedReader reader, Run run) throws IOException {
+        Map<String, Known> byGtfsId = new HashMap<>();
+        Map<String, Known> byName = new HashMap<>();
+        jdbcTemplate.query(SELECT_STOPS, rs -> {
+            Known stop = new Known(rs.getLong("id"), rs.getString("gtfs_id"));
+            stop.name = rs.getString("name");
+            stop.description = rs.getString("description");
+            stop.latitude = rs.getObject("latitude", Double.class);
+            stop.longitude = rs.getObject("longitude", Double.class);
+            byName.put(stop.name, stop);
+            if (stop.gtfsId != null) {
+                byGtfsId.put(stop.gtfsId, stop);
+            }
+        });
+
+        Set<String> seen = new HashSet<>();
+        List<GtfsFeedReader.Stop> chunk = new ArrayList<>(chunkSize);
+        reader.readStops(stop -> {
+            if (!seen.add(stop.id)) {
+                run.skip("Stop " + stop.id + " appears more than once");
+                return;
+            }
+            chunk.add(stop);
+            if (chunk.size() >= chunkSize) {
+                writeStops(chunk, byGtfsId, byName, run);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            writeStops(chunk, byGtfsId, byName, run);
+        }
+    }
+
+    private void writeStops(List<GtfsFeedReader.Stop> chunk, Map<String, Known> byGtfsId, Map<String, Known> byName, Run run) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Known> created = new ArrayList<>();
+        for (GtfsFeedReader.Stop stop : chunk) {
+            Known known = byGtfsId.get(stop.id);
+            if (known == null && byName.containsKey(stop.name) && byName.get(stop.name).gtfsId == null) {
+                known = byName.get(stop.name);
+            }
+            // Stop names are unique; a second stop of the same name gets its code
+            String name = freeName(byName, stop.name, stop.code != null ? stop.code : stop.id, known);
+            if (name == null) {
+                run.skip("Stop " + stop.id + " was skipped: the name " + stop.name + " is taken");
+                continue;
+            }
+            // Fields the feed leaves empty keep what was entered by hand
+            String description = stop.description != null ? stop.description : known != null ? known.description : null;
+            Double latitude = stop.latitude != null ? stop.latitude : known != null ? known.latitude : null;
+            Double longitude = stop.longitude != null ? stop.longitude : known != null ? known.longitude : null;
+
+            if (known == null) {
+                known = new Known(null, stop.id);
+                inserts.add(new Object[] { name, description, latitude, longitude, stop.id });
+                created.add(known);
+            } else if (!name.equals(known.name) || !Objects.equals(description, known.description)
+                    || !Objects.equals(latitude, known.latitude) || !Objects.equals(longitude, known.longitude)
+                    || !stop.id.equals(known.gtfsId)) {
+                updates.add(new Object[] { name, description, latitude, longitude, stop.id, known.id });
+                byName.remove(known.name);
+                known.gtfsId = stop.id;
+            }
+            known.name = name;
+            known.description = description;
+            known.latitude = latitude;
+            known.longitude = longitude;
+            byName.put(name, known);
+            byGtfsId.put(stop.id, known);
+        }
+
+        if (!inserts.isEmpty() || !updates.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_STOP, updates, new int[] { Types.VARCHAR, Types.VARCHAR, Types.DOUBLE,
+                            Types.DOUBLE, Types.VARCHAR, Types.BIGINT });
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_STOP, inserts, new int[] { Types.VARCHAR, Types.VARCHAR, Types.DOUBLE,
+                            Types.DOUBLE, Types.VARCHAR });
+                    assignIds(SELECT_STOP_IDS, created);
+                }
+            });
+        }
+        run.stopsCreated += inserts.size();
+        run.stopsUpdated += updates.size();
+        for (GtfsFeedReader.Stop stop : chunk) {
+            Known known = byGtfsId.get(stop.id);
+            if (known != null) {
+                run.stopIds.put(stop.id, known.id);
+            }
+        }
+    }
+
+    private void importRoutes(List<GtfsFeedReader.Pattern> patterns, Run run) {
+        Map<String, Known> byGtfsId = new HashMap<>();
+        Map<String, Known> byCode = new HashMap<>();
+        Map<String, Known> byNameAndDirection = new HashMap<>();
+        jdbcTemplate.query(SELECT_ROUTES, rs -> {
+            Known route = new Known(rs.getLong("id"), rs.getString("gtfs_id"));
+            route.code = rs.getString("route_code");
+            route.name = rs.getString("name");
+            route.description = rs.getString("description");
+            route.direction = rs.getString("direction");
+            byCode.put(route.code, route);
+            byNameAndDirection.put(route.name + "\u0000" + route.direction, route);
+            if (route.gtfsId != null) {
+                byGtfsId.put(route.gtfsId, route);
+            }
+        });
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Known> created = new ArrayList<>();
+        Map<GtfsFeedReader.Pattern, Known> routeOfPattern = new HashMap<>();
+        for (GtfsFeedReader.Pattern pattern : patterns) {
+            GtfsFeedReader.Route route = pattern.route;
+            String suffix = pattern.directionId.isEmpty() ? "" : "-" + pattern.directionId;
+            String gtfsId = pattern.directionId.isEmpty() ? route.id : route.id + "#" + pattern.directionId;
+            String code = (route.shortName != null ? route.shortName : route.id) + suffix;
+            Known known = byGtfsId.get(gtfsId);
+            if (known == null && byCode.containsKey(code) && byCode.get(code).gtfsId == null) {
+                known = byCode.get(code);
+            }
+            // Route codes are unique; fall back to the GTFS id if the short name is taken
+            if (isTaken(byCode, code, known)) {
+                code = route.id + suffix;
+            }
+            if (isTaken(byCode, code, known)) {
+                run.skip("Route " + gtfsId + " was skipped: the route code " + code + " is taken");
+                continue;
+            }
+            String direction = pattern.headsign != null ? pattern.headsign
+                    : pattern.directionId.isEmpty() ? null : "Direction " + pattern.directionId;
+            String name = route.longName != null ? route.longName : route.shortName != null ? route.shortName : route.id;
+            if (isTaken(byNameAndDirection, name + "\u0000" + direction, known)) {
+                name = name + " (" + code + ")";
+            }
+            if (isTaken(byNameAndDirection, name + "\u0000" + direction, known)) {
+                run.skip("Route " + gtfsId + " was skipped: the name " + name + " is taken in direction " + direction);
+                continue;
+            }
+            String description = route.description != null ? route.description : known != null ? known.description : null;
+
+            if (known == null) {
+                known = new Known(null, gtfsId);
+                inserts.add(new Object[] { code, name, description, direction, gtfsId });
+                created.add(known);
+            } else if (!code.equals(known.code) || !name.equals(known.name) || !Objects.equals(description, known.description)
+                    || !Objects.equals(direction, known.direction) || !gtfsId.equals(known.gtfsId)) {
+                updates.add(new Object[] { code, name, description, direction, gtfsId, known.id });
+                byCode.remove(known.code);
+                byNameAndDirection.remove(known.name + "\u0000" + known.direction);
+                known.gtfsId = gtfsId;
+            }
+            known.code = code;
+            known.name = name;
+            known.description = description;
+            known.direction = direction;
+            byCode.put(code, known);
+            byNameAndDirection.put(name + "\u0000" + direction, known);
+            byGtfsId.put(gtfsId, known);
+            routeOfPattern.put(pattern, known);
+        }
+
+        if (!inserts.isEmpty() || !updates.isEmpty()) {
+            // Routes number in the thousands at most, so they are written in one transaction
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_ROUTE, updates, new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                            Types.VARCHAR, Types.VARCHAR, Types.BIGINT });
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_ROUTE, inserts, new int[] { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                            Types.VARCHAR, Types.VARCHAR });
+                    assignIds(SELECT_ROUTE_IDS, created);
+                }
+            });
+        }
+        run.routesCreated += inserts.size();
+        run.routesUpdated += updates.size();
+
+        for (GtfsFeedReader.Pattern pattern : patterns) {
+            Known route = routeOfPattern.get(pattern);
+            if (route != null) {
+                replaceStops(route, pattern, run);
+            }
+        }
+    }
+
+    private void replaceStops(Known route, GtfsFeedReader.Pattern pattern, Run run) {
+        List<RouteStopSequenceRequest.Item> items = new ArrayList<>(pattern.stopIds.size());
+        Set<Long> visited = new HashSet<>();
+        int previousDeparture = GtfsFeedReader.NO_TIME;
+        for (int i = 0; i < pattern.stopIds.size(); i++) {
+            Long stopId = run.stopIds.get(pattern.stopIds.get(i));
+            if (stopId == null) {
+                run.skippedRows++;
+                continue;
+            }
+            if (!visited.add(stopId)) {
+                continue; // A route visits each stop once; loop routes keep their first visit
+            }
+            int arrival = pattern.arrivals.get(i);
+            int departure = pattern.departures.get(i);
+            if (arrival == GtfsFeedReader.NO_TIME) {
+                arrival = departure;
+            } else if (departure == GtfsFeedReader.NO_TIME) {
+                departure = arrival;
+            }
+            RouteStopSequenceRequest.Item item = new RouteStopSequenceRequest.Item();
+            item.setStopId(stopId);
+            item.setArrivalTime(timeOfDay(arrival));
+            item.setDepartureTime(timeOfDay(departure));
+            if (!items.isEmpty() && arrival != GtfsFeedReader.NO_TIME && previousDeparture != GtfsFeedReader.NO_TIME) {
+                item.setTravelTimeFromPrevMin(Math.max(0, Math.round((arrival - previousDeparture) / 60f)));
+            }
+            if (departure != GtfsFeedReader.NO_TIME) {
+                previousDeparture = departure;
+            }
+            items.add(item);
+        }
+        if (items.isEmpty()) {
+            run.warn("Route " + route.gtfsId + " has no known stops; its stop sequence was left as it was");
+            return;
+        }
+
+        RouteStopSequenceRequest request = new RouteStopSequenceRequest();
+        request.setStops(items);
+        try {
+            routeStopService.replaceStops(route.id, request);
+            run.routesWithStops++;
+        } catch (ResourceNotFoundException | IllegalArgumentException e) {
+            run.warn("Stops of route " + route.gtfsId + " were not replaced: " + e.getMessage());
+        }
+    }
+
+    /** Reads back the generated ids of freshly inserted rows, which have unique GTFS ids. */
+    private void assignIds(String sql, List<Known> created) {
+        Map<String, Known> byGtfsId = new HashMap<>();
+        for (Known known : created) {
+            byGtfsId.put(known.gtfsId, known);
+        }
+        List<String> gtfsIds = new ArrayList<>(byGtfsId.keySet());
+        for (int from = 0; from < gtfsIds.size(); from += chunkSize) {
+            Collection<String> slice = gtfsIds.subList(from, Math.min(from + chunkSize, gtfsIds.size()));
+            namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("gtfsIds", slice),
+                    rs -> { byGtfsId.get(rs.getString("gtfs_id")).id = rs.getLong("id"); });
+        }
+    }
+
+    private static String freeName(Map<String, Known> byName, String name, String suffix, Known self) {
+        if (!isTaken(byName, name, self)) {
+            return name;
+        }
+        String alternative = name + " (" + suffix + ")";
+        return isTaken(byName, alternative, self) ? null : alternative;
+    }
+
+    private static boolean isTaken(Map<String, Known> rows, String key, Known self) {
+        Known holder = rows.get(key);
+        return holder != null && holder != self;
+    }
+
+    /** GTFS times run past midnight for late trips; route stops keep the time of day. */
+    private static LocalTime timeOfDay(int seconds) {
+        return seconds == GtfsFeedReader.NO_TIME ? null : LocalTime.ofSecondOfDay(seconds % 86_400);
+    }
+
+    /** A stop or route row as the import last saw it; fields that do not apply stay null. */
+    private static final class Known {
+        Long id;
+        String gtfsId;
+        String code;
+        String name;
+        String description;
+        String direction;
+        Double latitude;
+        Double longitude;
+
+        Known(Long id, String gtfsId) {
+            this.id = id;
+            this.gtfsId = gtfsId;
+        }
+    }
+
+    /** Counts and warnings of one import. */
+    private static final class Run {
+        final Map<String, Long> stopIds = new HashMap<>(); // GTFS stop_id -> stop id
+        final List<String> warnings = new ArrayList<>(); // The first MAX_WARNINGS only
+        int stopsCreated;
+        int stopsUpdated;
+        int routesCreated;
+        int routesUpdated;
+        int routesWithStops;
+        long skippedRows;
+
+        void warn(String message) {
+            if (warnings.size() < MAX_WARNINGS) {
+                warnings.add(message);
+            }
+        }
+
+        void skip(String message) {
+            skippedRows++;
+            warn(message);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.zip.CRC32;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Named locks shared by all instances: leases for background jobs that must run on only one
+ * instance at a time, and per-resource locks for writes. On PostgreSQL these are transaction-scoped
+ * advisory locks, released when the caller's transaction ends, also when the instance dies midway.
+ * Other databases (tests, single-instance setups) always get the lock.
+ */
+@Component
+public class JobLockService {
+    private static final Logger logger = LoggerFactory.getLogger(JobLockService.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean advisoryLocks;
+
+    @PostConstruct
+    void init() {
+        try (Connection connection = dataSource.getConnection()) {
+            advisoryLocks = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            logger.warn("Could not detect database for job locks, assuming a single instance: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tries to take the named lease for the rest of the current transaction without waiting.
+     *
+     * @throws IllegalStateException if called outside a transaction
+     */
+    public boolean tryLockForTransaction(String jobName) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Job lock " + jobName + " requires an active transaction");
+        }
+        if (!advisoryLocks) {
+            return true;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, key(jobName)));
+    }
+
+    /**
+     * Takes the named lock for the rest of the current transaction, waiting for other instances
+     * that hold it. Locks are not ordered here; callers taking several must sort them.
+     */
+    public void lockForTransaction(String name) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Lock " + name + " requires an active transaction");
+        }
+        if (advisoryLocks) {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> { }, key(name));
+        }
+    }
+
+    private static long key(String jobName) {
+        CRC32 crc = new CRC32();
+        crc.update(jobName.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
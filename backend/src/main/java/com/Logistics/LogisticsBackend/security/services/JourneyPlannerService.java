@@ -0,0 +1,270 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
+import com.Logistics.LogisticsBackend.event.SchedulesChangedEvent;
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.RouteStop;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.payload.response.JourneyLeg;
+import com.Logistics.LogisticsBackend.payload.response.JourneyResponse;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.RouteStopRepository;
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+import com.Logistics.LogisticsBackend.repository.StopRepository;
+
+/**
+ * Plans journeys over the scheduled trips of the next few days. The timetable is held in memory as
+ * a {@link TransitNetwork}: loaded on startup, patched after every committed schedule or route stop
+ * change, and rebuilt from the database by a background job. Queries run without locks against
+ * whichever network was current when they started.
+ *
+ * A trip reaches each stop at the route's arrival offset from its departure (see
+ * {@link RouteSummaryService#arrivalOffsetsMin}) and leaves again straight away.
+ */
+@Service
+public class JourneyPlannerService {
+    private static final Logger logger = LoggerFactory.getLogger(JourneyPlannerService.class);
+
+    @Value("${urbansync.app.plannerDays:2}")
+    private int windowDays;
+
+    @Value("${urbansync.app.plannerTransferMinutes:2}")
+    private int transferMinutes;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private RouteStopRepository routeStopRepository;
+
+    @Autowired
+    private StopRepository stopRepository;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    private volatile TransitNetwork network;
+
+    // Guards changes to network and the journal; queries only read the volatile field
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<UnaryOperator<TransitNetwork>> journal; // Non-null while a reload is reading from the database
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${urbansync.app.plannerReconcileMs:900000}",
+            initialDelayString = "${urbansync.app.plannerReconcileMs:900000}")
+    public void reconcile() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the network for the window starting today from the database. Changes that commit
+     * while the queries run are journaled and replayed on top of the fresh network before it is
+     * swapped in. Also moves the window forward and compacts removed trips.
+     */
+    public void reload() {
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        LocalDateTime to = from.plusDays(windowDays);
+
+        lock.lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        TransitNetwork fresh;
+        try {
+            Map<Long, TransitNetwork.Pattern> patterns = new HashMap<>();
+            Map<Long, List<RouteStop>> stopsByRoute = routeStopRepository.findAllOrderedByRoute().stream()
+                    .collect(Collectors.groupingBy(rs -> rs.getRoute().getId(), LinkedHashMap::new, Collectors.toList()));
+            stopsByRoute.forEach((routeId, stops) -> patterns.put(routeId, pattern(stops)));
+
+            List<TransitNetwork.Trip> trips = new ArrayList<>();
+            for (Object[] row : scheduleRepository.findTripsBetween(from, to)) {
+                trips.add(trip(row));
+            }
+            fresh = TransitNetwork.build(ScheduleSlot.toSeconds(from), ScheduleSlot.toSeconds(to), patterns, trips);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                journal = null;
+            } finally {
+                lock.unlock();
+            }
+            logger.warn("Could not load the journey planner network: {}", e.getMessage());
+            return;
+        }
+
+        lock.lock();
+        try {
+            for (UnaryOperator<TransitNetwork> change : journal) {
+                fresh = change.apply(fresh);
+            }
+            journal = null;
+            network = fresh;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Journey planner loaded {} stops, {} trips, {} connections for the next {} days",
+                fresh.stopCount(), fresh.tripCount(), fresh.connectionCount(), windowDays);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSchedulesChanged(SchedulesChangedEvent event) {
+        if (event.getScheduleIds().isEmpty()) {
+            return;
+        }
+        Set<Long> removed = new HashSet<>(event.getScheduleIds());
+        List<TransitNetwork.Trip> upserted = new ArrayList<>();
+        try {
+            for (Object[] row : scheduleRepository.findTripsByIds(event.getScheduleIds())) {
+                if (!"CANCELLED".equals(row[3])) {
+                    TransitNetwork.Trip trip = trip(row);
+                    removed.remove(trip.scheduleId);
+                    upserted.add(trip);
+                }
+            }
+        } catch (RuntimeException e) {
+            // The write itself has committed; the next reconcile picks the change up
+            logger.warn("Could not refresh {} schedules in the journey planner: {}", event.getScheduleIds().size(), e.getMessage());
+            return;
+        }
+        apply(current -> current.withTrips(removed, upserted));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRouteStopsChanged(RouteStopsChangedEvent event) {
+        List<RouteStop> stops;
+        try {
+            stops = routeStopRepository.findByRouteIdOrderByRankKeyAsc(event.getRouteId());
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh route {} in the journey planner: {}", event.getRouteId(), e.getMessage());
+            return;
+        }
+        TransitNetwork.Pattern pattern = stops.isEmpty() ? null : pattern(stops);
+        long routeId = event.getRouteId();
+        apply(current -> current.withPattern(routeId, pattern));
+    }
+
+    /** Applies a committed change to the live network and, during a reload, to the journal. */
+    private void apply(UnaryOperator<TransitNetwork> change) {
+        lock.lock();
+        try {
+            if (network != null) {
+                network = change.apply(network);
+            }
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Earliest arrival at {@code toStopId} leaving {@code fromStopId} at or after
+     * {@code departAfter}, changing buses as often as needed.
+     */
+    public JourneyResponse plan(Long fromStopId, Long toStopId, LocalDateTime departAfter) {
+        if (fromStopId == null || toStopId == null) {
+            throw new IllegalArgumentException("Both from and to stops are required");
+        }
+        if (fromStopId.equals(toStopId)) {
+            throw new IllegalArgumentException("From and to stops must differ");
+        }
+        TransitNetwork current = network;
+        if (current == null) {
+            reload();
+            current = network;
+        }
+        LocalDateTime after = departAfter != null ? departAfter : LocalDateTime.now();
+        TransitNetwork.Journey journey = current == null ? null
+                : current.earliestArrival(fromStopId, toStopId, ScheduleSlot.toSeconds(after), transferMinutes * 60);
+        if (journey == null) {
+            throw new ResourceNotFoundException("No journey found from stop " + fromStopId + " to stop " + toStopId + " after " + after);
+        }
+        return toResponse(fromStopId, toStopId, journey);
+    }
+
+    private JourneyResponse toResponse(Long fromStopId, Long toStopId, TransitNetwork.Journey journey) {
+        Set<Long> stopIds = new HashSet<>();
+        Set<Long> routeIds = new HashSet<>();
+        for (TransitNetwork.Leg leg : journey.legs) {
+            stopIds.add(leg.fromStopId);
+            stopIds.add(leg.toStopId);
+            routeIds.add(leg.routeId);
+        }
+        Map<Long, Stop> stops = stopRepository.findAllById(stopIds).stream()
+                .collect(Collectors.toMap(Stop::getId, Function.identity()));
+        Map<Long, Route> routes = routeRepository.findAllById(routeIds).stream()
+                .collect(Collectors.toMap(Route::getId, Function.identity()));
+
+        List<JourneyLeg> legs = new ArrayList<>();
+        for (TransitNetwork.Leg leg : journey.legs) {
+            JourneyLeg out = new JourneyLeg();
+            out.setScheduleId(leg.scheduleId);
+            out.setRouteId(leg.routeId);
+            Route route = routes.get(leg.routeId);
+            if (route != null) {
+                out.setRouteCode(route.getRouteCode());
+                out.setRouteName(route.getName());
+            }
+            out.setFromStopId(leg.fromStopId);
+            out.setFromStopName(stops.containsKey(leg.fromStopId) ? stops.get(leg.fromStopId).getName() : null);
+            out.setToStopId(leg.toStopId);
+            out.setToStopName(stops.containsKey(leg.toStopId) ? stops.get(leg.toStopId).getName() : null);
+            out.setDepartureDateTime(ScheduleSlot.fromSeconds(leg.departure));
+            out.setArrivalDateTime(ScheduleSlot.fromSeconds(leg.arrival));
+            legs.add(out);
+        }
+        return new JourneyResponse(fromStopId, toStopId, ScheduleSlot.fromSeconds(journey.departure()),
+                ScheduleSlot.fromSeconds(journey.arrival()), (journey.arrival() - journey.departure()) / 60,
+                legs.size() - 1, legs);
+    }
+
+    private static TransitNetwork.Pattern pattern(List<RouteStop> stops) {
+        long[] stopIds = new long[stops.size()];
+        for (int i = 0; i < stopIds.length; i++) {
+            stopIds[i] = stops.get(i).getStop().getId();
+        }
+        int[] offsets = RouteSummaryService.arrivalOffsetsMin(stops);
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] *= 60;
+        }
+        return new TransitNetwork.Pattern(stopIds, offsets);
+    }
+
+    private static TransitNetwork.Trip trip(Object[] row) {
+        return new TransitNetwork.Trip((Long) row[0], (Long) row[1], ScheduleSlot.toSeconds((LocalDateTime) row[2]));
+    }
+}
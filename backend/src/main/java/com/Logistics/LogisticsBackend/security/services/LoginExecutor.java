@@ -0,0 +1,97 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Dedicated, size-limited pool for sign-in requests. Password hashing is CPU bound, so
+ * running it on Tomcat's request threads lets a burst of logins starve every other endpoint.
+ * The queue is bounded; when it is full {@link #submit(Supplier)} fails fast with a
+ * {@link RejectedExecutionException} so the caller can answer 429 instead of piling up work.
+ */
+@Component
+public class LoginExecutor {
+
+    // 0 means one worker per available processor
+    @Value("${urbansync.app.loginThreads:0}")
+    private int threads;
+
+    @Value("${urbansync.app.loginQueueCapacity:100}")
+    private int queueCapacity;
+
+    @Value("${urbansync.app.loginRetryAfterSeconds:2}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Timer hashTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "login-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        rejected = Counter.builder("auth.login.rejected")
+                .description("Sign-in requests rejected because the login queue was full")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("auth.login.hash")
+                .description("Time spent authenticating (password hash check) on the login pool")
+                .register(meterRegistry);
+
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory,
+                (task, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Login queue is full");
+                });
+
+        Gauge.builder("auth.login.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Sign-in requests waiting for a login worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the authentication task on the login pool and records its latency.
+     *
+     * @throws RejectedExecutionException if the login queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> hashTimer.record(task), executor);
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,216 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.RouteStop;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.StopRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialized JSON of the public network listings (routes, stops, route stops and the stops of each
+ * route), built in one read-only transaction and served from memory. A snapshot is never changed
+ * once built: when a {@link NetworkChangedEvent} or {@link RouteStopsChangedEvent} commits it is
+ * dropped, and the next read builds and swaps in the next version. Those events are only seen by
+ * the instance that made the change, so a background job also rebuilds the snapshot from the
+ * database; readers keep the old one until the new one is swapped in.
+ */
+@Service
+public class NetworkSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkSnapshotService.class);
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private StopRepository stopRepository;
+
+    @Autowired
+    private RouteStopService routeStopService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    // Serializes rebuilds, so a burst of reads after a change loads the network once
+    private final Object buildLock = new Object();
+    private final Object versionLock = new Object();
+    private long version;
+
+    public Body routes() {
+        return current().routes;
+    }
+
+    public Body stops() {
+        return current().stops;
+    }
+
+    public Body routeStops() {
+        return current().routeStops;
+    }
+
+    public Body stopsForRoute(Long routeId) {
+        Body body = current().stopsByRoute.get(routeId);
+        if (body == null) {
+            throw new ResourceNotFoundException("Route not found with id: " + routeId);
+        }
+        return body;
+    }
+
+    @Scheduled(fixedDelayString = "${urbansync.app.networkSnapshotReconcileMs:300000}",
+            initialDelayString = "${urbansync.app.networkSnapshotReconcileMs:300000}")
+    public void reconcile() {
+        try {
+            synchronized (buildLock) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not rebuild the network snapshot: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRouteStopsChanged(RouteStopsChangedEvent event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        synchronized (versionLock) {
+            version++;
+            snapshot = null;
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            return rebuild();
+        }
+    }
+
+    // Callers hold buildLock
+    private Snapshot rebuild() {
+        long versionBefore;
+        synchronized (versionLock) {
+            versionBefore = version;
+        }
+        Snapshot built = transactionTemplate.execute(status -> build(versionBefore));
+        synchronized (versionLock) {
+            // Don't keep a snapshot read while a change was committing; the next read rebuilds it
+            if (version == versionBefore) {
+                snapshot = built;
+            }
+        }
+        return built;
+    }
+
+    private Snapshot build(long version) {
+        List<Route> routes = routeRepository.findAll();
+        List<Stop> stops = stopRepository.findAll();
+        List<RouteStop> routeStops = routeStopService.getAllRouteStops();
+
+        // Already in route and stop order; every route gets a list, empty if it has no stops
+        Map<Long, List<RouteStop>> grouped = new HashMap<>();
+        for (Route route : routes) {
+            grouped.put(route.getId(), new ArrayList<>());
+        }
+        for (RouteStop routeStop : routeStops) {
+            grouped.computeIfAbsent(routeStop.getRoute().getId(), id -> new ArrayList<>()).add(routeStop);
+        }
+        Map<Long, Body> stopsByRoute = new LinkedHashMap<>();
+        grouped.forEach((routeId, stopsOfRoute) -> stopsByRoute.put(routeId, body(stopsOfRoute)));
+
+        Snapshot built = new Snapshot(body(routes), body(stops), body(routeStops), stopsByRoute);
+        logger.info("Network snapshot {} built: {} routes, {} stops, {} route stops", version, routes.size(), stops.size(),
+                routeStops.size());
+        return built;
+    }
+
+    private Body body(Object value) {
+        try {
+            return new Body(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the network snapshot", e);
+        }
+    }
+
+    /** Serialized JSON of one listing and its strong ETag, derived from the bytes. */
+    public static final class Body {
+        private final byte[] json;
+        private final String etag;
+
+        Body(byte[] json) {
+            this.json = json;
+            this.etag = "\"" + digest(json) + "\"";
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        private static String digest(byte[] json) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+                return HexFormat.of().formatHex(hash, 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        final Body routes;
+        final Body stops;
+        final Body routeStops;
+        final Map<Long, Body> stopsByRoute;
+
+        Snapshot(Body routes, Body stops, Body routeStops, Map<Long, Body> stopsByRoute) {
+            this.routes = routes;
+            this.stops = stops;
+            this.routeStops = routeStops;
+            this.stopsByRoute = stopsByRoute;
+        }
+    }
+}
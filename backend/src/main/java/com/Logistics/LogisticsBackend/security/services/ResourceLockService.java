@@ -0,0 +1,94 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Per-resource write locks for schedules (keys such as {@code driver:7} or {@code bus:3}), held
+ * until the surrounding transaction completes. Two writers for the same driver or bus take turns,
+ * so the second one's conflict check sees the first one's committed row; writers for unrelated
+ * resources don't wait for each other.
+ *
+ * Inside an instance keys map onto a fixed set of striped locks, taken in stripe order so two
+ * writers can never deadlock. Across instances each key is also a database lock (see
+ * {@link JobLockService}), taken in key order.
+ */
+@Component
+public class ResourceLockService {
+
+    @Value("${urbansync.app.resourceLockStripes:256}")
+    private int stripeCount;
+
+    @Value("${urbansync.app.resourceLockTimeoutMs:10000}")
+    private long timeoutMs;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    private ReentrantLock[] stripes;
+
+    @PostConstruct
+    void init() {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void lockForTransaction(String... keys) {
+        lockForTransaction(Arrays.asList(keys));
+    }
+
+    /**
+     * @throws CannotAcquireLockException if a lock is not free within the timeout
+     * @throws IllegalStateException if called outside a transaction
+     */
+    public void lockForTransaction(Collection<String> keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Resource locks require an active transaction");
+        }
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (String key : keys) {
+            stripeIndexes.add(Math.floorMod(key.hashCode(), stripes.length));
+        }
+
+        List<ReentrantLock> held = new ArrayList<>(stripeIndexes.size());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = held.size() - 1; i >= 0; i--) {
+                    held.get(i).unlock();
+                }
+            }
+        });
+        for (int index : stripeIndexes) {
+            ReentrantLock lock = stripes[index];
+            try {
+                if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new CannotAcquireLockException("Timed out waiting for a schedule resource lock");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Interrupted while waiting for a schedule resource lock", e);
+            }
+            held.add(lock);
+        }
+        for (String key : new TreeSet<>(keys)) {
+            jobLockService.lockForTransaction(key);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.Arrays;
+
+import com.Logistics.LogisticsBackend.util.GeoDistance;
+
+/**
+ * Distances and travel times along a route from the positions of its stops. Works on primitive
+ * arrays, one entry per stop in route order; a stop without a position is {@code NaN}. Hops are
+ * great-circle distances stretched by a detour factor for the road network, and cumulative distances
+ * stop at the first hop that cannot be measured. The class is stateless and thread-safe.
+ */
+public final class RouteGeometry {
+
+    /** Travel time of a hop that cannot be measured. */
+    public static final int UNKNOWN_MINUTES = -1;
+
+    /**
+     * Average speed by hop length: short hops are slower, since the bus spends more of them
+     * pulling away and braking. Parsed from {@code upToKm:kmh} pairs in increasing order, the last
+     * one {@code *:kmh} for any longer hop, e.g. {@code 1:12,3:18,8:25,*:35}.
+     */
+    public static final class SpeedProfile {
+        private final double[] upToKm;
+        private final double[] kmh;
+
+        SpeedProfile(double[] upToKm, double[] kmh) {
+            this.upToKm = upToKm;
+            this.kmh = kmh;
+        }
+
+        public static SpeedProfile parse(String profile) {
+            String[] bands = profile.split(",");
+            double[] upToKm = new double[bands.length];
+            double[] kmh = new double[bands.length];
+            for (int i = 0; i < bands.length; i++) {
+                String[] parts = bands[i].trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Speed profile bands look like upToKm:kmh, got " + bands[i]);
+                }
+                upToKm[i] = "*".equals(parts[0].trim()) ? Double.POSITIVE_INFINITY : Double.parseDouble(parts[0].trim());
+                kmh[i] = Double.parseDouble(parts[1].trim());
+                if (kmh[i] <= 0 || (i > 0 && upToKm[i] <= upToKm[i - 1])) {
+                    throw new IllegalArgumentException("Speed profile needs positive speeds and increasing distances: " + profile);
+                }
+            }
+            if (upToKm[bands.length - 1] != Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException("Speed profile must end with a *:kmh band: " + profile);
+            }
+            return new SpeedProfile(upToKm, kmh);
+        }
+
+        double kmhFor(double hopKm) {
+            int i = 0;
+            while (hopKm > upToKm[i]) {
+                i++;
+            }
+            return kmh[i];
+        }
+    }
+
+    private RouteGeometry() {
+    }
+
+    /**
+     * Fills {@code cumulativeKm} with the road distance from the first stop to each stop; {@code NaN}
+     * from the first stop that it or the one before it has no position.
+     */
+    public static void cumulativeKm(double[] latitudes, double[] longitudes, double detourFactor, double[] cumulativeKm) {
+        int n = latitudes.length;
+        if (n == 0) {
+            return;
+        }
+        if (Double.isNaN(latitudes[0]) || Double.isNaN(longitudes[0])) {
+            Arrays.fill(cumulativeKm, 0, n, Double.NaN);
+            return;
+        }
+        double scale = 2 * GeoDistance.EARTH_RADIUS_METERS / 1000 * detourFactor;
+        double previousLat = Math.toRadians(latitudes[0]);
+        double previousLon = Math.toRadians(longitudes[0]);
+        double previousCos = Math.cos(previousLat);
+        double total = 0;
+        cumulativeKm[0] = 0;
+        for (int i = 1; i < n; i++) {
+            if (Double.isNaN(total) || Double.isNaN(latitudes[i]) || Double.isNaN(longitudes[i])) {
+                total = Double.NaN;
+                cumulativeKm[i] = Double.NaN;
+                continue;
+            }
+            // Haversine, reusing the previous stop's radians and cosine
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            double cos = Math.cos(lat);
+            double sinLat = Math.sin((lat - previousLat) / 2);
+            double sinLon = Math.sin((lon - previousLon) / 2);
+            double a = sinLat * sinLat + previousCos * cos * sinLon * sinLon;
+            total += scale * Math.asin(Math.min(1, Math.sqrt(a)));
+            cumulativeKm[i] = total;
+            previousLat = lat;
+            previousLon = lon;
+            previousCos = cos;
+        }
+    }
+
+    /**
+     * Fills {@code minutes} with the travel time from the previous stop, rounded to whole minutes
+     * and at least one; {@link #UNKNOWN_MINUTES} for the first stop and unmeasured hops.
+     */
+    public static void travelMinutes(double[] cumulativeKm, SpeedProfile profile, int[] minutes) {
+        int n = cumulativeKm.length;
+        if (n == 0) {
+            return;
+        }
+        minutes[0] = UNKNOWN_MINUTES;
+        for (int i = 1; i < n; i++) {
+            double hopKm = cumulativeKm[i] - cumulativeKm[i - 1];
+            minutes[i] = Double.isNaN(hopKm) ? UNKNOWN_MINUTES
+                    : (int) Math.max(1, Math.round(hopKm / profile.kmhFor(hopKm) * 60));
+        }
+    }
+}
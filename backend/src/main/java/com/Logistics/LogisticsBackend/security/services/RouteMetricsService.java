@@ -0,0 +1,249 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
+import com.Logistics.LogisticsBackend.payload.response.RouteMetricsResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fills in {@code distanceFromStartKm} and {@code travelTimeFromPrevMin} of route stops from the
+ * positions of their stops, with {@link RouteGeometry}. Routes are processed in chunks, each in
+ * its own transaction under the routes' locks: one query reads the chunk's stops into primitive
+ * arrays, the routes are measured in parallel, and the changed rows are written in one batch.
+ * Without {@code overwrite} only missing values are filled in.
+ */
+@Service
+public class RouteMetricsService {
+    private static final Logger logger = LoggerFactory.getLogger(RouteMetricsService.class);
+
+    private static final String SELECT_ROUTE_IDS = "SELECT id FROM routes ORDER BY id";
+
+    private static final String SELECT_ROUTE_STOPS = "SELECT rs.id, rs.route_id, s.latitude, s.longitude, "
+            + "rs.distance_from_start_km, rs.travel_time_from_prev_min FROM route_stops rs JOIN stops s ON s.id = rs.stop_id "
+            + "WHERE rs.route_id IN (:routeIds) ORDER BY rs.route_id, rs.stop_order";
+
+    private static final String UPDATE_METRICS = "UPDATE route_stops SET distance_from_start_km = ?, "
+            + "travel_time_from_prev_min = ? WHERE id = ?";
+
+    @Value("${urbansync.app.routeSpeedProfile:1:12,3:18,8:25,*:35}")
+    private String speedProfile;
+
+    // Road distance over straight-line distance between consecutive stops
+    @Value("${urbansync.app.routeDetourFactor:1.3}")
+    private double detourFactor;
+
+    @Value("${urbansync.app.routeMetricsChunkRoutes:200}")
+    private int chunkRoutes;
+
+    // 0 means one worker per available processor
+    @Value("${urbansync.app.routeMetricsThreads:0}")
+    private int threads;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResourceLockService resourceLockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private RouteGeometry.SpeedProfile profile;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        profile = RouteGeometry.SpeedProfile.parse(speedProfile);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /** Recomputes every route. Running it again without stop changes in between changes nothing. */
+    public RouteMetricsResponse recompute(boolean overwrite) {
+        long started = System.nanoTime();
+        List<Long> routeIds = jdbcTemplate.queryForList(SELECT_ROUTE_IDS, Long.class);
+
+        int[] totals = new int[3]; // Routes changed, route stops changed, route stops that could not be measured
+        for (int from = 0; from < routeIds.size(); from += chunkRoutes) {
+            List<Long> chunk = routeIds.subList(from, Math.min(from + chunkRoutes, routeIds.size()));
+            int[] counts = transactionTemplate.execute(status -> recomputeChunk(chunk, overwrite));
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        logger.info("Recomputed metrics of {} routes in {} ms: {} routes and {} route stops changed, {} route stops unmeasured",
+                routeIds.size(), elapsedMs, totals[0], totals[1], totals[2]);
+        return new RouteMetricsResponse(routeIds.size(), totals[0], totals[1], totals[2], elapsedMs);
+    }
+
+    private int[] recomputeChunk(List<Long> routeIds, boolean overwrite) {
+        List<String> keys = new ArrayList<>(routeIds.size());
+        for (Long routeId : routeIds) {
+            keys.add(RouteStopService.lockKey(routeId));
+        }
+        resourceLockService.lockForTransaction(keys);
+
+        List<RouteStops> routes = new ArrayList<>();
+        RowBuffer buffer = new RowBuffer();
+        namedParameterJdbcTemplate.query(SELECT_ROUTE_STOPS, new MapSqlParameterSource("routeIds", routeIds), rs -> {
+            long routeId = rs.getLong("route_id");
+            if (buffer.size > 0 && buffer.routeId != routeId) {
+                routes.add(buffer.drain());
+            }
+            buffer.routeId = routeId;
+            BigDecimal distance = rs.getBigDecimal("distance_from_start_km");
+            Integer minutes = rs.getObject("travel_time_from_prev_min", Integer.class);
+            Double latitude = rs.getObject("latitude", Double.class);
+            Double longitude = rs.getObject("longitude", Double.class);
+            buffer.add(rs.getLong("id"), latitude != null ? latitude : Double.NaN, longitude != null ? longitude : Double.NaN,
+                    distance != null ? distance.doubleValue() : Double.NaN, minutes != null ? minutes : RouteGeometry.UNKNOWN_MINUTES);
+        });
+        if (buffer.size > 0) {
+            routes.add(buffer.drain());
+        }
+
+        List<CompletableFuture<List<Object[]>>> futures = new ArrayList<>(routes.size());
+        for (RouteStops route : routes) {
+            futures.add(CompletableFuture.supplyAsync(() -> changes(route, overwrite), executor));
+        }
+        List<Object[]> updates = new ArrayList<>();
+        int changedRoutes = 0;
+        int unmeasured = 0;
+        for (int i = 0; i < routes.size(); i++) {
+            List<Object[]> changes = futures.get(i).join();
+            unmeasured += routes.get(i).unmeasured;
+            if (!changes.isEmpty()) {
+                updates.addAll(changes);
+                changedRoutes++;
+                eventPublisher.publishEvent(new RouteStopsChangedEvent(routes.get(i).routeId));
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_METRICS, updates, new int[] { Types.DECIMAL, Types.INTEGER, Types.BIGINT });
+        }
+        return new int[] { changedRoutes, updates.size(), unmeasured };
+    }
+
+    /** Update rows (distance, travel time, id) for the route stops whose values change. */
+    private List<Object[]> changes(RouteStops route, boolean overwrite) {
+        int n = route.ids.length;
+        double[] cumulativeKm = new double[n];
+        int[] minutes = new int[n];
+        RouteGeometry.cumulativeKm(route.latitudes, route.longitudes, detourFactor, cumulativeKm);
+        RouteGeometry.travelMinutes(cumulativeKm, profile, minutes);
+
+        List<Object[]> changes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(cumulativeKm[i])) {
+                route.unmeasured++;
+            }
+            // The column keeps two decimals; compare at that scale so reruns change nothing
+            double km = Double.isNaN(cumulativeKm[i]) ? Double.NaN : Math.round(cumulativeKm[i] * 100) / 100.0;
+            double oldKm = route.distancesKm[i];
+            int oldMinutes = route.minutes[i];
+            boolean newKm = !Double.isNaN(km) && (overwrite || Double.isNaN(oldKm)) && km != oldKm;
+            boolean newMinutes = i > 0 && minutes[i] != RouteGeometry.UNKNOWN_MINUTES
+                    && (overwrite || oldMinutes == RouteGeometry.UNKNOWN_MINUTES) && minutes[i] != oldMinutes;
+            if (newKm || newMinutes) {
+                double distance = newKm ? km : oldKm;
+                int travel = newMinutes ? minutes[i] : oldMinutes;
+                changes.add(new Object[] {
+                        Double.isNaN(distance) ? null : BigDecimal.valueOf(distance).setScale(2, RoundingMode.HALF_UP),
+                        travel == RouteGeometry.UNKNOWN_MINUTES ? null : travel,
+                        route.ids[i] });
+            }
+        }
+        return changes;
+    }
+
+    /** One route's stops in order, with their current values ({@code NaN} or unknown if unset). */
+    private static final class RouteStops {
+        final long routeId;
+        final long[] ids;
+        final double[] latitudes;
+        final double[] longitudes;
+        final double[] distancesKm;
+        final int[] minutes;
+        int unmeasured;
+
+        RouteStops(long routeId, long[] ids, double[] latitudes, double[] longitudes, double[] distancesKm, int[] minutes) {
+            this.routeId = routeId;
+            this.ids = ids;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.distancesKm = distancesKm;
+            this.minutes = minutes;
+        }
+    }
+
+    /** Collects the rows of the current route while the result set is read. */
+    private static final class RowBuffer {
+        long routeId;
+        int size;
+        long[] ids = new long[64];
+        double[] latitudes = new double[64];
+        double[] longitudes = new double[64];
+        double[] distancesKm = new double[64];
+        int[] minutes = new int[64];
+
+        void add(long id, double latitude, double longitude, double distanceKm, int travelMinutes) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                distancesKm = Arrays.copyOf(distancesKm, capacity);
+                minutes = Arrays.copyOf(minutes, capacity);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            distancesKm[size] = distanceKm;
+            minutes[size] = travelMinutes;
+            size++;
+        }
+
+        RouteStops drain() {
+            RouteStops route = new RouteStops(routeId, Arrays.copyOf(ids, size), Arrays.copyOf(latitudes, size),
+                    Arrays.copyOf(longitudes, size), Arrays.copyOf(distancesKm, size),
+                    Arrays.copyOf(minutes, size));
+            size = 0;
+            return route;
+        }
+    }
+}
@@ -1,24 +1,44 @@
 package com.Logistics.LogisticsBackend.security.services;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
  
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
 import com.Logistics.LogisticsBackend.exception.DuplicateResourceException;
 import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
 import com.Logistics.LogisticsBackend.model.Route;
 import com.Logistics.LogisticsBackend.payload.request.RouteRequest;
+import com.Logistics.LogisticsBackend.payload.response.RouteDetailsResponse;
+import com.Logistics.LogisticsBackend.payload.response.SearchSuggestion;
 import com.Logistics.LogisticsBackend.repository.RouteRepository;
 
 @Service
 public class RouteService {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     private RouteRepository routeRepository;
 
+    @Autowired
+    private RouteSummaryService routeSummaryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
     @Transactional
     public Route createRoute(RouteRequest request) {
         // Validate unique constraints
@@ -32,7 +52,9 @@ public class RouteService {
         Route route = new Route();
         updateRouteFromRequest(route, request);
 
-        return routeRepository.save(route);
+        Route saved = routeRepository.save(route);
+        eventPublisher.publishEvent(NetworkChangedEvent.route(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -51,7 +73,9 @@ public class RouteService {
         }
 
         updateRouteFromRequest(route, request);
-        return routeRepository.save(route);
+        Route saved = routeRepository.save(route);
+        eventPublisher.publishEvent(NetworkChangedEvent.route(saved.getId()));
+        return saved;
     }
 
     private void updateRouteFromRequest(Route route, RouteRequest request) {
@@ -69,15 +93,28 @@ public class RouteService {
         return routeRepository.findById(id);
     }
 
+    public Optional<RouteDetailsResponse> getRouteDetails(Long id) {
+        return routeRepository.findById(id)
+                .map(route -> new RouteDetailsResponse(route, routeSummaryService.getSummary(id)));
+    }
+
     public Optional<Route> getRouteByName(String name) {
         return routeRepository.findByName(name);
     }
 
+    /**
+     * Routes whose name or code match the words typed, best match first. Matching is done by
+     * {@link AutocompleteIndex}: whole words, word prefixes and small typos.
+     */
     public List<Route> searchRoutes(String name) {
         if (name == null || name.trim().isEmpty()) {
             return routeRepository.findAll();
         }
-        return routeRepository.findByNameContainingIgnoreCase(name);
+        List<Long> ids = autocompleteIndex.search(name, AutocompleteIndex.ROUTE, MAX_SEARCH_RESULTS).stream()
+                .map(SearchSuggestion::getId).collect(Collectors.toList());
+        Map<Long, Route> routes = routeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Route::getId, Function.identity()));
+        return ids.stream().map(routes::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Transactional
@@ -86,5 +123,7 @@ public class RouteService {
             throw new ResourceNotFoundException("Route not found with id: " + id);
         }
         routeRepository.deleteById(id);
+        eventPublisher.publishEvent(NetworkChangedEvent.route(id));
+        eventPublisher.publishEvent(new RouteStopsChangedEvent(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Renumbers the rank keys of routes where repeated inserts at the same spot have used up most of
+ * the gap between two neighbours, so later inserts don't have to renumber inline. Also spreads out
+ * routes still numbered 1..N from before rank keys were sparse. One instance at a time finds the
+ * routes; each route is renumbered in its own transaction under the route's lock.
+ */
+@Component
+public class RouteStopRankMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(RouteStopRankMaintenance.class);
+
+    private static final String JOB_NAME = "route-stop-renumber";
+
+    // Fewer than three more halvings left between some pair of neighbours
+    private static final int MIN_GAP = 8;
+
+    private static final String SELECT_CROWDED_ROUTES = "SELECT DISTINCT route_id FROM (SELECT route_id, "
+            + "stop_order - LAG(stop_order) OVER (PARTITION BY route_id ORDER BY stop_order) AS gap FROM route_stops) g "
+            + "WHERE gap < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RouteStopService routeStopService;
+
+    @Scheduled(fixedDelayString = "${urbansync.app.rankRenumberMs:3600000}", initialDelayString = "${urbansync.app.rankRenumberMs:3600000}")
+    public void renumberCrowdedRoutes() {
+        List<Long> routeIds = transactionTemplate.execute(status -> jobLockService.tryLockForTransaction(JOB_NAME)
+                ? jdbcTemplate.queryForList(SELECT_CROWDED_ROUTES, Long.class, MIN_GAP)
+                : List.<Long>of());
+        if (routeIds == null || routeIds.isEmpty()) {
+            return;
+        }
+        for (Long routeId : routeIds) {
+            routeStopService.renumber(routeId);
+        }
+        logger.info("Renumbered stop rank keys of {} routes", routeIds.size());
+    }
+}
@@ -1,16 +1,37 @@
 package com.Logistics.LogisticsBackend.security.services;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
 import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
 import com.Logistics.LogisticsBackend.model.Route;
 import com.Logistics.LogisticsBackend.model.RouteStop;
 import com.Logistics.LogisticsBackend.model.Stop;
 import com.Logistics.LogisticsBackend.payload.request.RouteStopRequest;
+import com.Logistics.LogisticsBackend.payload.request.RouteStopSequenceRequest;
+import com.Logistics.LogisticsBackend.payload.response.RouteStopPage;
 import com.Logistics.LogisticsBackend.repository.RouteRepository;
 import com.Logistics.LogisticsBackend.repository.RouteStopRepository;
 import com.Logistics.LogisticsBackend.repository.StopRepository;
@@ -18,6 +39,27 @@ import com.Logistics.LogisticsBackend.repository.StopRepository;
 @Service
 public class RouteStopService {
 
+    // Spacing of freshly numbered rank keys: room for ten inserts at the same spot before a renumber
+    public static final int RANK_GAP = 1024;
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String SELECT_ROUTE_STOPS = "SELECT id, stop_id, stop_order, arrival_time, departure_time, "
+            + "distance_from_start_km, travel_time_from_prev_min, remarks FROM route_stops WHERE route_id = ?";
+
+    private static final String SELECT_OTHER_RANKS = "SELECT stop_order FROM route_stops WHERE route_id = ? AND id <> ? ORDER BY stop_order";
+
+    private static final String SELECT_IDS_BY_RANK = "SELECT id FROM route_stops WHERE route_id = ? ORDER BY stop_order, id";
+
+    private static final String UPDATE_RANK = "UPDATE route_stops SET stop_order = ? WHERE id = ?";
+
+    private static final String UPDATE_ROUTE_STOP = "UPDATE route_stops SET stop_order = ?, arrival_time = ?, departure_time = ?, "
+            + "distance_from_start_km = ?, travel_time_from_prev_min = ?, remarks = ? WHERE id = ?";
+
+    private static final String INSERT_ROUTE_STOP = "INSERT INTO route_stops (route_id, stop_id, stop_order, arrival_time, "
+            + "departure_time, distance_from_start_km, travel_time_from_prev_min, remarks) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private RouteStopRepository routeStopRepository;
 
@@ -27,16 +69,87 @@ public class RouteStopService {
     @Autowired
     private StopRepository stopRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ResourceLockService resourceLockService;
+
+    /** The route's stops in order, in one query; the route is only looked up when it has none. */
     public List<RouteStop> getStopsForRoute(Long routeId) {
-        if (!routeRepository.existsById(routeId)) {
+        List<RouteStop> routeStops = routeStopRepository.findByRouteIdOrderByRankKeyAsc(routeId);
+        if (routeStops.isEmpty() && !routeRepository.existsById(routeId)) {
             throw new ResourceNotFoundException("Route not found with id: " + routeId);
         }
-        return routeStopRepository.findByRouteIdOrderByStopOrderAsc(routeId);
+        return numbered(routeStops);
     }
 
     @Transactional(readOnly = true)
     public List<RouteStop> getAllRouteStops() {
-        return routeStopRepository.findAll();
+        List<RouteStop> routeStops = routeStopRepository.findAllOrderedByRoute();
+        numberFrom(routeStops, null, 0);
+        return routeStops;
+    }
+
+    /**
+     * One page of route stops in route and stop order, optionally of one route only, in one query.
+     * The cursor holds the last row's route, rank key and stop order, so {@code stopOrder} carries
+     * on across pages without counting the rows before them.
+     */
+    @Transactional(readOnly = true)
+    public RouteStopPage findRouteStops(Long routeId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long afterRouteId = 0;
+        int afterRankKey = Integer.MIN_VALUE;
+        int afterStopOrder = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterRouteId = Long.parseLong(position[0]);
+                afterRankKey = Integer.parseInt(position[1]);
+                afterStopOrder = Integer.parseInt(position[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (routeId != null && afterRouteId != routeId) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Fetch one extra row to learn whether there is a next page
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<RouteStop> items = routeId != null
+                ? routeStopRepository.findRoutePageAfter(routeId, afterRankKey, window)
+                : routeStopRepository.findPageAfter(afterRouteId, afterRankKey, window);
+        boolean more = items.size() > pageSize;
+        if (more) {
+            items = items.subList(0, pageSize);
+        }
+        numberFrom(items, afterRouteId, afterStopOrder);
+        String nextCursor = null;
+        if (more) {
+            RouteStop last = items.get(pageSize - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString((last.getRoute().getId() + "|"
+                    + last.getRankKey() + "|" + last.getStopOrder()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new RouteStopPage(items, nextCursor);
+    }
+
+    /** Numbers rows 1..N per route, carrying on from {@code stopOrder} for the rows of {@code routeId}. */
+    private static void numberFrom(List<RouteStop> routeStops, Long routeId, int stopOrder) {
+        for (RouteStop routeStop : routeStops) {
+            if (!routeStop.getRoute().getId().equals(routeId)) {
+                routeId = routeStop.getRoute().getId();
+                stopOrder = 0;
+            }
+            routeStop.setStopOrder(++stopOrder);
+        }
     }
 
     @Transactional
@@ -45,26 +158,20 @@ public class RouteStopService {
                 .orElseThrow(() -> new ResourceNotFoundException("Route not found with id: " + routeId));
         Stop stop = stopRepository.findById(request.getStopId())
                 .orElseThrow(() -> new ResourceNotFoundException("Stop not found with id: " + request.getStopId()));
+        lockRoute(routeId);
 
-        // If a stop with this order already exists, shift subsequent stops
-        if (routeStopRepository.existsByRouteIdAndStopOrder(routeId, request.getStopOrder())) {
-            List<RouteStop> stopsToShift = routeStopRepository.findByRouteIdAndStopOrderGreaterThanEqual(routeId, request.getStopOrder());
-            for (RouteStop stopToShift : stopsToShift) {
-                stopToShift.setStopOrder(stopToShift.getStopOrder() + 1);
-            }
-            routeStopRepository.saveAll(stopsToShift);
-        }
-
+        // Only the new row is written; later stops keep their keys
         RouteStop routeStop = new RouteStop();
         routeStop.setRoute(route);
         routeStop.setStop(stop);
-        routeStop.setStopOrder(request.getStopOrder());
+        place(routeStop, routeId, request.getStopOrder(), null);
         routeStop.setArrivalTime(request.getArrivalTime());
         routeStop.setDepartureTime(request.getDepartureTime());
         routeStop.setDistanceFromStartKm(request.getDistanceFromStartKm());
         routeStop.setTravelTimeFromPrevMin(request.getTravelTimeFromPrevMin());
         routeStop.setRemarks(request.getRemarks());
 
+        eventPublisher.publishEvent(new RouteStopsChangedEvent(routeId));
         return routeStopRepository.save(routeStop);
     }
 
@@ -75,11 +182,16 @@ public class RouteStopService {
 
         Stop stop = stopRepository.findById(request.getStopId())
                 .orElseThrow(() -> new ResourceNotFoundException("Stop not found with id: " + request.getStopId()));
+        Long routeId = routeStop.getRoute().getId();
+        lockRoute(routeId);
 
         routeStop.setStop(stop);
 
         if (request.getStopOrder() != null) {
-            routeStop.setStopOrder(request.getStopOrder());
+            // Moves the stop to that position among the others
+            place(routeStop, routeId, request.getStopOrder(), routeStopId);
+        } else {
+            routeStop.setStopOrder(position(routeId, routeStopId));
         }
         if (request.getArrivalTime() != null) {
             routeStop.setArrivalTime(request.getArrivalTime());
@@ -97,6 +209,7 @@ public class RouteStopService {
             routeStop.setRemarks(request.getRemarks());
         }
 
+        eventPublisher.publishEvent(new RouteStopsChangedEvent(routeId));
         return routeStopRepository.save(routeStop);
     }
 
@@ -105,8 +218,174 @@ public class RouteStopService {
         RouteStop routeStop = routeStopRepository.findById(routeStopId)
                 .orElseThrow(() -> new ResourceNotFoundException("RouteStop not found with id: " + routeStopId));
 
-        // Decrement the order of all subsequent stops on the same route
-        routeStopRepository.decrementStopOrders(routeStop.getRoute().getId(), routeStop.getStopOrder());
+        // Later stops keep their keys; their dense positions close up on read
         routeStopRepository.delete(routeStop);
+        eventPublisher.publishEvent(new RouteStopsChangedEvent(routeStop.getRoute().getId()));
+    }
+
+    /**
+     * Spreads the route's rank keys out to multiples of {@link #RANK_GAP} again. Two set-based
+     * batches: first to negative keys, so no intermediate state collides with an existing key.
+     */
+    @Transactional
+    public void renumber(Long routeId) {
+        lockRoute(routeId);
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS_BY_RANK, Long.class, routeId);
+        List<Object[]> parked = new ArrayList<>(ids.size());
+        List<Object[]> spread = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            parked.add(new Object[] { -(i + 1), ids.get(i) });
+            spread.add(new Object[] { (i + 1) * RANK_GAP, ids.get(i) });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_RANK, parked);
+        jdbcTemplate.batchUpdate(UPDATE_RANK, spread);
+    }
+
+    /**
+     * Gives the route stop a rank key that puts it at the 1-based position among the route's other
+     * stops (clamped to the ends), halfway between its neighbours' keys. Renumbers the route first
+     * if the neighbours are adjacent.
+     */
+    private void place(RouteStop routeStop, Long routeId, int position, Long selfId) {
+        List<Integer> others = jdbcTemplate.queryForList(SELECT_OTHER_RANKS, Integer.class, routeId, selfId != null ? selfId : -1L);
+        int index = Math.max(0, Math.min(position - 1, others.size()));
+        long previous = index > 0 ? others.get(index - 1) : 0;
+        long next = index < others.size() ? others.get(index) : previous + 2L * RANK_GAP;
+        if (next - previous < 2) {
+            renumber(routeId);
+            place(routeStop, routeId, position, selfId);
+            if (selfId != null) {
+                // The renumber moved this row's key behind Hibernate's back; if the new key equals the
+                // one it loaded, its dirty check would skip the write, so write it the same way
+                jdbcTemplate.update(UPDATE_RANK, routeStop.getRankKey(), selfId);
+            }
+            return;
+        }
+        routeStop.setRankKey((int) (previous + (next - previous) / 2));
+        routeStop.setStopOrder(index + 1);
+    }
+
+    private int position(Long routeId, Long routeStopId) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS_BY_RANK, Long.class, routeId);
+        return ids.indexOf(routeStopId) + 1;
+    }
+
+    private void lockRoute(Long routeId) {
+        // Concurrent edits of the same route would otherwise pick the same key
+        resourceLockService.lockForTransaction(lockKey(routeId));
+    }
+
+    /** Resource lock held while a route's stops are written. */
+    static String lockKey(Long routeId) {
+        return "route-stops:" + routeId;
+    }
+
+    private static List<RouteStop> numbered(List<RouteStop> routeStops) {
+        for (int i = 0; i < routeStops.size(); i++) {
+            routeStops.get(i).setStopOrder(i + 1);
+        }
+        return routeStops;
+    }
+
+    /**
+     * Replaces the route's stop sequence with the given list. Stops already on the route keep their
+     * row and are matched by stop id, and the route is renumbered to evenly spaced rank keys on the
+     * way; the difference is applied with one delete, one batch of
+     * updates and one batch of inserts, so the cost does not grow with the number of round trips.
+     */
+    @Transactional
+    public List<RouteStop> replaceStops(Long routeId, RouteStopSequenceRequest request) {
+        if (!routeRepository.existsById(routeId)) {
+            throw new ResourceNotFoundException("Route not found with id: " + routeId);
+        }
+        List<RouteStopSequenceRequest.Item> items = request.getStops();
+        Set<Long> requestedStopIds = new HashSet<>();
+        for (RouteStopSequenceRequest.Item item : items) {
+            if (!requestedStopIds.add(item.getStopId())) {
+                throw new IllegalArgumentException("Stop " + item.getStopId() + " appears more than once");
+            }
+        }
+        lockRoute(routeId);
+
+        // Read with JDBC so no stale RouteStop entities are left in the persistence context
+        Map<Long, RouteStop> current = new HashMap<>();
+        jdbcTemplate.query(SELECT_ROUTE_STOPS, rs -> {
+            RouteStop routeStop = new RouteStop();
+            routeStop.setId(rs.getLong("id"));
+            routeStop.setRankKey(rs.getInt("stop_order"));
+            routeStop.setArrivalTime(rs.getObject("arrival_time", LocalTime.class));
+            routeStop.setDepartureTime(rs.getObject("departure_time", LocalTime.class));
+            routeStop.setDistanceFromStartKm(rs.getBigDecimal("distance_from_start_km"));
+            routeStop.setTravelTimeFromPrevMin(rs.getObject("travel_time_from_prev_min", Integer.class));
+            routeStop.setRemarks(rs.getString("remarks"));
+            current.put(rs.getLong("stop_id"), routeStop);
+        }, routeId);
+
+        List<Long> newStopIds = requestedStopIds.stream().filter(id -> !current.containsKey(id)).collect(Collectors.toList());
+        if (!newStopIds.isEmpty()) {
+            Set<Long> found = stopRepository.findAllById(newStopIds).stream().map(Stop::getId).collect(Collectors.toSet());
+            for (Long stopId : newStopIds) {
+                if (!found.contains(stopId)) {
+                    throw new ResourceNotFoundException("Stop not found with id: " + stopId);
+                }
+            }
+        }
+
+        List<Long> deleted = current.entrySet().stream()
+                .filter(entry -> !requestedStopIds.contains(entry.getKey()))
+                .map(entry -> entry.getValue().getId())
+                .collect(Collectors.toList());
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> moved = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            RouteStopSequenceRequest.Item item = items.get(i);
+            int rankKey = (i + 1) * RANK_GAP;
+            RouteStop existing = current.get(item.getStopId());
+            if (existing == null) {
+                inserts.add(new Object[] { routeId, item.getStopId(), rankKey, item.getArrivalTime(), item.getDepartureTime(),
+                        item.getDistanceFromStartKm(), item.getTravelTimeFromPrevMin(), item.getRemarks() });
+            } else if (existing.getRankKey() != rankKey || !sameDetails(existing, item)) {
+                if (existing.getRankKey() != rankKey) {
+                    moved.add(existing.getId());
+                }
+                updates.add(new Object[] { rankKey, item.getArrivalTime(), item.getDepartureTime(), item.getDistanceFromStartKm(),
+                        item.getTravelTimeFromPrevMin(), item.getRemarks(), existing.getId() });
+            }
+        }
+
+        if (!deleted.isEmpty()) {
+            namedParameterJdbcTemplate.update("DELETE FROM route_stops WHERE id IN (:ids)", new MapSqlParameterSource("ids", deleted));
+        }
+        if (!moved.isEmpty()) {
+            // Park moved rows on negative keys first so no intermediate state breaks UNIQUE (route_id, stop_order)
+            namedParameterJdbcTemplate.update("UPDATE route_stops SET stop_order = -stop_order WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", moved));
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_ROUTE_STOP, updates, new int[] { Types.INTEGER, Types.TIME, Types.TIME,
+                    Types.DECIMAL, Types.INTEGER, Types.VARCHAR, Types.BIGINT });
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROUTE_STOP, inserts, new int[] { Types.BIGINT, Types.BIGINT, Types.INTEGER,
+                    Types.TIME, Types.TIME, Types.DECIMAL, Types.INTEGER, Types.VARCHAR });
+        }
+
+        if (!deleted.isEmpty() || !updates.isEmpty() || !inserts.isEmpty()) {
+            eventPublisher.publishEvent(new RouteStopsChangedEvent(routeId));
+        }
+        return numbered(routeStopRepository.findByRouteIdOrderByRankKeyAsc(routeId));
+    }
+
+    private static boolean sameDetails(RouteStop existing, RouteStopSequenceRequest.Item item) {
+        return Objects.equals(existing.getArrivalTime(), item.getArrivalTime())
+                && Objects.equals(existing.getDepartureTime(), item.getDepartureTime())
+                && sameAmount(existing.getDistanceFromStartKm(), item.getDistanceFromStartKm())
+                && Objects.equals(existing.getTravelTimeFromPrevMin(), item.getTravelTimeFromPrevMin())
+                && Objects.equals(existing.getRemarks(), item.getRemarks());
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
     }
-}
\ No newline at end of file
+}
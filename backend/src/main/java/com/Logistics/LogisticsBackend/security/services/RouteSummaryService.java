@@ -0,0 +1,98 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
+import com.Logistics.LogisticsBackend.model.RouteStop;
+import com.Logistics.LogisticsBackend.payload.response.RouteSummary;
+import com.Logistics.LogisticsBackend.repository.RouteStopRepository;
+
+/**
+ * Caches one {@link RouteSummary} per route so schedule writes don't reload every stop to work
+ * out the trip duration. Entries are evicted when a {@link RouteStopsChangedEvent} commits and
+ * rebuilt on the next read.
+ */
+@Service
+public class RouteSummaryService {
+
+    static final int DEFAULT_TRAVEL_TIME_MIN = 30; // When a stop has no travel time
+    static final int BOARDING_TIME_MIN = 5; // Per stop, for boarding/alighting
+    static final int NO_STOPS_DURATION_MIN = 60;
+
+    @Autowired
+    private RouteStopRepository routeStopRepository;
+
+    private final Map<Long, RouteSummary> summaries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private long evictions;
+
+    public RouteSummary getSummary(Long routeId) {
+        RouteSummary summary = summaries.get(routeId);
+        if (summary != null) {
+            return summary;
+        }
+        long evictionsBefore;
+        synchronized (evictionLock) {
+            evictionsBefore = evictions;
+        }
+        summary = summarize(routeId, routeStopRepository.findByRouteIdOrderByRankKeyAsc(routeId));
+        synchronized (evictionLock) {
+            // Don't cache a summary built from stops that changed while we were reading them
+            if (evictions == evictionsBefore) {
+                summaries.put(routeId, summary);
+            }
+        }
+        return summary;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRouteStopsChanged(RouteStopsChangedEvent event) {
+        synchronized (evictionLock) {
+            evictions++;
+            summaries.remove(event.getRouteId());
+        }
+    }
+
+    static RouteSummary summarize(Long routeId, List<RouteStop> stops) {
+        if (stops.isEmpty()) {
+            return new RouteSummary(routeId, 0, null, 0, NO_STOPS_DURATION_MIN, null, null, new int[0]);
+        }
+        int[] offsets = arrivalOffsetsMin(stops);
+        int travel = offsets[offsets.length - 1] - (offsets.length - 1) * BOARDING_TIME_MIN;
+        BigDecimal distance = null;
+        for (RouteStop routeStop : stops) {
+            if (routeStop.getDistanceFromStartKm() != null) {
+                distance = routeStop.getDistanceFromStartKm();
+            }
+        }
+        RouteStop first = stops.get(0);
+        RouteStop last = stops.get(stops.size() - 1);
+        return new RouteSummary(routeId, stops.size(), distance, travel, travel + stops.size() * BOARDING_TIME_MIN,
+                new RouteSummary.StopRef(first.getStop().getId(), first.getStop().getName()),
+                new RouteSummary.StopRef(last.getStop().getId(), last.getStop().getName()),
+                offsets);
+    }
+
+    /** Minutes from the trip's departure to its arrival at each stop, boarding time included. */
+    static int[] arrivalOffsetsMin(List<RouteStop> stops) {
+        int[] offsets = new int[stops.size()];
+        int travel = 0;
+        for (int i = 0; i < stops.size(); i++) {
+            // The first stop's travelTimeFromPrevMin is meaningless (it's the starting point)
+            if (i > 0) {
+                Integer travelTime = stops.get(i).getTravelTimeFromPrevMin();
+                travel += travelTime != null ? travelTime : DEFAULT_TRAVEL_TIME_MIN;
+            }
+            offsets[i] = travel + i * BOARDING_TIME_MIN;
+        }
+        return offsets;
+    }
+}
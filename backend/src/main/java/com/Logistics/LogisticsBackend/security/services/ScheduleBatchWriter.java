@@ -0,0 +1,86 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.Logistics.LogisticsBackend.event.SchedulesChangedEvent;
+import com.Logistics.LogisticsBackend.model.Schedule;
+
+/**
+ * Inserts many schedules with JDBC batching instead of one Hibernate insert (and identity
+ * round trip) per row. Must run inside the caller's transaction.
+ */
+@Component
+public class ScheduleBatchWriter {
+
+    private static final String INSERT_SCHEDULE = "INSERT INTO schedules (driver_id, bus_id, route_id, departure_date_time, "
+            + "estimated_arrival_date_time, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${urbansync.app.scheduleBatchSize:500}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Inserts the schedules and sets their generated ids. A route never has two schedules
+     * departing at the same minute, so ids are read back by route and departure.
+     */
+    public void insertAll(List<Schedule> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SCHEDULE, schedules, batchSize, (ps, schedule) -> {
+            ps.setLong(1, schedule.getDriver().getId());
+            ps.setLong(2, schedule.getBus().getId());
+            ps.setLong(3, schedule.getRoute().getId());
+            ps.setTimestamp(4, Timestamp.valueOf(schedule.getDepartureDateTime()));
+            ps.setTimestamp(5, Timestamp.valueOf(schedule.getEstimatedArrivalDateTime()));
+            ps.setString(6, schedule.getStatus());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+
+        LocalDateTime from = schedules.stream().map(Schedule::getDepartureDateTime).min(LocalDateTime::compareTo).get();
+        LocalDateTime to = schedules.stream().map(Schedule::getDepartureDateTime).max(LocalDateTime::compareTo).get();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("routeIds", schedules.stream().map(s -> s.getRoute().getId()).distinct().collect(Collectors.toList()))
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        Map<String, Long> ids = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, route_id, departure_date_time FROM schedules "
+                + "WHERE route_id IN (:routeIds) AND departure_date_time BETWEEN :from AND :to", params, rs -> {
+                    ids.put(key(rs.getLong("route_id"), rs.getTimestamp("departure_date_time").toLocalDateTime()), rs.getLong("id"));
+                });
+        for (Schedule schedule : schedules) {
+            schedule.setId(ids.get(key(schedule.getRoute().getId(), schedule.getDepartureDateTime())));
+            schedule.setCreatedAt(now.toLocalDateTime());
+            schedule.setUpdatedAt(now.toLocalDateTime());
+        }
+        eventPublisher.publishEvent(new SchedulesChangedEvent(
+                schedules.stream().map(Schedule::getId).collect(Collectors.toList())));
+    }
+
+    private static String key(Long routeId, LocalDateTime departure) {
+        return routeId + "@" + departure;
+    }
+}
@@ -0,0 +1,310 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.Logistics.LogisticsBackend.exception.DuplicateResourceException;
+import com.Logistics.LogisticsBackend.model.Schedule;
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+
+/**
+ * In-memory index of schedules per driver, per bus and per route, sorted by departure, covering a
+ * rolling window of upcoming days. Conflict checks for schedules inside the window are answered
+ * from memory instead of three queries per write.
+ *
+ * A successful check immediately places a pending hold for the new interval, so two writers racing
+ * for the same driver or bus cannot both pass; the hold becomes a regular entry when the surrounding
+ * transaction commits and is dropped on rollback. All state is guarded by one lock whose critical
+ * sections are pure in-memory work. A background job reloads the window from the database and
+ * replays writes that committed while the reload was running.
+ */
+@Component
+public class ScheduleConflictIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleConflictIndex.class);
+
+    @Value("${urbansync.app.scheduleIndexDays:14}")
+    private int windowDays;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong holdIds = new AtomicLong();
+
+    // Everything below is guarded by lock
+    private State state;
+    private final Set<ScheduleSlot> pendingHolds = new LinkedHashSet<>();
+    private List<Runnable> journal; // Non-null while a reload is reading from the database
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${urbansync.app.scheduleIndexReconcileMs:300000}",
+            initialDelayString = "${urbansync.app.scheduleIndexReconcileMs:300000}")
+    public void reconcile() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the window from the database. Writes that commit while the query runs are
+     * journaled and replayed on top of the fresh snapshot before it is swapped in.
+     */
+    public void reload() {
+        long windowStart = ScheduleSlot.toSeconds(LocalDate.now().minusDays(1).atStartOfDay());
+        long windowEnd = ScheduleSlot.toSeconds(LocalDate.now().plusDays(windowDays + 1L).atStartOfDay());
+
+        lock.lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        List<Object[]> rows;
+        try {
+            rows = scheduleRepository.findScheduleSlotsBetween(ScheduleSlot.fromSeconds(windowStart), ScheduleSlot.fromSeconds(windowEnd));
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                journal = null;
+            } finally {
+                lock.unlock();
+            }
+            logger.warn("Could not load schedule conflict index, falling back to database checks: {}", e.getMessage());
+            return;
+        }
+
+        State fresh = new State(windowStart, windowEnd);
+        for (Object[] row : rows) {
+            fresh.add(ScheduleSlot.fromRow(row));
+        }
+
+        lock.lock();
+        try {
+            State previous = state;
+            state = fresh;
+            journal.forEach(Runnable::run);
+            journal = null;
+            for (ScheduleSlot hold : pendingHolds) {
+                state.add(hold);
+            }
+            if (previous != null && previous.slotsById.size() != fresh.slotsById.size()) {
+                logger.debug("Schedule conflict index reconciled: {} -> {} entries", previous.slotsById.size(), fresh.slotsById.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Schedule conflict index loaded {} schedules for the next {} days", rows.size(), windowDays);
+    }
+
+    /**
+     * Checks the schedule against everything the index knows about and, if it is free, holds its
+     * interval until the current transaction completes. Throws {@link DuplicateResourceException}
+     * with the same messages as the database checks.
+     *
+     * @return false if the schedule falls outside the indexed window and must be checked against
+     *         the database instead
+     */
+    public boolean checkAndHold(Schedule schedule) {
+        long start = ScheduleSlot.toSeconds(schedule.getDepartureDateTime());
+        long end = ScheduleSlot.toSeconds(schedule.getEstimatedArrivalDateTime());
+        long selfId = schedule.getId() != null ? schedule.getId() : Long.MIN_VALUE;
+
+        ScheduleSlot hold;
+        lock.lock();
+        try {
+            if (!covers(start, end)) {
+                return false;
+            }
+            if (ScheduleConstraints.routeDepartsAt(state.routes, schedule.getRoute().getId(), start, selfId)) {
+                throw new DuplicateResourceException("Route is already scheduled for this time period.");
+            }
+            if (state.drivers.overlaps(schedule.getDriver().getId(), start, end, selfId)) {
+                throw new DuplicateResourceException("Driver is already scheduled for an overlapping time period.");
+            }
+            if (state.buses.overlaps(schedule.getBus().getId(), start, end, selfId)) {
+                throw new DuplicateResourceException("Bus is already scheduled for an overlapping time period.");
+            }
+            hold = ScheduleSlot.of(-holdIds.incrementAndGet(), schedule);
+            pendingHolds.add(hold);
+            state.add(hold);
+        } finally {
+            lock.unlock();
+        }
+
+        confirmOnCommit(List.of(hold), List.of(schedule));
+        return true;
+    }
+
+    /**
+     * Holds a batch of new schedules that were already checked against a database snapshot, so
+     * that writes committed since the snapshot are caught. A driver or bus overlap, or another
+     * departure of the same route at the same time, counts as a conflict. Schedules
+     * outside the window are not held.
+     *
+     * @return the schedules that conflict; none of them is held
+     */
+    public List<Schedule> holdAll(List<Schedule> schedules) {
+        List<Schedule> rejected = new ArrayList<>();
+        List<ScheduleSlot> holds = new ArrayList<>();
+        List<Schedule> held = new ArrayList<>();
+        lock.lock();
+        try {
+            if (state == null) {
+                return rejected;
+            }
+            for (Schedule schedule : schedules) {
+                ScheduleSlot slot = ScheduleSlot.of(-holdIds.incrementAndGet(), schedule);
+                if (!covers(slot.start, slot.end)) {
+                    continue;
+                }
+                if (ScheduleConstraints.routeDepartsAt(state.routes, slot.routeId, slot.start, Long.MIN_VALUE)
+                        || state.drivers.overlaps(slot.driverId, slot.start, slot.end, Long.MIN_VALUE)
+                        || state.buses.overlaps(slot.busId, slot.start, slot.end, Long.MIN_VALUE)) {
+                    rejected.add(schedule);
+                    continue;
+                }
+                holds.add(slot);
+                held.add(schedule);
+                pendingHolds.add(slot);
+                state.add(slot);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        confirmOnCommit(holds, held);
+        return rejected;
+    }
+
+    /** Replaces the holds with the saved schedules on commit, drops them on rollback. */
+    private void confirmOnCommit(List<ScheduleSlot> holds, List<Schedule> schedules) {
+        afterCompletion(committed -> {
+            lock.lock();
+            try {
+                for (ScheduleSlot hold : holds) {
+                    pendingHolds.remove(hold);
+                    state.remove(hold.scheduleId);
+                }
+                if (committed) {
+                    for (Schedule schedule : schedules) {
+                        ScheduleSlot slot = ScheduleSlot.of(schedule);
+                        apply(() -> state.add(slot));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /** Caller holds the lock. */
+    private boolean covers(long start, long end) {
+        return state != null && start >= state.windowStart && end <= state.windowEnd;
+    }
+
+    /**
+     * Keeps the index in step with a schedule saved without a hold (e.g. outside the window).
+     */
+    public void scheduleSaved(Schedule schedule) {
+        afterCompletion(committed -> {
+            if (committed) {
+                ScheduleSlot slot = ScheduleSlot.of(schedule);
+                lock.lock();
+                try {
+                    apply(() -> state.add(slot));
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    public void scheduleDeleted(Long scheduleId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                lock.lock();
+                try {
+                    apply(() -> state.remove(scheduleId));
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    /** Applies a committed change to the live state and, during a reload, to the journal. Caller holds the lock. */
+    private void apply(Runnable change) {
+        if (state != null) {
+            change.run();
+        }
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    callback.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            callback.accept(true);
+        }
+    }
+
+    private static final class State {
+        final long windowStart;
+        final long windowEnd;
+        final Map<Long, ScheduleSlot> slotsById = new HashMap<>();
+        final ScheduleTimelines drivers = new ScheduleTimelines(slot -> slot.driverId);
+        final ScheduleTimelines buses = new ScheduleTimelines(slot -> slot.busId);
+        final ScheduleTimelines routes = new ScheduleTimelines(slot -> slot.routeId);
+
+        State(long windowStart, long windowEnd) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+        }
+
+        void add(ScheduleSlot slot) {
+            remove(slot.scheduleId);
+            slotsById.put(slot.scheduleId, slot);
+            drivers.add(slot);
+            buses.add(slot);
+            routes.add(slot);
+        }
+
+        void remove(long scheduleId) {
+            ScheduleSlot slot = slotsById.remove(scheduleId);
+            if (slot != null) {
+                drivers.remove(slot);
+                buses.remove(slot);
+                routes.remove(slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.Logistics.LogisticsBackend.exception.DuplicateResourceException;
+
+/**
+ * Lock keys for schedule resources, the route departure rule, and translation of the optional database overlap constraints
+ * (db/schedule_overlap_constraints.sql) into the messages the conflict checks use.
+ */
+final class ScheduleConstraints {
+
+    static final String DRIVER_OVERLAP = "schedules_driver_no_overlap";
+    static final String BUS_OVERLAP = "schedules_bus_no_overlap";
+
+    private ScheduleConstraints() {
+    }
+
+    static String driverKey(Long driverId) {
+        return "driver:" + driverId;
+    }
+
+    static String busKey(Long busId) {
+        return "bus:" + busId;
+    }
+
+    static String routeKey(Long routeId) {
+        return "route:" + routeId;
+    }
+
+    /**
+     * Whether the route already departs at {@code start}. A route may run at any headway, so
+     * another departure at the same time is its only conflict; single schedules, generated
+     * timetables and batch holds all check it this way.
+     */
+    static boolean routeDepartsAt(ScheduleTimelines routes, Long routeId, long start, long excludeId) {
+        return routes.hasStartBetween(routeId, start, start, excludeId);
+    }
+
+    static List<String> keys(Long routeId, Collection<Long> driverIds, Collection<Long> busIds) {
+        List<String> keys = new ArrayList<>(driverIds.size() + busIds.size() + 1);
+        if (routeId != null) {
+            keys.add(routeKey(routeId));
+        }
+        driverIds.forEach(id -> keys.add(driverKey(id)));
+        busIds.forEach(id -> keys.add(busKey(id)));
+        return keys;
+    }
+
+    /** Maps an overlap constraint violation to {@link DuplicateResourceException}; anything else is returned unchanged. */
+    static RuntimeException translate(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (message.contains(DRIVER_OVERLAP)) {
+            return new DuplicateResourceException("Driver is already scheduled for an overlapping time period.");
+        }
+        if (message.contains(BUS_OVERLAP)) {
+            return new DuplicateResourceException("Bus is already scheduled for an overlapping time period.");
+        }
+        return e;
+    }
+}
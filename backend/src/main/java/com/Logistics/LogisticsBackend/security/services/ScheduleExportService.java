@@ -0,0 +1,198 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.payload.request.ScheduleFilter;
+import com.Logistics.LogisticsBackend.payload.response.ScheduleView;
+import com.Logistics.LogisticsBackend.util.CsvWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Streams schedules as NDJSON or CSV straight from a forward-only JDBC cursor. The driver fetches
+ * {@code exportFetchSize} rows per round trip (PostgreSQL only does this inside a transaction, so
+ * the export runs in a read-only one; MySQL needs {@code useCursorFetch=true} on the URL) and output
+ * is flushed every {@code exportFlushRows} rows, so memory stays flat regardless of how many rows match.
+ */
+@Service
+public class ScheduleExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final String[] CSV_HEADER = { "id", "departureDateTime", "estimatedArrivalDateTime", "status",
+            "driverId", "driverFirstName", "driverLastName", "busId", "busNumber", "plateNumber",
+            "routeId", "routeCode", "routeName", "routeDirection" };
+
+    @Value("${urbansync.app.exportFetchSize:1000}")
+    private int fetchSize;
+
+    @Value("${urbansync.app.exportFlushRows:1000}")
+    private int flushRows;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private NamedParameterJdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        cursorTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(ScheduleFilter filter, String format, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowSink sink = FORMAT_CSV.equals(format) ? csvSink(writer) : ndjsonSink(writer);
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder("SELECT s.id, s.departure_date_time, s.estimated_arrival_date_time, s.status, "
+                + "u.id AS driver_id, u.first_name, u.last_name, b.id AS bus_id, b.bus_number, b.plate_number, "
+                + "r.id AS route_id, r.route_code, r.name, r.direction "
+                + "FROM schedules s JOIN users u ON u.id = s.driver_id JOIN buses b ON b.id = s.bus_id "
+                + "JOIN routes r ON r.id = s.route_id WHERE 1 = 1");
+        if (filter.getFrom() != null) {
+            sql.append(" AND s.departure_date_time >= :from");
+            params.addValue("from", Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND s.departure_date_time < :to");
+            params.addValue("to", Timestamp.valueOf(filter.getTo()));
+        }
+        if (filter.getRouteId() != null) {
+            sql.append(" AND s.route_id = :routeId");
+            params.addValue("routeId", filter.getRouteId());
+        }
+        if (filter.getDriverId() != null) {
+            sql.append(" AND s.driver_id = :driverId");
+            params.addValue("driverId", filter.getDriverId());
+        }
+        if (filter.getBusId() != null) {
+            sql.append(" AND s.bus_id = :busId");
+            params.addValue("busId", filter.getBusId());
+        }
+        if (filter.getStatus() != null && !filter.getStatus().isBlank()) {
+            sql.append(" AND s.status = :status");
+            params.addValue("status", filter.getStatus().trim().toUpperCase());
+        }
+        sql.append(" ORDER BY s.departure_date_time, s.id");
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> cursorTemplate.query(sql.toString(), params, new RowCallbackHandler() {
+                private int rows;
+
+                @Override
+                public void processRow(ResultSet rs) throws SQLException {
+                    try {
+                        sink.write(rs);
+                        if (++rows % flushRows == 0) {
+                            sink.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // Client went away; abort the query
+                    }
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        sink.finish();
+        sink.flush();
+    }
+
+    private RowSink csvSink(BufferedWriter writer) throws IOException {
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRecord((Object[]) CSV_HEADER);
+        return new RowSink() {
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+
+            @Override
+            public void write(ResultSet rs) throws SQLException, IOException {
+                csv.writeRecord(rs.getLong("id"), rs.getTimestamp("departure_date_time").toLocalDateTime(),
+                        rs.getTimestamp("estimated_arrival_date_time").toLocalDateTime(), rs.getString("status"),
+                        rs.getLong("driver_id"), rs.getString("first_name"), rs.getString("last_name"),
+                        rs.getLong("bus_id"), rs.getString("bus_number"), rs.getString("plate_number"),
+                        rs.getLong("route_id"), rs.getString("route_code"), rs.getString("name"), rs.getString("direction"));
+            }
+        };
+    }
+
+    private RowSink ndjsonSink(BufferedWriter writer) throws IOException {
+        // Same shape as the paged listing; flushing is left to the export loop
+        SequenceWriter json = objectMapper.writerFor(ScheduleView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(writer);
+        return new RowSink() {
+            private boolean empty = true;
+
+            @Override
+            public void write(ResultSet rs) throws SQLException, IOException {
+                empty = false;
+                json.write(new ScheduleView(rs.getLong("id"), rs.getTimestamp("departure_date_time").toLocalDateTime(),
+                        rs.getTimestamp("estimated_arrival_date_time").toLocalDateTime(), rs.getString("status"),
+                        rs.getLong("driver_id"), rs.getString("first_name"), rs.getString("last_name"),
+                        rs.getLong("bus_id"), rs.getString("bus_number"), rs.getString("plate_number"),
+                        rs.getLong("route_id"), rs.getString("route_code"), rs.getString("name"), rs.getString("direction")));
+            }
+
+            @Override
+            public void flush() throws IOException {
+                json.flush(); // Also flushes the writer underneath
+            }
+
+            @Override
+            public void finish() throws IOException {
+                json.flush();
+                if (!empty) {
+                    writer.write('\n');
+                }
+            }
+        };
+    }
+
+    private interface RowSink {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+}
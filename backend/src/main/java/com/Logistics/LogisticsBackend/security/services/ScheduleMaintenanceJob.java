@@ -0,0 +1,175 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the live schedules table small. When the table is partitioned by month
+ * (db/schedule_partitioning.sql) it creates the partitions for the coming months ahead of time, so
+ * new rows never land in the default partition. Completed schedules that departed before the
+ * archive horizon move to schedules_archive in batches, each batch in its own transaction under
+ * a job lease so only one instance archives at a time.
+ */
+@Component
+public class ScheduleMaintenanceJob {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleMaintenanceJob.class);
+
+    private static final String JOB_NAME = "schedule-maintenance";
+
+    private static final String COLUMNS = "id, driver_id, bus_id, route_id, departure_date_time, estimated_arrival_date_time, status, created_at, updated_at";
+
+    @Value("${urbansync.app.schedulePartitionMonthsAhead:3}")
+    private int monthsAhead;
+
+    @Value("${urbansync.app.scheduleArchiveAfterDays:180}")
+    private int archiveAfterDays;
+
+    @Value("${urbansync.app.scheduleArchiveBatchSize:1000}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createPartitions();
+    }
+
+    @Scheduled(cron = "${urbansync.app.scheduleMaintenanceCron:0 30 3 * * *}")
+    public void run() {
+        createPartitions();
+        archiveCompleted();
+    }
+
+    /**
+     * Creates the monthly partitions from this month up to the configured number of months ahead.
+     * Each month is created in its own transaction; one that fails is logged and retried on the
+     * next run, without stopping the others or startup.
+     */
+    public void createPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++, month = month.plusMonths(1)) {
+            try {
+                createPartition(month);
+            } catch (DataAccessException e) {
+                logger.warn("Could not create the schedules partition for {}: {}", month, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates the month's partition unless it exists. Schedules already booked that far ahead sit
+     * in the default partition, where they would block the new one; they are moved into it first,
+     * with writes to schedules held off until the partition is attached.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = String.format("schedules_%d_%02d", month.getYear(), month.getMonthValue());
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        String bounds = " FOR VALUES FROM ('" + from.toLocalDate() + "') TO ('" + to.toLocalDate() + "')";
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!jobLockService.tryLockForTransaction(JOB_NAME)) {
+                return;
+            }
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+                return;
+            }
+            jdbcTemplate.execute("LOCK TABLE schedules IN SHARE ROW EXCLUSIVE MODE");
+            // With no partition for the month yet, all of its rows are in the default partition
+            boolean booked = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM schedules WHERE departure_date_time >= ? AND departure_date_time < ?)",
+                    Boolean.class, from, to));
+            if (!booked) {
+                jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF schedules" + bounds);
+                return;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE schedules INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("INSERT INTO " + partition + " SELECT * FROM schedules"
+                    + " WHERE departure_date_time >= ? AND departure_date_time < ?", from, to);
+            jdbcTemplate.update("DELETE FROM schedules WHERE departure_date_time >= ? AND departure_date_time < ?", from, to);
+            jdbcTemplate.execute("ALTER TABLE schedules ATTACH PARTITION " + partition + bounds);
+            logger.info("Created schedules partition {} and moved {} schedules into it from the default partition", partition, moved);
+        });
+    }
+
+    /**
+     * Moves completed schedules that departed before the horizon to the archive table.
+     *
+     * @return the number of schedules moved
+     */
+    public int archiveCompleted() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(archiveAfterDays).atStartOfDay();
+        int total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> {
+                if (!jobLockService.tryLockForTransaction(JOB_NAME)) {
+                    return 0;
+                }
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM schedules WHERE status = 'COMPLETED' AND departure_date_time < ? ORDER BY departure_date_time LIMIT ?",
+                        Long.class, cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                // The departure bound lets both statements skip partitions past the horizon
+                String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                List<Object> args = new ArrayList<>(ids.size() + 2);
+                args.add(LocalDateTime.now());
+                args.add(cutoff);
+                args.addAll(ids);
+                jdbcTemplate.update("INSERT INTO schedules_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS + ", ?"
+                        + " FROM schedules WHERE departure_date_time < ? AND id IN (" + in + ")", args.toArray());
+                jdbcTemplate.update("DELETE FROM schedules WHERE departure_date_time < ? AND id IN (" + in + ")",
+                        args.subList(1, args.size()).toArray());
+                return ids.size();
+            });
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Archived {} completed schedules that departed before {}", total, cutoff.toLocalDate());
+        }
+        return total;
+    }
+
+    private boolean isPartitioned() {
+        try {
+            return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid WHERE c.relname = 'schedules')",
+                    Boolean.class));
+        } catch (DataAccessException e) {
+            // Not PostgreSQL
+            return false;
+        }
+    }
+}
@@ -1,30 +1,44 @@
 package com.Logistics.LogisticsBackend.security.services;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.Logistics.LogisticsBackend.event.SchedulesChangedEvent;
 import com.Logistics.LogisticsBackend.exception.DuplicateResourceException;
 import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
 import com.Logistics.LogisticsBackend.model.Bus;
 import com.Logistics.LogisticsBackend.model.ERole;
 import com.Logistics.LogisticsBackend.model.Route;
-import com.Logistics.LogisticsBackend.model.RouteStop;
 import com.Logistics.LogisticsBackend.model.Schedule;
 import com.Logistics.LogisticsBackend.model.User;
+import com.Logistics.LogisticsBackend.payload.request.ScheduleFilter;
 import com.Logistics.LogisticsBackend.payload.request.ScheduleRequest;
+import com.Logistics.LogisticsBackend.payload.response.ScheduleDayCount;
+import com.Logistics.LogisticsBackend.payload.response.SchedulePage;
+import com.Logistics.LogisticsBackend.payload.response.ScheduleView;
 import com.Logistics.LogisticsBackend.repository.BusRepository;
 import com.Logistics.LogisticsBackend.repository.RouteRepository;
-import com.Logistics.LogisticsBackend.repository.RouteStopRepository;
 import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
 import com.Logistics.LogisticsBackend.repository.UserRepository;
 
 @Service
 public class ScheduleService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_COUNT_DAYS = 366;
+
     @Autowired
     private ScheduleRepository scheduleRepository;
 
@@ -38,12 +52,76 @@ public class ScheduleService {
     private RouteRepository routeRepository;
 
     @Autowired
-    private RouteStopRepository routeStopRepository;
+    private RouteSummaryService routeSummaryService;
+
+    @Autowired
+    private ScheduleConflictIndex scheduleConflictIndex;
+
+    @Autowired
+    private ResourceLockService resourceLockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public List<Schedule> getAllSchedules() {
         return scheduleRepository.findAll();
     }
 
+    /** Number of schedules departing on each day from {@code from} to {@code to}, both included; days without any are left out. */
+    @Transactional(readOnly = true)
+    public List<ScheduleDayCount> countByDay(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("from and to are required, and to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_COUNT_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_COUNT_DAYS + " days can be counted at once");
+        }
+        List<ScheduleDayCount> counts = new ArrayList<>();
+        for (Object[] row : scheduleRepository.countByDay(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            counts.add(new ScheduleDayCount((LocalDate) row[0], ((Number) row[1]).longValue()));
+        }
+        return counts;
+    }
+
+    @Transactional(readOnly = true)
+    public SchedulePage findSchedules(ScheduleFilter filter) {
+        return page(filter, false);
+    }
+
+    /** Pages through schedules the archiver has moved out of the live table; same filters and cursor. */
+    @Transactional(readOnly = true)
+    public SchedulePage findArchivedSchedules(ScheduleFilter filter) {
+        return page(filter, true);
+    }
+
+    private SchedulePage page(ScheduleFilter filter, boolean archive) {
+        int limit = filter.getLimit() == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(filter.getLimit(), 1), MAX_PAGE_SIZE);
+        LocalDateTime afterDeparture = null;
+        Long afterId = null;
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(filter.getCursor()), StandardCharsets.UTF_8).split("\\|");
+                afterDeparture = LocalDateTime.parse(position[0]);
+                afterId = Long.parseLong(position[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Fetch one extra row to learn whether there is a next page
+        List<ScheduleView> items = archive
+                ? scheduleRepository.findArchivePage(filter, afterDeparture, afterId, limit + 1)
+                : scheduleRepository.findPage(filter, afterDeparture, afterId, limit + 1);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            ScheduleView last = items.get(limit - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getDepartureDateTime() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new SchedulePage(items, nextCursor);
+    }
+
     @Transactional
     public Schedule createSchedule(ScheduleRequest request) {
         // Validate request
@@ -62,7 +140,9 @@ public class ScheduleService {
         
         Schedule schedule = new Schedule();
         updateScheduleFromRequest(schedule, request);
-        return scheduleRepository.save(schedule);
+        Schedule saved = saveChecked(schedule);
+        eventPublisher.publishEvent(new SchedulesChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -70,7 +150,18 @@ public class ScheduleService {
         Schedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Schedule not found with id: " + id));
         updateScheduleFromRequest(schedule, request);
-        return scheduleRepository.save(schedule);
+        Schedule saved = saveChecked(schedule);
+        eventPublisher.publishEvent(new SchedulesChangedEvent(id));
+        return saved;
+    }
+
+    // Flushes right away so a database overlap constraint, if installed, fails here with the usual message
+    private Schedule saveChecked(Schedule schedule) {
+        try {
+            return scheduleRepository.saveAndFlush(schedule);
+        } catch (DataIntegrityViolationException e) {
+            throw ScheduleConstraints.translate(e);
+        }
     }
 
     private void updateScheduleFromRequest(Schedule schedule, ScheduleRequest request) {
@@ -103,60 +194,61 @@ public class ScheduleService {
         Route route = routeRepository.findById(request.getRouteId())
                 .orElseThrow(() -> new RuntimeException("Error: Route not found with ID: " + request.getRouteId()));
                 
-        // Check if route is already scheduled for the requested time
-        if (!scheduleRepository.findByRouteIdAndDepartureDateTimeBetween(
-                route.getId(), 
-                request.getDepartureDateTime(), 
-                request.getDepartureDateTime().plusHours(1))
-            .isEmpty()) {
-            throw new DuplicateResourceException("Route is already scheduled for this time period.");
-        }
-
         schedule.setDriver(driver);
         schedule.setBus(bus);
         schedule.setRoute(route);
         schedule.setDepartureDateTime(request.getDepartureDateTime());
-
-        LocalDateTime estimatedArrivalDateTime;
-
-        // Calculate estimated arrival time based on route stops
-        List<RouteStop> stops = routeStopRepository.findByRouteIdOrderByStopOrderAsc(route.getId());
-        if (!stops.isEmpty()) {
-            // Skip first stop since its travelTimeFromPrevMin is meaningless (it's the starting point)
-            int totalTravelTimeMinutes = stops.stream()
-                .skip(1) // Skip the first stop
-                .mapToInt(routeStop -> {
-                    Integer travelTime = routeStop.getTravelTimeFromPrevMin();
-                    return travelTime != null ? travelTime : 30; // Default 30 mins if not specified
-                })
-                .sum();
-
-            // Add buffer time for each stop (5 minutes per stop for boarding/alighting)
-            int totalBufferTimeMinutes = stops.size() * 5;
-            
-            // Calculate estimated arrival time
-            estimatedArrivalDateTime = request.getDepartureDateTime()
-                .plusMinutes(totalTravelTimeMinutes + totalBufferTimeMinutes);
-        } else {
-            // Fallback if route has no stops
-            estimatedArrivalDateTime = request.getDepartureDateTime().plusHours(1); // Default duration
-        }
-        schedule.setEstimatedArrivalDateTime(estimatedArrivalDateTime);
-
-        // Check for overlapping schedules
-        Long scheduleId = (schedule.getId() != null) ? schedule.getId() : -1L; // Use -1 for new schedules
-        if (!scheduleRepository.findOverlappingSchedulesForDriver(driver.getId(), schedule.getDepartureDateTime(), schedule.getEstimatedArrivalDateTime(), scheduleId).isEmpty()) {
-            throw new DuplicateResourceException("Driver is already scheduled for an overlapping time period.");
-        }
-        if (!scheduleRepository.findOverlappingSchedulesForBus(bus.getId(), schedule.getDepartureDateTime(), schedule.getEstimatedArrivalDateTime(), scheduleId).isEmpty()) {
-            throw new DuplicateResourceException("Bus is already scheduled for an overlapping time period.");
-        }
+        schedule.setEstimatedArrivalDateTime(request.getDepartureDateTime().plusMinutes(estimateTripMinutes(route.getId())));
 
         if (request.getStatus() != null) {
             schedule.setStatus(request.getStatus());
         } else if (schedule.getStatus() == null) {
             schedule.setStatus("SCHEDULED");
         }
+
+        // Writers for the same driver, bus or route take turns until commit; unrelated writes run in parallel
+        resourceLockService.lockForTransaction(ScheduleConstraints.driverKey(driver.getId()),
+                ScheduleConstraints.busKey(bus.getId()), ScheduleConstraints.routeKey(route.getId()));
+
+        // Check route, driver and bus conflicts; answered from memory when inside the indexed window
+        if (!scheduleConflictIndex.checkAndHold(schedule)) {
+            checkConflictsInDatabase(schedule);
+            scheduleConflictIndex.scheduleSaved(schedule);
+        }
+    }
+
+    /**
+     * Estimated trip duration for a route: travel time between stops plus boarding time at each stop.
+     */
+    public int estimateTripMinutes(Long routeId) {
+        int minutes = routeSummaryService.getSummary(routeId).getEstimatedDurationMin();
+        // Overlap queries only look back this far, so longer trips could go unnoticed
+        if (minutes > Schedule.MAX_DURATION_HOURS * 60) {
+            throw new IllegalArgumentException("Estimated trip duration of route " + routeId + " exceeds "
+                    + Schedule.MAX_DURATION_HOURS + " hours");
+        }
+        return minutes;
+    }
+
+    private void checkConflictsInDatabase(Schedule schedule) {
+        Long scheduleId = (schedule.getId() != null) ? schedule.getId() : -1L; // Use -1 for new schedules
+
+        // Check if route already departs at the requested time (see ScheduleConstraints#routeDepartsAt)
+        boolean routeTaken = scheduleRepository.findByRouteIdAndDepartureDateTimeBetween(
+                schedule.getRoute().getId(),
+                schedule.getDepartureDateTime(),
+                schedule.getDepartureDateTime())
+            .stream()
+            .anyMatch(other -> !other.getId().equals(scheduleId));
+        if (routeTaken) {
+            throw new DuplicateResourceException("Route is already scheduled for this time period.");
+        }
+        if (!scheduleRepository.findOverlappingSchedulesForDriver(schedule.getDriver().getId(), schedule.getDepartureDateTime(), schedule.getEstimatedArrivalDateTime(), scheduleId).isEmpty()) {
+            throw new DuplicateResourceException("Driver is already scheduled for an overlapping time period.");
+        }
+        if (!scheduleRepository.findOverlappingSchedulesForBus(schedule.getBus().getId(), schedule.getDepartureDateTime(), schedule.getEstimatedArrivalDateTime(), scheduleId).isEmpty()) {
+            throw new DuplicateResourceException("Bus is already scheduled for an overlapping time period.");
+        }
     }
 
     @Transactional
@@ -165,5 +257,7 @@ public class ScheduleService {
             throw new ResourceNotFoundException("Schedule not found with id: " + id);
         }
         scheduleRepository.deleteById(id);
+        scheduleConflictIndex.scheduleDeleted(id);
+        eventPublisher.publishEvent(new SchedulesChangedEvent(id));
     }
 }
\ No newline at end of file
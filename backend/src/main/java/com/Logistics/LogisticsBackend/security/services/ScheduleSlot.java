@@ -0,0 +1,52 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.Logistics.LogisticsBackend.model.Schedule;
+
+/**
+ * Immutable view of a schedule's resources and interval, in epoch seconds, used by the
+ * in-memory conflict checks.
+ */
+final class ScheduleSlot {
+    final long scheduleId;
+    final Long driverId;
+    final Long busId;
+    final Long routeId;
+    final long start;
+    final long end;
+
+    ScheduleSlot(long scheduleId, Long driverId, Long busId, Long routeId, long start, long end) {
+        this.scheduleId = scheduleId;
+        this.driverId = driverId;
+        this.busId = busId;
+        this.routeId = routeId;
+        this.start = start;
+        this.end = end;
+    }
+
+    static ScheduleSlot of(Schedule schedule) {
+        return of(schedule.getId(), schedule);
+    }
+
+    static ScheduleSlot of(long scheduleId, Schedule schedule) {
+        return new ScheduleSlot(scheduleId, schedule.getDriver().getId(), schedule.getBus().getId(),
+                schedule.getRoute().getId(), toSeconds(schedule.getDepartureDateTime()),
+                toSeconds(schedule.getEstimatedArrivalDateTime()));
+    }
+
+    /** Row layout of {@code ScheduleRepository#findScheduleSlotsBetween}. */
+    static ScheduleSlot fromRow(Object[] row) {
+        return new ScheduleSlot((Long) row[0], (Long) row[1], (Long) row[2], (Long) row[3],
+                toSeconds((LocalDateTime) row[4]), toSeconds((LocalDateTime) row[5]));
+    }
+
+    static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime fromSeconds(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
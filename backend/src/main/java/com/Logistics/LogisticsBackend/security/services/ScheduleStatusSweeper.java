@@ -0,0 +1,111 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves schedules forward by the clock: SCHEDULED to IN_TRANSIT once departed, and SCHEDULED or
+ * IN_TRANSIT to COMPLETED once the estimated arrival has passed. Each sweep is two bulk updates
+ * under a job lease, so only one instance sweeps at a time. After its first full sweep an instance
+ * only looks at rows whose times fall after its previous sweep (minus a margin), which keeps the
+ * updates on the status/time indexes. Rows written since then are swept as well, whatever their
+ * times, so a schedule created in the past or moved back is not left behind.
+ */
+@Component
+public class ScheduleStatusSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleStatusSweeper.class);
+
+    private static final String JOB_NAME = "schedule-status-sweep";
+
+    @Value("${urbansync.app.statusSweepMarginMinutes:10}")
+    private int marginMinutes;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer sweepTimer;
+    private Counter inTransitRows;
+    private Counter completedRows;
+    private Counter skipped;
+    private final AtomicInteger lastInTransit = new AtomicInteger();
+    private final AtomicInteger lastCompleted = new AtomicInteger();
+
+    private LocalDateTime lastSweep; // Null until this instance has done a full sweep
+
+    @PostConstruct
+    void init() {
+        sweepTimer = Timer.builder("schedule.sweep")
+                .description("Duration of a schedule status sweep")
+                .register(meterRegistry);
+        inTransitRows = Counter.builder("schedule.sweep.rows").tag("status", "IN_TRANSIT")
+                .description("Schedules moved forward by the status sweeper")
+                .register(meterRegistry);
+        completedRows = Counter.builder("schedule.sweep.rows").tag("status", "COMPLETED")
+                .description("Schedules moved forward by the status sweeper")
+                .register(meterRegistry);
+        skipped = Counter.builder("schedule.sweep.skipped")
+                .description("Sweeps skipped because another instance held the lease")
+                .register(meterRegistry);
+        Gauge.builder("schedule.sweep.last.rows", lastInTransit, AtomicInteger::get).tag("status", "IN_TRANSIT")
+                .register(meterRegistry);
+        Gauge.builder("schedule.sweep.last.rows", lastCompleted, AtomicInteger::get).tag("status", "COMPLETED")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${urbansync.app.statusSweepMs:60000}", initialDelayString = "${urbansync.app.statusSweepMs:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSweep != null ? lastSweep.minusMinutes(marginMinutes) : LocalDateTime.of(1970, 1, 1, 0, 0);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Boolean swept = transactionTemplate.execute(status -> {
+            if (!jobLockService.tryLockForTransaction(JOB_NAME)) {
+                return false;
+            }
+            int completed = scheduleRepository.markCompleted(since, now);
+            int inTransit = scheduleRepository.markInTransit(since, now);
+            if (lastSweep != null) {
+                completed += scheduleRepository.markCompletedUpdatedSince(since, now);
+                inTransit += scheduleRepository.markInTransitUpdatedSince(since, now);
+            }
+            completedRows.increment(completed);
+            inTransitRows.increment(inTransit);
+            lastCompleted.set(completed);
+            lastInTransit.set(inTransit);
+            if (completed + inTransit > 0) {
+                logger.info("Status sweep: {} schedules in transit, {} completed", inTransit, completed);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(swept)) {
+            sample.stop(sweepTimer);
+            lastSweep = now;
+        } else {
+            skipped.increment();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Slots per resource (driver, bus or route) ordered by start. The longest slot seen for a
+ * resource bounds how far back an overlap search has to look, so a query only touches the
+ * slots that can actually overlap. Not thread-safe.
+ */
+final class ScheduleTimelines {
+    private static final Comparator<ScheduleSlot> BY_START = Comparator.<ScheduleSlot>comparingLong(s -> s.start)
+            .thenComparingLong(s -> s.scheduleId);
+
+    private final Function<ScheduleSlot, Long> resource;
+    private final Map<Long, Timeline> byResource = new HashMap<>();
+
+    ScheduleTimelines(Function<ScheduleSlot, Long> resource) {
+        this.resource = resource;
+    }
+
+    void add(ScheduleSlot slot) {
+        Timeline timeline = byResource.computeIfAbsent(resource.apply(slot), id -> new Timeline());
+        timeline.slots.add(slot);
+        timeline.maxLength = Math.max(timeline.maxLength, slot.end - slot.start);
+    }
+
+    void remove(ScheduleSlot slot) {
+        Long resourceId = resource.apply(slot);
+        Timeline timeline = byResource.get(resourceId);
+        if (timeline != null) {
+            timeline.slots.remove(slot);
+            if (timeline.slots.isEmpty()) {
+                byResource.remove(resourceId);
+            }
+        }
+    }
+
+    /** True if any slot of the resource other than {@code excludeId} overlaps [start, end). */
+    boolean overlaps(Long resourceId, long start, long end, long excludeId) {
+        Timeline timeline = byResource.get(resourceId);
+        if (timeline == null) {
+            return false;
+        }
+        for (ScheduleSlot slot : timeline.between(start - timeline.maxLength, end, false)) {
+            if (slot.end > start && slot.scheduleId != excludeId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True if any slot of the resource other than {@code excludeId} starts within [from, to]. */
+    boolean hasStartBetween(Long resourceId, long from, long to, long excludeId) {
+        Timeline timeline = byResource.get(resourceId);
+        if (timeline == null) {
+            return false;
+        }
+        for (ScheduleSlot slot : timeline.between(from, to, true)) {
+            if (slot.scheduleId != excludeId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Timeline {
+        final TreeSet<ScheduleSlot> slots = new TreeSet<>(BY_START);
+        long maxLength;
+
+        NavigableSet<ScheduleSlot> between(long fromStart, long toStart, boolean toInclusive) {
+            return slots.subSet(probe(fromStart, Long.MIN_VALUE), true,
+                    probe(toStart, toInclusive ? Long.MAX_VALUE : Long.MIN_VALUE), toInclusive);
+        }
+
+        private static ScheduleSlot probe(long start, long scheduleId) {
+            return new ScheduleSlot(scheduleId, null, null, null, start, start);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.Logistics.LogisticsBackend.payload.response.SearchSuggestion;
+
+@Service
+public class SearchService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    public List<SearchSuggestion> autocomplete(String query, String type, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        String normalizedType = null;
+        if (type != null && !type.isBlank()) {
+            normalizedType = type.trim().toUpperCase(Locale.ROOT);
+            if (!AutocompleteIndex.ROUTE.equals(normalizedType) && !AutocompleteIndex.STOP.equals(normalizedType)) {
+                throw new IllegalArgumentException("type must be ROUTE or STOP");
+            }
+        }
+        int max = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        return autocompleteIndex.search(query, normalizedType, max);
+    }
+}
@@ -3,30 +3,67 @@ package com.Logistics.LogisticsBackend.security.services;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
 import com.Logistics.LogisticsBackend.exception.DuplicateResourceException;
 import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
 import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.payload.response.NearbyStop;
+import com.Logistics.LogisticsBackend.repository.RouteStopRepository;
 import com.Logistics.LogisticsBackend.repository.StopRepository;
 
 @Service
 public class StopService {
 
+    private static final int DEFAULT_NEARBY_LIMIT = 20;
+    private static final int MAX_NEARBY_LIMIT = 200;
+
     @Autowired
     private StopRepository stopRepository;
 
+    @Autowired
+    private RouteStopRepository routeStopRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StopSpatialIndex stopSpatialIndex;
+
     public List<Stop> getAllStops() {
         return stopRepository.findAll();
     }
 
+    /**
+     * Stops within {@code radiusMeters} of the point, nearest first, or the nearest stops if no
+     * radius is given. Answered from {@link StopSpatialIndex}.
+     */
+    public List<NearbyStop> findNearbyStops(Double latitude, Double longitude, Double radiusMeters, Integer limit) {
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("lat and lon are required");
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("lat must be between -90 and 90 and lon between -180 and 180");
+        }
+        if (radiusMeters != null && (radiusMeters <= 0 || radiusMeters > stopSpatialIndex.getMaxRadiusMeters())) {
+            throw new IllegalArgumentException("radius must be greater than 0 and at most " + stopSpatialIndex.getMaxRadiusMeters() + " meters");
+        }
+        int max = limit == null ? DEFAULT_NEARBY_LIMIT : Math.min(Math.max(limit, 1), MAX_NEARBY_LIMIT);
+        return stopSpatialIndex.near(latitude, longitude, radiusMeters, max);
+    }
+
     @Transactional
     public Stop createStop(Stop stop) {
         if (stopRepository.existsByName(stop.getName())) {
             throw new DuplicateResourceException("Error: Stop name is already taken!");
         }
-        return stopRepository.save(stop);
+        Stop saved = stopRepository.save(stop);
+        eventPublisher.publishEvent(NetworkChangedEvent.stop(saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -35,6 +72,7 @@ public class StopService {
             throw new ResourceNotFoundException("Stop not found with id: " + id);
         }
         stopRepository.deleteById(id);
+        eventPublisher.publishEvent(NetworkChangedEvent.stop(id));
     }
 
     @Transactional
@@ -47,6 +85,13 @@ public class StopService {
             throw new DuplicateResourceException("Stop name is already in use!");
         }
 
+        if (!stop.getName().equals(stopDetails.getName())) {
+            // Route summaries show the first and last stop by name
+            for (Long routeId : routeStopRepository.findRouteIdsByStopId(id)) {
+                eventPublisher.publishEvent(new RouteStopsChangedEvent(routeId));
+            }
+        }
+
         stop.setName(stopDetails.getName());
         stop.setAddress(stopDetails.getAddress());
         stop.setDescription(stopDetails.getDescription());
@@ -55,6 +100,8 @@ public class StopService {
         stop.setStreet(stopDetails.getStreet());
         stop.setLatitude(stopDetails.getLatitude());
         stop.setLongitude(stopDetails.getLongitude());
-        return stopRepository.save(stop);
+        Stop saved = stopRepository.save(stop);
+        eventPublisher.publishEvent(NetworkChangedEvent.stop(saved.getId()));
+        return saved;
     }
 }
\ No newline at end of file
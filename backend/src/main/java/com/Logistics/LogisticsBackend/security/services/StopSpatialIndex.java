@@ -0,0 +1,295 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.payload.response.NearbyStop;
+import com.Logistics.LogisticsBackend.repository.StopRepository;
+import com.Logistics.LogisticsBackend.util.GeoDistance;
+
+/**
+ * In-memory grid of stop positions for nearby-stop queries. Stops are bucketed into cells of
+ * {@code stopGridCellDegrees} latitude by longitude; a query visits only the cells overlapping the
+ * bounding box of its circle and measures the stops in them exactly with the haversine formula.
+ *
+ * Each cell is an array replaced as a whole on change, so queries read without locking; writers
+ * serialize on one lock. Saves and deletes are applied when their {@link NetworkChangedEvent}
+ * commits. A background job reloads every stop and replays changes that committed while it was
+ * reading.
+ */
+@Component
+public class StopSpatialIndex {
+    private static final Logger logger = LoggerFactory.getLogger(StopSpatialIndex.class);
+
+    // First radius tried by a nearest-stops query; grows fourfold until enough stops are found
+    private static final double NEAREST_START_RADIUS_METERS = 500;
+
+    @Value("${urbansync.app.stopGridCellDegrees:0.01}")
+    private double cellDegrees;
+
+    @Value("${urbansync.app.stopSearchMaxRadiusMeters:20000}")
+    private double maxRadiusMeters;
+
+    @Autowired
+    private StopRepository stopRepository;
+
+    private volatile Grid grid;
+
+    // Guards changes to grid and the journal
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Consumer<Grid>> journal; // Non-null while a reload is reading from the database
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${urbansync.app.stopIndexReconcileMs:600000}",
+            initialDelayString = "${urbansync.app.stopIndexReconcileMs:600000}")
+    public void reconcile() {
+        reload();
+    }
+
+    public void reload() {
+        lock.lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        List<Object[]> rows;
+        try {
+            rows = stopRepository.findLocatedStops();
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                journal = null;
+            } finally {
+                lock.unlock();
+            }
+            logger.warn("Could not load the stop spatial index: {}", e.getMessage());
+            return;
+        }
+
+        Grid fresh = new Grid(cellDegrees);
+        for (Object[] row : rows) {
+            fresh.put(new Point((Long) row[0], (String) row[1], (Double) row[2], (Double) row[3]));
+        }
+
+        lock.lock();
+        try {
+            journal.forEach(change -> change.accept(fresh));
+            journal = null;
+            grid = fresh;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Stop spatial index loaded {} stops", rows.size());
+    }
+
+    /**
+     * Re-reads a stop once its change commits and indexes it at its position; a stop deleted or
+     * without a position is dropped. A change to any number of stops reloads the index.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNetworkChanged(NetworkChangedEvent event) {
+        if (event.isBulk()) {
+            reload();
+            return;
+        }
+        Long id = event.getStopId();
+        if (id == null) {
+            return;
+        }
+        Optional<Stop> stop;
+        try {
+            stop = stopRepository.findById(id);
+        } catch (RuntimeException e) {
+            // The write itself has committed; the next reconcile picks the change up
+            logger.warn("Could not refresh stop {} in the spatial index: {}", id, e.getMessage());
+            return;
+        }
+        Point point = stop.filter(s -> s.getLatitude() != null && s.getLongitude() != null)
+                .map(s -> new Point(id, s.getName(), s.getLatitude(), s.getLongitude()))
+                .orElse(null);
+        apply(current -> {
+            if (point != null) {
+                current.put(point);
+            } else {
+                current.remove(id);
+            }
+        });
+    }
+
+    private void apply(Consumer<Grid> change) {
+        lock.lock();
+        try {
+            if (grid != null) {
+                change.accept(grid);
+            }
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops within {@code radiusMeters} of the point, nearest first, at most {@code limit}. With no
+     * radius, the {@code limit} nearest stops within the maximum search radius.
+     */
+    public List<NearbyStop> near(double latitude, double longitude, Double radiusMeters, int limit) {
+        Grid current = grid;
+        if (current == null) {
+            reload();
+            current = grid;
+            if (current == null) {
+                return List.of();
+            }
+        }
+        List<NearbyStop> found;
+        if (radiusMeters != null) {
+            found = current.within(latitude, longitude, radiusMeters);
+        } else {
+            double radius = Math.min(NEAREST_START_RADIUS_METERS, maxRadiusMeters);
+            found = current.within(latitude, longitude, radius);
+            while (found.size() < limit && radius < maxRadiusMeters) {
+                radius = Math.min(radius * 4, maxRadiusMeters);
+                found = current.within(latitude, longitude, radius);
+            }
+        }
+        found.sort(Comparator.comparingDouble(NearbyStop::getDistanceMeters));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    public double getMaxRadiusMeters() {
+        return maxRadiusMeters;
+    }
+
+    private static final class Point {
+        final long id;
+        final String name;
+        final double latitude;
+        final double longitude;
+
+        Point(long id, String name, double latitude, double longitude) {
+            this.id = id;
+            this.name = name;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    /** Cells keyed by (latitude row, longitude column); writers hold the index lock. */
+    private static final class Grid {
+        final double cellDegrees;
+        final int columns;
+        final Map<Long, Point[]> cells = new ConcurrentHashMap<>();
+        final Map<Long, Long> cellById = new HashMap<>();
+
+        Grid(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+            this.columns = (int) Math.ceil(360 / cellDegrees);
+        }
+
+        void put(Point point) {
+            remove(point.id);
+            long key = key(row(point.latitude), column(point.longitude));
+            cells.compute(key, (k, points) -> {
+                if (points == null) {
+                    return new Point[] { point };
+                }
+                Point[] grown = Arrays.copyOf(points, points.length + 1);
+                grown[points.length] = point;
+                return grown;
+            });
+            cellById.put(point.id, key);
+        }
+
+        void remove(long id) {
+            Long key = cellById.remove(id);
+            if (key == null) {
+                return;
+            }
+            cells.computeIfPresent(key, (k, points) -> {
+                Point[] kept = new Point[points.length - 1];
+                int n = 0;
+                for (Point point : points) {
+                    if (point.id != id && n < kept.length) {
+                        kept[n++] = point;
+                    }
+                }
+                return n == 0 ? null : kept;
+            });
+        }
+
+        List<NearbyStop> within(double latitude, double longitude, double radiusMeters) {
+            double latSpan = radiusMeters / GeoDistance.METERS_PER_DEGREE;
+            double south = Math.max(-90, latitude - latSpan);
+            double north = Math.min(90, latitude + latSpan);
+            // Longitude degrees shrink towards the poles; size the box for the row nearest to one
+            double widest = Math.max(Math.abs(south), Math.abs(north));
+            double lonSpan = widest >= 89.99 ? 180
+                    : radiusMeters / (GeoDistance.METERS_PER_DEGREE * Math.cos(Math.toRadians(widest)));
+            int west = (int) Math.floor((longitude - lonSpan + 180) / cellDegrees);
+            int east = (int) Math.floor((longitude + lonSpan + 180) / cellDegrees);
+            if (east - west + 1 >= columns) {
+                west = 0;
+                east = columns - 1;
+            }
+
+            List<NearbyStop> found = new ArrayList<>();
+            for (int row = row(south); row <= row(north); row++) {
+                for (int column = west; column <= east; column++) {
+                    Point[] points = cells.get(key(row, Math.floorMod(column, columns)));
+                    if (points == null) {
+                        continue;
+                    }
+                    for (Point point : points) {
+                        double distance = GeoDistance.haversineMeters(latitude, longitude, point.latitude, point.longitude);
+                        if (distance <= radiusMeters) {
+                            found.add(new NearbyStop(point.id, point.name, point.latitude, point.longitude,
+                                    Math.round(distance * 10) / 10.0));
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+
+        private int row(double latitude) {
+            return (int) Math.floor((latitude + 90) / cellDegrees);
+        }
+
+        private int column(double longitude) {
+            return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+        }
+
+        private static long key(int row, int column) {
+            return ((long) row << 32) | (column & 0xffffffffL);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.model.Bus;
+import com.Logistics.LogisticsBackend.model.ERole;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.Schedule;
+import com.Logistics.LogisticsBackend.model.User;
+import com.Logistics.LogisticsBackend.payload.request.TimetableRequest;
+import com.Logistics.LogisticsBackend.payload.response.TimetableConflict;
+import com.Logistics.LogisticsBackend.payload.response.TimetableResponse;
+import com.Logistics.LogisticsBackend.repository.BusRepository;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+import com.Logistics.LogisticsBackend.repository.UserRepository;
+
+/**
+ * Generates a recurring timetable for a route in one transaction. The route duration is computed
+ * once and every departure is checked in memory against a single snapshot of the schedules that
+ * share the route, drivers or buses, then all schedules are written with one JDBC batch.
+ *
+ * A departure conflicts with another departure of the same route at the same time, the same rule
+ * single schedules are checked with, so any headway can be generated and its trips edited later.
+ */
+@Service
+public class TimetableService {
+    private static final Logger logger = LoggerFactory.getLogger(TimetableService.class);
+
+    @Value("${urbansync.app.timetableMaxSchedules:20000}")
+    private int maxSchedules;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ScheduleConflictIndex scheduleConflictIndex;
+
+    @Autowired
+    private ScheduleBatchWriter scheduleBatchWriter;
+
+    @Autowired
+    private ResourceLockService resourceLockService;
+
+    @Transactional
+    public TimetableResponse generate(TimetableRequest request) {
+        List<LocalDateTime> departures = departures(request);
+
+        Route route = routeRepository.findById(request.getRouteId())
+                .orElseThrow(() -> new ResourceNotFoundException("Route not found with ID: " + request.getRouteId()));
+        List<User> drivers = loadDrivers(request.getDriverIds());
+        List<Bus> buses = loadBuses(request.getBusIds());
+        int tripMinutes = scheduleService.estimateTripMinutes(route.getId());
+        String status = request.getStatus() != null ? request.getStatus() : "SCHEDULED";
+
+        if (!request.isDryRun()) {
+            resourceLockService.lockForTransaction(ScheduleConstraints.keys(route.getId(),
+                    drivers.stream().map(User::getId).collect(Collectors.toList()),
+                    buses.stream().map(Bus::getId).collect(Collectors.toList())));
+        }
+
+        // One snapshot of everything the new departures could collide with
+        LocalDateTime from = departures.get(0);
+        LocalDateTime to = departures.get(departures.size() - 1).plusMinutes(tripMinutes);
+        ScheduleTimelines routeTimeline = new ScheduleTimelines(slot -> slot.routeId);
+        ScheduleTimelines driverTimelines = new ScheduleTimelines(slot -> slot.driverId);
+        ScheduleTimelines busTimelines = new ScheduleTimelines(slot -> slot.busId);
+        for (Object[] row : scheduleRepository.findScheduleSlotsForResources(from, to, route.getId(),
+                drivers.stream().map(User::getId).collect(Collectors.toList()),
+                buses.stream().map(Bus::getId).collect(Collectors.toList()))) {
+            ScheduleSlot slot = ScheduleSlot.fromRow(row);
+            routeTimeline.add(slot);
+            driverTimelines.add(slot);
+            busTimelines.add(slot);
+        }
+
+        List<Schedule> planned = new ArrayList<>(departures.size());
+        List<TimetableConflict> conflicts = new ArrayList<>();
+        long tripSeconds = tripMinutes * 60L;
+        long plannedId = -1;
+        int nextDriver = 0;
+        int nextBus = 0;
+        for (LocalDateTime departure : departures) {
+            long start = ScheduleSlot.toSeconds(departure);
+            long end = start + tripSeconds;
+            if (ScheduleConstraints.routeDepartsAt(routeTimeline, route.getId(), start, Long.MIN_VALUE)) {
+                conflicts.add(new TimetableConflict(departure, "Route already departs at this time."));
+                continue;
+            }
+            int driverIndex = firstFree(drivers, nextDriver, User::getId, driverTimelines, start, end);
+            if (driverIndex < 0) {
+                conflicts.add(new TimetableConflict(departure, "No driver in the rotation is free for this trip."));
+                continue;
+            }
+            int busIndex = firstFree(buses, nextBus, Bus::getId, busTimelines, start, end);
+            if (busIndex < 0) {
+                conflicts.add(new TimetableConflict(departure, "No bus in the rotation is free for this trip."));
+                continue;
+            }
+            nextDriver = driverIndex + 1;
+            nextBus = busIndex + 1;
+
+            Schedule schedule = new Schedule();
+            schedule.setRoute(route);
+            schedule.setDriver(drivers.get(driverIndex));
+            schedule.setBus(buses.get(busIndex));
+            schedule.setDepartureDateTime(departure);
+            schedule.setEstimatedArrivalDateTime(departure.plusMinutes(tripMinutes));
+            schedule.setStatus(status);
+            planned.add(schedule);
+
+            ScheduleSlot slot = ScheduleSlot.of(plannedId--, schedule);
+            routeTimeline.add(slot);
+            driverTimelines.add(slot);
+            busTimelines.add(slot);
+        }
+
+        if (!request.isDryRun() && !planned.isEmpty()) {
+            // Catch anything committed since the snapshot was read, then hold the rest until commit
+            Set<Schedule> rejected = new HashSet<>(scheduleConflictIndex.holdAll(planned));
+            if (!rejected.isEmpty()) {
+                for (Schedule schedule : rejected) {
+                    conflicts.add(new TimetableConflict(schedule.getDepartureDateTime(), "Conflicts with a schedule saved in the meantime."));
+                }
+                planned.removeIf(rejected::contains);
+                conflicts.sort((a, b) -> a.getDepartureDateTime().compareTo(b.getDepartureDateTime()));
+            }
+            try {
+                scheduleBatchWriter.insertAll(planned);
+            } catch (DataIntegrityViolationException e) {
+                throw ScheduleConstraints.translate(e);
+            }
+            logger.info("Generated {} schedules for route {} ({} conflicts)", planned.size(), route.getId(), conflicts.size());
+        }
+        return new TimetableResponse(departures.size(), request.isDryRun() ? 0 : planned.size(),
+                request.isDryRun(), tripMinutes, conflicts);
+    }
+
+    private List<LocalDateTime> departures(TimetableRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        Set<LocalTime> times = new TreeSet<>();
+        if (request.getDepartureTimes() != null && !request.getDepartureTimes().isEmpty()) {
+            times.addAll(request.getDepartureTimes());
+        } else {
+            if (request.getFirstDeparture() == null || request.getLastDeparture() == null || request.getHeadwayMinutes() == null) {
+                throw new IllegalArgumentException("Either departure times or first departure, last departure and headway are required");
+            }
+            if (request.getLastDeparture().isBefore(request.getFirstDeparture())) {
+                throw new IllegalArgumentException("Last departure must not be before first departure");
+            }
+            for (LocalTime time = request.getFirstDeparture(); !time.isAfter(request.getLastDeparture());) {
+                times.add(time);
+                LocalTime next = time.plusMinutes(request.getHeadwayMinutes());
+                if (!next.isAfter(time)) {
+                    break; // Wrapped past midnight
+                }
+                time = next;
+            }
+        }
+
+        long total = request.getStartDate().datesUntil(request.getEndDate().plusDays(1)).count() * times.size();
+        if (total > maxSchedules) {
+            throw new IllegalArgumentException("Timetable would create " + total + " schedules; the limit is " + maxSchedules);
+        }
+        List<LocalDateTime> departures = new ArrayList<>((int) total);
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
+            for (LocalTime time : times) {
+                departures.add(date.atTime(time));
+            }
+        }
+        return departures;
+    }
+
+    private List<User> loadDrivers(List<Long> driverIds) {
+        Map<Long, User> found = userRepository.findAllById(driverIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> drivers = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(driverIds)) {
+            User driver = found.get(id);
+            if (driver == null) {
+                throw new ResourceNotFoundException("Driver not found with ID: " + id);
+            }
+            if (driver.getRoles().stream().noneMatch(role -> role.getName().equals(ERole.ROLE_DRIVER))) {
+                throw new IllegalArgumentException("User with ID " + id + " is not a driver.");
+            }
+            if (driver.getStatus() != User.EmployeeStatus.ACTIVE) {
+                throw new IllegalArgumentException("Driver with ID " + id + " is not active. Current status: " + driver.getStatus());
+            }
+            drivers.add(driver);
+        }
+        return drivers;
+    }
+
+    private List<Bus> loadBuses(List<Long> busIds) {
+        Map<Long, Bus> found = busRepository.findAllById(busIds).stream()
+                .collect(Collectors.toMap(Bus::getId, Function.identity()));
+        List<Bus> buses = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(busIds)) {
+            Bus bus = found.get(id);
+            if (bus == null) {
+                throw new ResourceNotFoundException("Bus not found with ID: " + id);
+            }
+            if (!"ACTIVE".equalsIgnoreCase(bus.getStatus())) {
+                throw new IllegalArgumentException("Bus with ID " + id + " is not active. Current status: " + bus.getStatus());
+            }
+            buses.add(bus);
+        }
+        return buses;
+    }
+
+    /** Index of the first resource in rotation order starting at {@code next} that is free for [start, end), or -1. */
+    private static <T> int firstFree(List<T> pool, int next, Function<T, Long> id, ScheduleTimelines timelines, long start, long end) {
+        for (int i = 0; i < pool.size(); i++) {
+            int index = (next + i) % pool.size();
+            if (!timelines.overlaps(id.apply(pool.get(index)), start, end, Long.MIN_VALUE)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
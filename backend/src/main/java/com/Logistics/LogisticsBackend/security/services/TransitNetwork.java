@@ -0,0 +1,395 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, immutable timetable for journey planning. Every trip is broken into connections (one
+ * hop between two consecutive stops of its route) kept in parallel int arrays sorted by departure,
+ * so an earliest-arrival query is a single forward scan (connection scan algorithm) starting at
+ * the first connection that leaves after the requested time and stopping once nothing can improve
+ * the arrival at the target.
+ *
+ * Times inside the arrays are seconds since {@code base}; ids are mapped to dense indexes. Changes
+ * produce a new network and leave the old one intact for queries still running on it:
+ * {@link #withTrips} and {@link #withPattern} copy the untouched connections and merge in the
+ * regenerated ones in O(C). A removed trip leaves a hole in the trip table until the next
+ * {@link #build}.
+ */
+final class TransitNetwork {
+
+    /** The stops of a route in order and the offset of each from the trip's departure, in seconds. */
+    static final class Pattern {
+        final long[] stopIds;
+        final int[] offsets;
+
+        Pattern(long[] stopIds, int[] offsets) {
+            this.stopIds = stopIds;
+            this.offsets = offsets;
+        }
+    }
+
+    /** One scheduled run of a route; departure in epoch seconds. */
+    static final class Trip {
+        final long scheduleId;
+        final long routeId;
+        final long departure;
+
+        Trip(long scheduleId, long routeId, long departure) {
+            this.scheduleId = scheduleId;
+            this.routeId = routeId;
+            this.departure = departure;
+        }
+    }
+
+    /** A ride on one trip; times in epoch seconds. */
+    static final class Leg {
+        final long scheduleId;
+        final long routeId;
+        final long fromStopId;
+        final long toStopId;
+        final long departure;
+        final long arrival;
+
+        Leg(long scheduleId, long routeId, long fromStopId, long toStopId, long departure, long arrival) {
+            this.scheduleId = scheduleId;
+            this.routeId = routeId;
+            this.fromStopId = fromStopId;
+            this.toStopId = toStopId;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+    }
+
+    static final class Journey {
+        final List<Leg> legs;
+
+        Journey(List<Leg> legs) {
+            this.legs = legs;
+        }
+
+        long departure() {
+            return legs.get(0).departure;
+        }
+
+        long arrival() {
+            return legs.get(legs.size() - 1).arrival;
+        }
+    }
+
+    private final long base;
+    private final long end;
+    private final Map<Long, Pattern> patterns;
+
+    // Trip table; null entries are removed trips
+    private final Trip[] trips;
+    private final Map<Long, Integer> tripIndex;
+
+    private final long[] stopIds;
+    private final Map<Long, Integer> stopIndex;
+
+    // Connections sorted by departure
+    private final int[] depStop;
+    private final int[] arrStop;
+    private final int[] depTime;
+    private final int[] arrTime;
+    private final int[] connTrip;
+
+    private TransitNetwork(long base, long end, Map<Long, Pattern> patterns, Trip[] trips, Map<Long, Integer> tripIndex,
+            long[] stopIds, Map<Long, Integer> stopIndex, int[] depStop, int[] arrStop, int[] depTime, int[] arrTime, int[] connTrip) {
+        this.base = base;
+        this.end = end;
+        this.patterns = patterns;
+        this.trips = trips;
+        this.tripIndex = tripIndex;
+        this.stopIds = stopIds;
+        this.stopIndex = stopIndex;
+        this.depStop = depStop;
+        this.arrStop = arrStop;
+        this.depTime = depTime;
+        this.arrTime = arrTime;
+        this.connTrip = connTrip;
+    }
+
+    /**
+     * Builds a network covering trips that depart in [base, end). Trips outside the window and
+     * trips of routes without a pattern are kept out of the connections.
+     */
+    static TransitNetwork build(long base, long end, Map<Long, Pattern> patterns, Collection<Trip> trips) {
+        List<Trip> kept = new ArrayList<>(trips.size());
+        Map<Long, Integer> tripIndex = new HashMap<>(trips.size() * 2);
+        for (Trip trip : trips) {
+            if (trip.departure >= base && trip.departure < end && !tripIndex.containsKey(trip.scheduleId)) {
+                tripIndex.put(trip.scheduleId, kept.size());
+                kept.add(trip);
+            }
+        }
+        Trip[] table = kept.toArray(new Trip[0]);
+        boolean[] dirty = new boolean[table.length];
+        Arrays.fill(dirty, true);
+        TransitNetwork empty = new TransitNetwork(base, end, Map.of(), new Trip[0], Map.of(), new long[0], Map.of(),
+                new int[0], new int[0], new int[0], new int[0], new int[0]);
+        return empty.rebuild(new HashMap<>(patterns), table, tripIndex, dirty);
+    }
+
+    /**
+     * Returns a network where the given schedules are removed and the upserted trips added or
+     * moved. Upserted trips outside the window are treated as removed.
+     */
+    TransitNetwork withTrips(Collection<Long> removed, Collection<Trip> upserted) {
+        List<Trip> table = new ArrayList<>(Arrays.asList(trips));
+        Map<Long, Integer> index = new HashMap<>(tripIndex);
+        List<Boolean> changed = new ArrayList<>(Collections.nCopies(table.size(), false));
+        for (Long scheduleId : removed) {
+            Integer i = index.remove(scheduleId);
+            if (i != null) {
+                table.set(i, null);
+                changed.set(i, true);
+            }
+        }
+        for (Trip trip : upserted) {
+            boolean inWindow = trip.departure >= base && trip.departure < end;
+            Integer i = index.get(trip.scheduleId);
+            if (i == null && inWindow) {
+                index.put(trip.scheduleId, table.size());
+                table.add(trip);
+                changed.add(true);
+            } else if (i != null) {
+                table.set(i, inWindow ? trip : null);
+                changed.set(i, true);
+                if (!inWindow) {
+                    index.remove(trip.scheduleId);
+                }
+            }
+        }
+        boolean[] dirty = new boolean[table.size()];
+        for (int i = 0; i < dirty.length; i++) {
+            dirty[i] = changed.get(i);
+        }
+        return rebuild(new HashMap<>(patterns), table.toArray(new Trip[0]), index, dirty);
+    }
+
+    /** Returns a network where the route follows the given pattern, or has none if it is null. */
+    TransitNetwork withPattern(long routeId, Pattern pattern) {
+        Map<Long, Pattern> updated = new HashMap<>(patterns);
+        if (pattern != null) {
+            updated.put(routeId, pattern);
+        } else {
+            updated.remove(routeId);
+        }
+        boolean[] dirty = new boolean[trips.length];
+        for (int i = 0; i < trips.length; i++) {
+            dirty[i] = trips[i] != null && trips[i].routeId == routeId;
+        }
+        return rebuild(updated, trips, tripIndex, dirty);
+    }
+
+    /**
+     * Keeps the connections of clean trips, regenerates those of dirty ones and merges the two
+     * sorted runs. Stop indexes are stable: stops new to the network are appended.
+     */
+    private TransitNetwork rebuild(Map<Long, Pattern> patterns, Trip[] trips, Map<Long, Integer> tripIndex, boolean[] dirty) {
+        long[] stops = stopIds;
+        Map<Long, Integer> stopIdx = stopIndex;
+        Map<Long, int[]> patternStops = new HashMap<>();
+        for (Map.Entry<Long, Pattern> entry : patterns.entrySet()) {
+            int[] indexes = new int[entry.getValue().stopIds.length];
+            for (int i = 0; i < indexes.length; i++) {
+                long stopId = entry.getValue().stopIds[i];
+                Integer idx = stopIdx.get(stopId);
+                if (idx == null) {
+                    if (stopIdx == stopIndex) {
+                        stopIdx = new HashMap<>(stopIndex);
+                    }
+                    idx = stopIdx.size();
+                    stopIdx.put(stopId, idx);
+                    if (idx >= stops.length) {
+                        stops = Arrays.copyOf(stops, Math.max(16, idx * 2));
+                    }
+                    stops[idx] = stopId;
+                }
+                indexes[i] = idx;
+            }
+            patternStops.put(entry.getKey(), indexes);
+        }
+        if (stops.length != stopIdx.size()) {
+            stops = Arrays.copyOf(stops, stopIdx.size());
+        }
+
+        // Connections of dirty trips, sorted by departure through packed (time, position) keys
+        int fresh = 0;
+        for (int t = 0; t < trips.length; t++) {
+            if (dirty[t] && trips[t] != null && patterns.containsKey(trips[t].routeId)) {
+                fresh += patterns.get(trips[t].routeId).stopIds.length - 1;
+            }
+        }
+        int[] fDep = new int[fresh];
+        int[] fArr = new int[fresh];
+        int[] fDepTime = new int[fresh];
+        int[] fArrTime = new int[fresh];
+        int[] fTrip = new int[fresh];
+        long[] keys = new long[fresh];
+        int n = 0;
+        for (int t = 0; t < trips.length; t++) {
+            Trip trip = trips[t];
+            if (!dirty[t] || trip == null) {
+                continue;
+            }
+            Pattern pattern = patterns.get(trip.routeId);
+            if (pattern == null) {
+                continue;
+            }
+            int[] indexes = patternStops.get(trip.routeId);
+            int start = (int) (trip.departure - base);
+            for (int i = 0; i + 1 < indexes.length; i++) {
+                fDep[n] = indexes[i];
+                fArr[n] = indexes[i + 1];
+                fDepTime[n] = start + pattern.offsets[i];
+                fArrTime[n] = start + pattern.offsets[i + 1];
+                fTrip[n] = t;
+                keys[n] = ((long) fDepTime[n] << 32) | n;
+                n++;
+            }
+        }
+        Arrays.sort(keys);
+
+        int kept = 0;
+        for (int c = 0; c < connTrip.length; c++) {
+            if (!dirty[connTrip[c]]) {
+                kept++;
+            }
+        }
+        int total = kept + fresh;
+        int[] nDep = new int[total];
+        int[] nArr = new int[total];
+        int[] nDepTime = new int[total];
+        int[] nArrTime = new int[total];
+        int[] nTrip = new int[total];
+        int c = 0;
+        int f = 0;
+        for (int out = 0; out < total; out++) {
+            while (c < connTrip.length && dirty[connTrip[c]]) {
+                c++;
+            }
+            boolean takeOld = f == fresh || (c < connTrip.length && depTime[c] <= (int) (keys[f] >>> 32));
+            if (takeOld) {
+                nDep[out] = depStop[c];
+                nArr[out] = arrStop[c];
+                nDepTime[out] = depTime[c];
+                nArrTime[out] = arrTime[c];
+                nTrip[out] = connTrip[c];
+                c++;
+            } else {
+                int i = (int) keys[f++];
+                nDep[out] = fDep[i];
+                nArr[out] = fArr[i];
+                nDepTime[out] = fDepTime[i];
+                nArrTime[out] = fArrTime[i];
+                nTrip[out] = fTrip[i];
+            }
+        }
+        return new TransitNetwork(base, end, patterns, trips, tripIndex, stops, stopIdx, nDep, nArr, nDepTime, nArrTime, nTrip);
+    }
+
+    /**
+     * Earliest arrival at {@code toStopId} leaving {@code fromStopId} no earlier than
+     * {@code departAfter} (epoch seconds). Changing trips at a stop takes at least
+     * {@code transferSeconds}; staying on a trip is free.
+     *
+     * @return the journey, or null if the target cannot be reached within the network's window
+     */
+    Journey earliestArrival(long fromStopId, long toStopId, long departAfter, int transferSeconds) {
+        Integer from = stopIndex.get(fromStopId);
+        Integer to = stopIndex.get(toStopId);
+        if (from == null || to == null || from.equals(to) || departAfter >= end) {
+            return null;
+        }
+        int stops = stopIds.length;
+        int[] arrival = new int[stops];
+        int[] ready = new int[stops]; // Earliest time a new trip can be boarded at the stop
+        int[] inConn = new int[stops];
+        int[] enter = new int[trips.length];
+        Arrays.fill(arrival, Integer.MAX_VALUE);
+        Arrays.fill(ready, Integer.MAX_VALUE);
+        Arrays.fill(enter, -1);
+        int start = (int) Math.max(0, departAfter - base);
+        arrival[from] = start;
+        ready[from] = start;
+
+        int target = to;
+        for (int c = firstDepartingAt(start); c < depTime.length; c++) {
+            int departs = depTime[c];
+            if (departs >= arrival[target]) {
+                break;
+            }
+            int trip = connTrip[c];
+            if (enter[trip] < 0) {
+                if (ready[depStop[c]] > departs) {
+                    continue;
+                }
+                enter[trip] = c;
+            }
+            int stop = arrStop[c];
+            if (arrTime[c] < arrival[stop]) {
+                arrival[stop] = arrTime[c];
+                ready[stop] = arrTime[c] + transferSeconds;
+                inConn[stop] = c;
+            }
+        }
+        if (arrival[target] == Integer.MAX_VALUE) {
+            return null;
+        }
+
+        List<Leg> legs = new ArrayList<>();
+        int stop = target;
+        while (stop != from) {
+            int last = inConn[stop];
+            int first = enter[connTrip[last]];
+            Trip trip = trips[connTrip[last]];
+            legs.add(new Leg(trip.scheduleId, trip.routeId, stopIds[depStop[first]], stopIds[stop],
+                    base + depTime[first], base + arrTime[last]));
+            stop = depStop[first];
+        }
+        Collections.reverse(legs);
+        return new Journey(legs);
+    }
+
+    private int firstDepartingAt(int time) {
+        int low = 0;
+        int high = depTime.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (depTime[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long base() {
+        return base;
+    }
+
+    long end() {
+        return end;
+    }
+
+    int stopCount() {
+        return stopIds.length;
+    }
+
+    int tripCount() {
+        return tripIndex.size();
+    }
+
+    int connectionCount() {
+        return depTime.length;
+    }
+}
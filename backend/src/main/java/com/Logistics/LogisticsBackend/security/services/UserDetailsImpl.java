@@ -75,6 +75,15 @@ public class UserDetailsImpl implements UserDetails {
                 user.getJoiningDate(), user.getEmergencyContact(), user.getStatus());
     }
 
+    /**
+     * Builds a principal straight from JWT claims without loading the user.
+     * Only the id, username and authorities are populated.
+     */
+    public static UserDetailsImpl fromClaims(Long id, String username, Collection<? extends GrantedAuthority> authorities) {
+        return new UserDetailsImpl(id, username, null, null, authorities,
+                null, null, null, null, null, null, null, null, null);
+    }
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
@@ -0,0 +1,86 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.Logistics.LogisticsBackend.model.User;
+import com.Logistics.LogisticsBackend.repository.UserRepository;
+
+/**
+ * "Security version" per user, stored in {@code users.security_version}. Tokens carry the version
+ * that was current when they were issued; bumping a user's version (role, status or credential
+ * change) invalidates every token issued before it when claims-only authentication is enabled, and
+ * a deleted user's tokens are never current.
+ *
+ * Versions are read through a short-lived cache so claims-only requests rarely reach the database.
+ * A bump on this instance evicts the user's entry when it commits; one on another instance is seen
+ * here once the entry is older than {@code securityVersionCacheMs}.
+ */
+@Component
+public class UserSecurityVersions {
+
+    // Version of a user that no longer exists; no token carries it
+    private static final long DELETED = Long.MAX_VALUE;
+
+    @Value("${urbansync.app.securityVersionCacheMs:30000}")
+    private long cacheMs;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, Cached> versions = new ConcurrentHashMap<>();
+
+    public long currentVersion(Long userId) {
+        long now = System.currentTimeMillis();
+        Cached cached = versions.get(userId);
+        if (cached == null || now - cached.loadedAt > cacheMs) {
+            cached = new Cached(userRepository.findSecurityVersionById(userId).orElse(DELETED), now);
+            versions.put(userId, cached);
+        }
+        return cached.version;
+    }
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return tokenVersion >= currentVersion(userId);
+    }
+
+    /**
+     * Raises the version of a user about to be saved, and evicts the cached one once the
+     * surrounding transaction commits, so a login racing with the update cannot be issued a token
+     * for the old roles.
+     */
+    public void bump(User user) {
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        forget(user.getId());
+    }
+
+    /** Drops the cached version once the surrounding transaction commits, e.g. after the user is deleted. */
+    public void forget(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.remove(userId);
+                }
+            });
+        } else {
+            versions.remove(userId);
+        }
+    }
+
+    private static final class Cached {
+        final long version;
+        final long loadedAt;
+
+        Cached(long version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
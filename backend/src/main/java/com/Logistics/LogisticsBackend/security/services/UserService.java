@@ -33,6 +33,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserSecurityVersions userSecurityVersions;
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -81,24 +84,7 @@ public class UserService {
                     .orElseThrow(() -> new ResourceNotFoundException("Error: Default role EMPLOYEE not found."));
             roles.add(employeeRole);
         } else {
-            strRoles.forEach(role -> {
-                switch (role.toLowerCase()) {
-                    case "admin":
-                        Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-                                .orElseThrow(() -> new ResourceNotFoundException("Error: Role ADMIN not found."));
-                        roles.add(adminRole);
-                        break;
-                    case "driver":
-                        Role driverRole = roleRepository.findByName(ERole.ROLE_DRIVER)
-                                .orElseThrow(() -> new ResourceNotFoundException("Error: Role DRIVER not found."));
-                        roles.add(driverRole);
-                        break;
-                    default:
-                        Role employeeRole = roleRepository.findByName(ERole.ROLE_EMPLOYEE)
-                                .orElseThrow(() -> new ResourceNotFoundException("Error: Role EMPLOYEE not found."));
-                        roles.add(employeeRole);
-                }
-            });
+            strRoles.forEach(role -> roles.add(findRole(toERole(role))));
         }
 
         user.setRoles(roles);
@@ -115,23 +101,63 @@ public class UserService {
 
     @Transactional
     public List<User> registerUsersBulk(List<SignupRequest> signUpRequests) {
-        // Pre-validate all requests to avoid partial updates
+        if (signUpRequests.isEmpty()) {
+            return List.of();
+        }
+        // Duplicates inside the request would only surface as a constraint violation on insert
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> employeeIds = new HashSet<>();
         for (SignupRequest request : signUpRequests) {
-            if (userRepository.existsByUsername(request.getUsername())) {
-                throw new DuplicateResourceException("Error: Username '" + request.getUsername() + "' is already taken!");
+            if (!usernames.add(request.getUsername())) {
+                throw new IllegalArgumentException("Username '" + request.getUsername() + "' appears more than once in the request");
             }
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new DuplicateResourceException("Error: Email '" + request.getEmail() + "' is already in use!");
+            if (!emails.add(request.getEmail())) {
+                throw new IllegalArgumentException("Email '" + request.getEmail() + "' appears more than once in the request");
             }
-            if (request.getEmployeeId() != null && userRepository.existsByEmployeeId(request.getEmployeeId())) {
-                throw new DuplicateResourceException("Error: Employee ID '" + request.getEmployeeId() + "' is already in use!");
+            if (request.getEmployeeId() != null && !employeeIds.add(request.getEmployeeId())) {
+                throw new IllegalArgumentException("Employee ID '" + request.getEmployeeId() + "' appears more than once in the request");
             }
         }
 
-        // Process all requests
-        return signUpRequests.stream()
+        // Pre-validate all requests to avoid partial updates, with one query per unique column
+        List<String> takenUsernames = userRepository.findExistingUsernames(usernames);
+        if (!takenUsernames.isEmpty()) {
+            throw new DuplicateResourceException("Error: Username '" + takenUsernames.get(0) + "' is already taken!");
+        }
+        List<String> takenEmails = userRepository.findExistingEmails(emails);
+        if (!takenEmails.isEmpty()) {
+            throw new DuplicateResourceException("Error: Email '" + takenEmails.get(0) + "' is already in use!");
+        }
+        List<String> takenEmployeeIds = employeeIds.isEmpty() ? List.of() : userRepository.findExistingEmployeeIds(employeeIds);
+        if (!takenEmployeeIds.isEmpty()) {
+            throw new DuplicateResourceException("Error: Employee ID '" + takenEmployeeIds.get(0) + "' is already in use!");
+        }
+
+        // Process and persist all requests
+        return userRepository.saveAll(signUpRequests.stream()
                 .map(this::mapToUser) // Use the new mapping method
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Maps a requested role name to its ERole the same way registration does:
+     * "admin" and "driver" are recognised, anything else is an employee.
+     */
+    static ERole toERole(String role) {
+        switch (role.toLowerCase()) {
+            case "admin":
+                return ERole.ROLE_ADMIN;
+            case "driver":
+                return ERole.ROLE_DRIVER;
+            default:
+                return ERole.ROLE_EMPLOYEE;
+        }
+    }
+
+    private Role findRole(ERole name) {
+        return roleRepository.findByName(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Error: Role " + name.name().substring("ROLE_".length()) + " not found."));
     }
 
     @Transactional
@@ -149,6 +175,11 @@ public class UserService {
             throw new DuplicateResourceException("Error: Username is already in use!");
         }
 
+        // Remember what the issued tokens were based on, to revoke them if it changes
+        String previousUsername = user.getUsername();
+        User.EmployeeStatus previousStatus = user.getStatus();
+        Set<ERole> previousRoles = user.getRoles().stream().map(Role::getName).collect(Collectors.toSet());
+
         // Update user fields
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
@@ -166,28 +197,21 @@ public class UserService {
 
         if (userDetails.getRole() != null && !userDetails.getRole().isEmpty()) {
             Set<Role> roles = new HashSet<>();
-            userDetails.getRole().forEach(role -> {
-                switch (role.toLowerCase()) {
-                    case "admin":
-                        roles.add(roleRepository.findByName(ERole.ROLE_ADMIN)
-                                .orElseThrow(() -> new ResourceNotFoundException("Role not found")));
-                        break;
-                    case "driver":
-                        roles.add(roleRepository.findByName(ERole.ROLE_DRIVER)
-                                .orElseThrow(() -> new ResourceNotFoundException("Role not found")));
-                        break;
-                    default:
-                        roles.add(roleRepository.findByName(ERole.ROLE_EMPLOYEE)
-                                .orElseThrow(() -> new ResourceNotFoundException("Role not found")));
-                }
-            });
+            userDetails.getRole().forEach(role -> roles.add(findRole(toERole(role))));
             user.setRoles(roles);
         }
 
-        if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
+        boolean passwordChanged = userDetails.getPassword() != null && !userDetails.getPassword().isEmpty();
+        if (passwordChanged) {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
         }
 
+        Set<ERole> newRoles = user.getRoles().stream().map(Role::getName).collect(Collectors.toSet());
+        if (passwordChanged || !previousUsername.equals(user.getUsername())
+                || previousStatus != user.getStatus() || !previousRoles.equals(newRoles)) {
+            userSecurityVersions.bump(user);
+        }
+
         return userRepository.save(user);
     }
 
@@ -197,5 +221,6 @@ public class UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        userSecurityVersions.forget(id);
     }
 }
\ No newline at end of file
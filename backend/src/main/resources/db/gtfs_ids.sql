@@ -0,0 +1,9 @@
+-- GTFS ids kept on stops and routes by the GTFS import, so a newer feed updates them in place
+-- (GtfsImportService). Run before deploying with ddl-auto: validate.
+
+ALTER TABLE stops ADD COLUMN IF NOT EXISTS gtfs_id VARCHAR(255);
+ALTER TABLE routes ADD COLUMN IF NOT EXISTS gtfs_id VARCHAR(255);
+
+-- NULLs don't collide, so stops and routes created through the API need no id
+CREATE UNIQUE INDEX IF NOT EXISTS stops_gtfs_id_key ON stops (gtfs_id);
+CREATE UNIQUE INDEX IF NOT EXISTS routes_gtfs_id_key ON routes (gtfs_id);
@@ -3,7 +3,7 @@ CREATE TABLE IF NOT EXISTS route_stops (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     route_id BIGINT NOT NULL,
     stop_id BIGINT NOT NULL,
-    stop_order INT NOT NULL,
+    stop_order INT NOT NULL, -- sparse rank key; the API numbers stops 1..N by it
     arrival_time TIME,
     departure_time TIME,
     distance_from_start_km DECIMAL(10,2),
@@ -0,0 +1,13 @@
+-- Optional double-booking constraints for schedules (PostgreSQL)
+-- Backstop for writes that bypass the application's per-driver/per-bus locks.
+-- Overlapping rows must be cleaned up before these can be added.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE schedules
+    ADD CONSTRAINT schedules_driver_no_overlap
+    EXCLUDE USING gist (driver_id WITH =, tsrange(departure_date_time, estimated_arrival_date_time) WITH &&);
+
+ALTER TABLE schedules
+    ADD CONSTRAINT schedules_bus_no_overlap
+    EXCLUDE USING gist (bus_id WITH =, tsrange(departure_date_time, estimated_arrival_date_time) WITH &&);
@@ -0,0 +1,51 @@
+-- Converts schedules into a table partitioned by month of departure (PostgreSQL 12+)
+-- Run once during a maintenance window with the application stopped. Afterwards the
+-- application creates upcoming partitions itself (ScheduleMaintenanceJob).
+-- The overlap exclusion constraints in schedule_overlap_constraints.sql cannot span
+-- partitions; drop them first. The per-driver/per-bus write locks still apply.
+
+BEGIN;
+
+ALTER TABLE schedules RENAME TO schedules_unpartitioned;
+ALTER TABLE schedules_unpartitioned RENAME CONSTRAINT schedules_pkey TO schedules_unpartitioned_pkey;
+
+CREATE TABLE schedules (
+    LIKE schedules_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING IDENTITY,
+    PRIMARY KEY (id, departure_date_time)
+) PARTITION BY RANGE (departure_date_time);
+
+ALTER TABLE schedules ADD FOREIGN KEY (driver_id) REFERENCES users (id);
+ALTER TABLE schedules ADD FOREIGN KEY (bus_id) REFERENCES buses (id);
+ALTER TABLE schedules ADD FOREIGN KEY (route_id) REFERENCES routes (id);
+
+-- One partition per month that has data, from the oldest schedule through three months ahead
+DO $$
+DECLARE
+    month date := date_trunc('month', coalesce((SELECT min(departure_date_time) FROM schedules_unpartitioned), now()));
+    last_month date := date_trunc('month', now() + interval '3 months');
+BEGIN
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF schedules FOR VALUES FROM (%L) TO (%L)',
+            'schedules_' || to_char(month, 'YYYY_MM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+CREATE TABLE schedules_default PARTITION OF schedules DEFAULT;
+
+INSERT INTO schedules SELECT * FROM schedules_unpartitioned;
+
+-- Continue ids where the old table left off
+SELECT setval(pg_get_serial_sequence('schedules', 'id'), coalesce((SELECT max(id) FROM schedules), 0) + 1, false);
+DROP TABLE schedules_unpartitioned;
+
+-- Same index names as the entity declares, free again now that the old table is gone
+CREATE INDEX idx_schedules_departure_id ON schedules (departure_date_time, id);
+CREATE INDEX idx_schedules_driver_departure ON schedules (driver_id, departure_date_time);
+CREATE INDEX idx_schedules_bus_departure ON schedules (bus_id, departure_date_time);
+CREATE INDEX idx_schedules_route_departure ON schedules (route_id, departure_date_time);
+CREATE INDEX idx_schedules_status_departure ON schedules (status, departure_date_time);
+CREATE INDEX idx_schedules_status_arrival ON schedules (status, estimated_arrival_date_time);
+CREATE INDEX idx_schedules_updated_at ON schedules (updated_at);
+
+COMMIT;
@@ -0,0 +1,4 @@
+-- Persists the per-user security version that claims-only authentication checks tokens against
+-- (UserSecurityVersions). Run before deploying with ddl-auto: validate.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS security_version BIGINT NOT NULL DEFAULT 0;
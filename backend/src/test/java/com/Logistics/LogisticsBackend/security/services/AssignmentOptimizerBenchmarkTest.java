@@ -0,0 +1,121 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+class AssignmentOptimizerBenchmarkTest {
+
+	private static final int GROUPS = 10;
+	private static final int TRIPS_PER_GROUP = 500;
+	private static final int RESOURCES_PER_GROUP = 120;
+	private static final long TURNAROUND = 10 * 60;
+	private static final long DAY_START = 5 * 3600;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	@Tag("benchmark")
+	void assigns5000TripsInUnderASecondWithoutConflicts() {
+		Random random = new Random(42);
+		List<AssignmentOptimizer.Group> groups = new ArrayList<>();
+		for (int g = 0; g < GROUPS; g++) {
+			List<AssignmentOptimizer.Trip> trips = new ArrayList<>();
+			for (int i = 0; i < TRIPS_PER_GROUP; i++) {
+				long start = DAY_START + random.nextInt(18 * 60) * 60L;
+				trips.add(new AssignmentOptimizer.Trip(start, start + (30 + random.nextInt(90)) * 60L));
+			}
+			groups.add(new AssignmentOptimizer.Group(trips, resources(g, 1, random), resources(g, 2, random)));
+		}
+		AssignmentOptimizer optimizer = new AssignmentOptimizer(TURNAROUND);
+
+		for (int i = 0; i < 5; i++) {
+			optimizer.optimize(groups, executor); // Warm up
+		}
+		long best = Long.MAX_VALUE;
+		List<AssignmentOptimizer.Plan> plans = null;
+		for (int i = 0; i < 5; i++) {
+			long started = System.nanoTime();
+			plans = optimizer.optimize(groups, executor);
+			best = Math.min(best, System.nanoTime() - started);
+		}
+		long millis = best / 1_000_000;
+		assertTrue(millis < 1000, "Assignment took " + millis + " ms");
+
+		int assigned = 0;
+		for (int g = 0; g < GROUPS; g++) {
+			assigned += assertConflictFree(groups.get(g), plans.get(g));
+		}
+		assertEquals(GROUPS * TRIPS_PER_GROUP, assigned, "Every trip should get a driver and a bus");
+	}
+
+	// A few resources per group already have a morning and an evening schedule
+	private static List<AssignmentOptimizer.Resource> resources(int group, int kind, Random random) {
+		List<AssignmentOptimizer.Resource> resources = new ArrayList<>();
+		for (int i = 0; i < RESOURCES_PER_GROUP; i++) {
+			long id = (group * 10_000L + i) * 10 + kind;
+			if (i % 10 == 0) {
+				long morning = DAY_START + random.nextInt(120) * 60L;
+				long evening = DAY_START + 12 * 3600 + random.nextInt(120) * 60L;
+				resources.add(new AssignmentOptimizer.Resource(id,
+						new long[] { morning, evening }, new long[] { morning + 3600, evening + 3600 }));
+			} else {
+				resources.add(new AssignmentOptimizer.Resource(id));
+			}
+		}
+		return resources;
+	}
+
+	private static int assertConflictFree(AssignmentOptimizer.Group group, AssignmentOptimizer.Plan plan) {
+		Map<Long, List<long[]>> byDriver = new HashMap<>();
+		Map<Long, List<long[]>> byBus = new HashMap<>();
+		int assigned = 0;
+		for (int i = 0; i < group.trips.size(); i++) {
+			if (plan.driverId(i) == AssignmentOptimizer.UNASSIGNED) {
+				continue;
+			}
+			assigned++;
+			AssignmentOptimizer.Trip trip = group.trips.get(i);
+			byDriver.computeIfAbsent(plan.driverId(i), id -> new ArrayList<>()).add(new long[] { trip.start, trip.end });
+			byBus.computeIfAbsent(plan.busId(i), id -> new ArrayList<>()).add(new long[] { trip.start, trip.end });
+		}
+		assertSpaced(byDriver, group.drivers);
+		assertSpaced(byBus, group.buses);
+		return assigned;
+	}
+
+	private static void assertSpaced(Map<Long, List<long[]>> intervals, List<AssignmentOptimizer.Resource> resources) {
+		for (AssignmentOptimizer.Resource resource : resources) {
+			List<long[]> all = new ArrayList<>(intervals.getOrDefault(resource.id, List.of()));
+			for (int b = 0; b < resource.blockedStarts.length; b++) {
+				all.add(new long[] { resource.blockedStarts[b], resource.blockedEnds[b] });
+			}
+			all.sort((x, y) -> Long.compare(x[0], y[0]));
+			for (int i = 1; i < all.size(); i++) {
+				assertTrue(all.get(i - 1)[1] + TURNAROUND <= all.get(i)[0], "Resource " + resource.id + " is double-booked");
+			}
+		}
+	}
+}
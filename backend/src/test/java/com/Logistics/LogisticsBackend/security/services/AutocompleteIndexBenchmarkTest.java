@@ -0,0 +1,163 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.payload.response.SearchSuggestion;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.StopRepository;
+
+class AutocompleteIndexBenchmarkTest {
+
+	private static final String[] PLACES = { "Cubao", "Quiapo", "Makati", "Pasig", "Taguig", "Manila", "Alabang", "Baclaran",
+			"Marikina", "Novaliches", "Fairview", "Monumento", "Ortigas", "Lawton", "Divisoria", "Sampaloc", "Malabon",
+			"Navotas", "Caloocan", "Valenzuela", "Muntinlupa", "Pateros", "Mandaluyong", "Parañaque", "Las Piñas" };
+	private static final String[] KINDS = { "Terminal", "Market", "Church", "Plaza", "Station", "Hospital", "School",
+			"Mall", "Park", "Crossing", "Junction", "Hall" };
+	private static final String[] STREETS = { "Rizal Avenue", "EDSA", "Aurora Boulevard", "Taft Avenue", "España Boulevard",
+			"Ortigas Avenue", "Shaw Boulevard", "Quezon Avenue", "Roxas Boulevard", "Commonwealth Avenue" };
+
+	@Test
+	void ranksPrefixesTyposAndCodes() {
+		List<Stop> stops = List.of(
+				stop(1, "Cubao Terminal", "Aurora Boulevard", "Gateway Mall"),
+				stop(2, "Cubao Farmers Market", "EDSA", null),
+				stop(3, "Parañaque City Hall", "Quirino Avenue", null),
+				stop(4, "Terminal 3", "Andrews Avenue", "NAIA"));
+		List<Route> routes = List.of(route(1, "QC-01", "Quiapo - Cubao", "Northbound"));
+		AutocompleteIndex index = index(routes, stops);
+
+		assertEquals(List.of(1L), ids(index.search("cubao term", null, 10)));
+		// The stop named after it comes before the route and stop that only mention it
+		List<SearchSuggestion> cubao = index.search("Cubao", null, 10);
+		assertEquals(3, cubao.size());
+		assertTrue(cubao.get(0).getScore() > cubao.get(2).getScore());
+		// Swapped letters and a missing letter
+		assertEquals(3, index.search("cuabo", null, 10).size());
+		assertEquals(List.of(2L), ids(index.search("cubao farmrs", null, 10)));
+		// Accents are folded on both sides
+		assertEquals(List.of(3L), ids(index.search("paranaque", null, 10)));
+		// Route codes, and filtering by type
+		assertEquals(List.of(1L), ids(index.search("qc-0", AutocompleteIndex.ROUTE, 10)));
+		assertTrue(index.search("qc", AutocompleteIndex.STOP, 10).isEmpty());
+		// Landmarks count; a label starting with the query ranks first
+		assertEquals(List.of(1L), ids(index.search("gateway", null, 10)));
+		assertEquals(List.of(4L, 1L), ids(index.search("terminal", null, 10)));
+		// Short words only match exactly or as a prefix
+		assertTrue(index.search("cbu", null, 10).isEmpty());
+	}
+
+	@Test
+	void followsSavesAndDeletes() {
+		RouteRepository routeRepository = mock(RouteRepository.class);
+		StopRepository stopRepository = mock(StopRepository.class);
+		AutocompleteIndex index = index(routeRepository, stopRepository, List.of(), List.of(stop(1, "Lawton Plaza", null, null)));
+
+		when(stopRepository.findById(1L)).thenReturn(Optional.of(stop(1, "Liwasang Bonifacio", null, null)));
+		index.onNetworkChanged(NetworkChangedEvent.stop(1L));
+		assertTrue(index.search("lawton", null, 10).isEmpty());
+		assertEquals(List.of(1L), ids(index.search("liwa", null, 10)));
+
+		when(routeRepository.findById(7L)).thenReturn(Optional.of(route(7, "LB-7", "Lawton - Baclaran", null)));
+		index.onNetworkChanged(NetworkChangedEvent.route(7L));
+		assertEquals(List.of(7L), ids(index.search("lawton", null, 10)));
+
+		when(routeRepository.findById(7L)).thenReturn(Optional.empty());
+		when(stopRepository.findById(1L)).thenReturn(Optional.empty());
+		index.onNetworkChanged(NetworkChangedEvent.route(7L));
+		index.onNetworkChanged(NetworkChangedEvent.stop(1L));
+		assertTrue(index.search("l", null, 10).isEmpty());
+	}
+
+	@Test
+	@Tag("benchmark")
+	void answersKeystrokesQuicklyWithAHundredThousandStops() {
+		Random random = new Random(42);
+		List<Stop> stops = new ArrayList<>();
+		for (long id = 1; id <= 100_000; id++) {
+			String name = PLACES[random.nextInt(PLACES.length)] + " " + KINDS[random.nextInt(KINDS.length)] + " " + id;
+			stops.add(stop(id, name, STREETS[random.nextInt(STREETS.length)], null));
+		}
+		List<Route> routes = new ArrayList<>();
+		for (long id = 1; id <= 2000; id++) {
+			routes.add(route(id, "R-" + id, PLACES[random.nextInt(PLACES.length)] + " - " + PLACES[random.nextInt(PLACES.length)], null));
+		}
+		AutocompleteIndex index = index(routes, stops);
+
+		// Every keystroke of a few queries, some with typos
+		List<String> keystrokes = new ArrayList<>();
+		for (String query : new String[] { "cubao terminal 12", "mkati hospital", "parañaque mall 9", "rizal ave", "ortigs station" }) {
+			for (int i = 1; i <= query.length(); i++) {
+				keystrokes.add(query.substring(0, i));
+			}
+		}
+		for (int round = 0; round < 5; round++) {
+			keystrokes.forEach(query -> index.search(query, null, 10));
+		}
+
+		long started = System.nanoTime();
+		int rounds = 10;
+		for (int round = 0; round < rounds; round++) {
+			for (String query : keystrokes) {
+				index.search(query, null, 10);
+			}
+		}
+		double averageMs = (System.nanoTime() - started) / 1_000_000.0 / (rounds * keystrokes.size());
+
+		assertTrue(averageMs < 5, "Average keystroke took " + averageMs + " ms");
+		assertFalse(index.search("mkati hospital", null, 10).isEmpty());
+		assertTrue(index.search("cubao terminal 12", null, 10).get(0).getLabel().startsWith("Cubao Terminal 12"));
+	}
+
+	private static AutocompleteIndex index(List<Route> routes, List<Stop> stops) {
+		return index(mock(RouteRepository.class), mock(StopRepository.class), routes, stops);
+	}
+
+	private static AutocompleteIndex index(RouteRepository routeRepository, StopRepository stopRepository, List<Route> routes, List<Stop> stops) {
+		when(routeRepository.findAll()).thenReturn(routes);
+		when(stopRepository.findAll()).thenReturn(stops);
+		AutocompleteIndex index = new AutocompleteIndex();
+		ReflectionTestUtils.setField(index, "routeRepository", routeRepository);
+		ReflectionTestUtils.setField(index, "stopRepository", stopRepository);
+		index.reload();
+		return index;
+	}
+
+	private static List<Long> ids(List<SearchSuggestion> suggestions) {
+		return suggestions.stream().map(SearchSuggestion::getId).collect(Collectors.toList());
+	}
+
+	private static Stop stop(long id, String name, String street, String landmark) {
+		Stop stop = new Stop();
+		stop.setId(id);
+		stop.setName(name);
+		stop.setStreet(street);
+		stop.setLandmark(landmark);
+		return stop;
+	}
+
+	private static Route route(long id, String code, String name, String direction) {
+		Route route = new Route();
+		route.setId(id);
+		route.setRouteCode(code);
+		route.setName(name);
+		route.setDirection(direction);
+		return route;
+	}
+}
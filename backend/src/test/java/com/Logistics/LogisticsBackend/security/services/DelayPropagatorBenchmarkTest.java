@@ -0,0 +1,122 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+class DelayPropagatorBenchmarkTest {
+
+	private static final long MINUTE = 60;
+	private static final long TURNAROUND = 10 * MINUTE;
+
+	@Test
+	void shiftsOnlyWhatNoLongerFitsAndNamesTheCause() {
+		List<ScheduleSlot> slots = List.of(
+				// Driver 1 on bus 1, then bus 2; bus 2 is then taken over by driver 2
+				new ScheduleSlot(1, 1L, 1L, 1L, 0, 60 * MINUTE),
+				new ScheduleSlot(2, 1L, 2L, 1L, 75 * MINUTE, 135 * MINUTE),
+				new ScheduleSlot(3, 2L, 2L, 1L, 150 * MINUTE, 210 * MINUTE),
+				// Plenty of slack: not affected
+				new ScheduleSlot(4, 1L, 3L, 1L, 300 * MINUTE, 360 * MINUTE));
+
+		List<DelayPropagator.Shift> shifts = new DelayPropagator(TURNAROUND).propagate(slots, 1, 30 * MINUTE, false);
+
+		assertEquals(3, shifts.size());
+		assertEquals(1, shifts.get(0).slot.scheduleId);
+		assertNull(shifts.get(0).causedBy);
+		assertEquals(30 * MINUTE, shifts.get(0).startShift);
+		// Ends at 90 + 10 turnaround, was due at 75
+		assertEquals(2, shifts.get(1).slot.scheduleId);
+		assertEquals(25 * MINUTE, shifts.get(1).endShift);
+		assertEquals(DelayPropagator.Cause.DRIVER_OVERLAP, shifts.get(1).cause);
+		// Ends at 160 + 10 turnaround, was due at 150
+		assertEquals(3, shifts.get(2).slot.scheduleId);
+		assertEquals(20 * MINUTE, shifts.get(2).endShift);
+		assertEquals(DelayPropagator.Cause.BUS_OVERLAP, shifts.get(2).cause);
+	}
+
+	@Test
+	void tripUnderWayKeepsItsDeparture() {
+		List<ScheduleSlot> slots = List.of(
+				new ScheduleSlot(1, 1L, 1L, 1L, 0, 60 * MINUTE),
+				new ScheduleSlot(2, 1L, 1L, 1L, 75 * MINUTE, 120 * MINUTE));
+
+		List<DelayPropagator.Shift> shifts = new DelayPropagator(TURNAROUND).propagate(slots, 1, 10 * MINUTE, true);
+
+		assertEquals(0, shifts.get(0).startShift);
+		assertEquals(10 * MINUTE, shifts.get(0).endShift);
+		assertEquals(DelayPropagator.Cause.DRIVER_TURNAROUND, shifts.get(1).cause);
+		// Arrives at 70, so the next trip only loses its turnaround
+		assertEquals(5 * MINUTE, shifts.get(1).endShift);
+	}
+
+	@Test
+	@Tag("benchmark")
+	void propagatesAFullDayInMilliseconds() {
+		// 400 drivers and buses doing 20 trips each; pairs of drivers swap buses between trips so delays cross chains
+		Random random = new Random(42);
+		int pairs = 200;
+		int tripsEach = 20;
+		List<ScheduleSlot> slots = new ArrayList<>();
+		long id = 0;
+		for (int p = 0; p < pairs; p++) {
+			long time = 5 * 3600 + random.nextInt(60) * MINUTE;
+			for (int t = 0; t < tripsEach; t++) {
+				long duration = (30 + random.nextInt(30)) * MINUTE;
+				for (int side = 0; side < 2; side++) {
+					long driver = 2L * p + side;
+					long bus = 2L * p + (side + t) % 2;
+					slots.add(new ScheduleSlot(++id, driver, bus, (long) (p % 50), time, time + duration));
+				}
+				time += duration + TURNAROUND + random.nextInt(10) * MINUTE;
+			}
+		}
+		long delayedId = slots.get(0).scheduleId;
+		DelayPropagator propagator = new DelayPropagator(TURNAROUND);
+
+		for (int i = 0; i < 20; i++) {
+			propagator.propagate(slots, delayedId, 45 * MINUTE, false);
+		}
+		long started = System.nanoTime();
+		List<DelayPropagator.Shift> shifts = propagator.propagate(slots, delayedId, 45 * MINUTE, false);
+		long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+		assertTrue(elapsedMs < 100, "Propagation over " + slots.size() + " trips took " + elapsedMs + " ms");
+		assertTrue(shifts.size() > 1);
+
+		// After the shifts no driver or bus chain misses its turnaround because of the delay
+		Map<Long, Long> shiftById = new HashMap<>();
+		shifts.forEach(shift -> shiftById.put(shift.slot.scheduleId, shift.endShift));
+		assertTrue(chainsKeepTurnaround(slots, shiftById, true));
+		assertTrue(chainsKeepTurnaround(slots, shiftById, false));
+	}
+
+	private static boolean chainsKeepTurnaround(List<ScheduleSlot> slots, Map<Long, Long> shiftById, boolean byDriver) {
+		Map<Long, ScheduleSlot> last = new HashMap<>();
+		List<ScheduleSlot> sorted = new ArrayList<>(slots);
+		sorted.sort((a, b) -> Long.compare(a.start, b.start));
+		for (ScheduleSlot slot : sorted) {
+			long resource = byDriver ? slot.driverId : slot.busId;
+			ScheduleSlot previous = last.put(resource, slot);
+			if (previous == null) {
+				continue;
+			}
+			long previousEnd = previous.end + shiftById.getOrDefault(previous.scheduleId, 0L);
+			long start = slot.start + shiftById.getOrDefault(slot.scheduleId, 0L);
+			boolean fitBefore = previous.end + TURNAROUND <= slot.start;
+			if (fitBefore && previousEnd + TURNAROUND > start) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,122 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+class DepartureBoardBenchmarkTest {
+
+	private static final long HOUR = 3600;
+
+	@Test
+	void listsTheNextDeparturesAndFollowsChanges() {
+		// Stops 1 -> 2 -> 3, ten minutes apart; stop 3 is the terminus
+		DepartureBoard.Line line = new DepartureBoard.Line(7, "R7", "North Loop", "Stop 3", new long[] { 1, 2, 3 }, new int[] { 0, 600, 1200 });
+		List<TransitNetwork.Trip> trips = List.of(
+				new TransitNetwork.Trip(100, 7, 0),
+				new TransitNetwork.Trip(101, 7, 1800),
+				new TransitNetwork.Trip(102, 7, -300), // Left before the window, still reaches stop 2 in it
+				new TransitNetwork.Trip(103, 7, -3600), // Already done
+				new TransitNetwork.Trip(104, 7, 2 * HOUR)); // Beyond the window
+		DepartureBoard board = DepartureBoard.build(0, HOUR, List.of(line), trips);
+
+		assertEquals(List.of(100L, 101L), scheduleIds(board.departures(1, 0, 10)));
+		assertEquals(List.of(102L, 100L, 101L), scheduleIds(board.departures(2, 0, 10)));
+		assertEquals(List.of(101L), scheduleIds(board.departures(2, 601, 10)));
+		assertEquals(List.of(), board.departures(3, 0, 10)); // Nothing leaves the terminus
+		assertEquals(List.of(100L), scheduleIds(board.departures(1, 0, 1)));
+		assertEquals(300, board.departures(2, 0, 1).get(0).time);
+		assertEquals("Stop 3", board.departures(2, 0, 1).get(0).line.destination);
+
+		// Moved later, then a new trip, then one cancelled
+		board.putTrip(new TransitNetwork.Trip(100, 7, 2400));
+		board.putTrip(new TransitNetwork.Trip(105, 7, 300));
+		board.removeTrip(101);
+		assertEquals(List.of(105L, 100L), scheduleIds(board.departures(1, 0, 10)));
+
+		// The route now skips stop 2
+		board.putLine(7, new DepartureBoard.Line(7, "R7", "North Loop", "Stop 3", new long[] { 1, 3 }, new int[] { 0, 900 }));
+		assertEquals(List.of(), board.departures(2, 0, 10));
+		assertEquals(List.of(105L, 100L), scheduleIds(board.departures(1, 0, 10)));
+
+		// Half an hour on: 105 has left, 104 departs into the window
+		board.roll(1800, HOUR + 1800, List.of(new TransitNetwork.Trip(104, 7, HOUR + 600)));
+		assertEquals(List.of(100L, 104L), scheduleIds(board.departures(1, 0, 10)));
+		assertEquals(2, board.tripCount());
+	}
+
+	@Test
+	void leavesALoopStopOncePerVisit() {
+		DepartureBoard.Line loop = new DepartureBoard.Line(1, "L", "Loop", "Depot", new long[] { 10, 20, 10, 30 }, new int[] { 0, 300, 600, 900 });
+		DepartureBoard board = DepartureBoard.build(0, HOUR, List.of(loop), List.of(new TransitNetwork.Trip(5, 1, 0)));
+
+		List<DepartureBoard.Departure> departures = board.departures(10, 0, 10);
+		assertEquals(List.of(0L, 600L), departures.stream().map(d -> d.time).toList());
+
+		board.removeTrip(5);
+		assertEquals(List.of(), board.departures(10, 0, 10));
+		assertEquals(0, board.stopCount());
+	}
+
+	@Test
+	@Tag("benchmark")
+	void answersLookupsInMicroseconds() {
+		// 500 routes of 30 stops, a trip every 5 minutes over 3 hours: 18,000 trips, 522,000 departures
+		int routes = 500;
+		int stopsPerRoute = 30;
+		int stops = 4000;
+		Random random = new Random(42);
+		List<DepartureBoard.Line> lines = new ArrayList<>();
+		List<TransitNetwork.Trip> trips = new ArrayList<>();
+		long scheduleId = 0;
+		for (int r = 0; r < routes; r++) {
+			long[] stopIds = new long[stopsPerRoute];
+			int[] offsets = new int[stopsPerRoute];
+			for (int i = 0; i < stopsPerRoute; i++) {
+				stopIds[i] = random.nextInt(stops);
+				offsets[i] = i * 150;
+			}
+			lines.add(new DepartureBoard.Line(r, "R" + r, "Route " + r, "End " + r, stopIds, offsets));
+			for (long departure = 0; departure < 3 * HOUR; departure += 300) {
+				trips.add(new TransitNetwork.Trip(scheduleId++, r, departure));
+			}
+		}
+		DepartureBoard board = DepartureBoard.build(0, 3 * HOUR, lines, trips);
+		assertEquals(18_000, board.tripCount());
+
+		int lookups = 200_000;
+		long found = 0;
+		// Warm up, then measure
+		for (int i = 0; i < lookups; i++) {
+			found += board.departures(random.nextInt(stops), random.nextInt((int) (3 * HOUR)), 10).size();
+		}
+		long started = System.nanoTime();
+		for (int i = 0; i < lookups; i++) {
+			found += board.departures(random.nextInt(stops), random.nextInt((int) (3 * HOUR)), 10).size();
+		}
+		double microsPerLookup = (System.nanoTime() - started) / 1_000.0 / lookups;
+
+		assertTrue(found > 0);
+		// A wide margin for slow build machines
+		assertTrue(microsPerLookup < 20, "A lookup took " + microsPerLookup + " µs");
+
+		// Keeping up with changes: a thousand trips moved one by one
+		started = System.nanoTime();
+		for (int i = 0; i < 1000; i++) {
+			TransitNetwork.Trip trip = trips.get(random.nextInt(trips.size()));
+			board.putTrip(new TransitNetwork.Trip(trip.scheduleId, trip.routeId, trip.departure + 60));
+		}
+		double millisPerChange = (System.nanoTime() - started) / 1_000_000.0 / 1000;
+		assertTrue(millisPerChange < 5, "A change took " + millisPerChange + " ms");
+	}
+
+	private static List<Long> scheduleIds(List<DepartureBoard.Departure> departures) {
+		return departures.stream().map(d -> d.scheduleId).toList();
+	}
+}
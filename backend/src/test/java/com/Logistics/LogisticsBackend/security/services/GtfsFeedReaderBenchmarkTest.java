@@ -0,0 +1,168 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GtfsFeedReaderBenchmarkTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsStopsAndTheLongestTripOfEveryRouteAndDirection() throws IOException {
+		Path feed = dir.resolve("feed.zip");
+		try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(feed))) {
+			// Zipped with its folder, as feeds often are
+			entry(zip, "feed/stops.txt", "stop_id,stop_name,stop_lat,stop_lon,location_type\n"
+					+ "S1,Cubao,14.62,121.05,0\n"
+					+ "S2,\"Quiapo, Church\",14.60,120.98,\n"
+					+ "ST,Cubao Station,14.62,121.05,1\n"
+					+ ",No Id,14.0,121.0,0\n");
+			entry(zip, "feed/routes.txt", "route_id,route_short_name,route_long_name\nR1,1,Cubao - Quiapo\n");
+			entry(zip, "feed/trips.txt", "route_id,trip_id,direction_id,trip_headsign\n"
+					+ "R1,T1,0,Quiapo\nR1,T2,0,Quiapo Express\nR1,T3,1,Cubao\nR9,T4,0,Nowhere\n");
+			// T2 is longer than T1 and its rows are out of order; T3 runs past midnight
+			entry(zip, "feed/stop_times.txt", "trip_id,arrival_time,departure_time,stop_id,stop_sequence\n"
+					+ "T1,08:00:00,08:00:00,S1,1\n"
+					+ "T2,09:20:00,09:20:00,S2,3\n"
+					+ "T2,09:00:00,09:01:00,S1,1\n"
+					+ "T2,,,S3,2\n"
+					+ "T3,23:50:00,23:50:00,S2,1\n"
+					+ "T3,24:10:30,24:11:00,S1,2\n"
+					+ "T4,10:00:00,10:00:00,S1,1\n");
+		}
+
+		try (GtfsFeedReader reader = new GtfsFeedReader(feed)) {
+			List<GtfsFeedReader.Stop> stops = new ArrayList<>();
+			reader.readStops(stops::add);
+			assertEquals(2, stops.size());
+			assertEquals("Quiapo, Church", stops.get(1).name);
+			assertEquals(120.98, stops.get(1).longitude);
+
+			List<GtfsFeedReader.Pattern> patterns = reader.readPatterns();
+			assertEquals(2, patterns.size());
+			GtfsFeedReader.Pattern outbound = patterns.get(0);
+			assertEquals("0", outbound.directionId);
+			assertEquals("Quiapo Express", outbound.headsign);
+			assertEquals(List.of("S1", "S3", "S2"), outbound.stopIds);
+			assertEquals(List.of(9 * 3600, GtfsFeedReader.NO_TIME, 9 * 3600 + 20 * 60), outbound.arrivals);
+			assertEquals(9 * 3600 + 60, outbound.departures.get(0));
+			GtfsFeedReader.Pattern inbound = patterns.get(1);
+			assertEquals("Cubao - Quiapo", inbound.route.longName);
+			assertEquals(24 * 3600 + 10 * 60 + 30, inbound.arrivals.get(1));
+
+			// The stop without an id, the trip of an unknown route and its stop time; stations are not rows to import
+			assertEquals(3, reader.getSkippedRows());
+		}
+	}
+
+	@Test
+	void rejectsFeedsWithoutTheRequiredFiles() throws IOException {
+		Path feed = dir.resolve("partial.zip");
+		try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(feed))) {
+			entry(zip, "stops.txt", "stop_id,stop_name\n");
+			entry(zip, "routes.txt", "route_id\n");
+		}
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new GtfsFeedReader(feed));
+		assertEquals("The feed has no trips.txt", e.getMessage());
+	}
+
+	@Test
+	@Tag("benchmark")
+	void readsMillionsOfStopTimesWithoutHoldingThem() throws IOException {
+		// 400 routes, 2 directions, 50 trips each of 30 stops: 1.2 million stop_times rows
+		int routes = 400;
+		int tripsPerDirection = 50;
+		int stopsPerTrip = 30;
+		Path feed = dir.resolve("large.zip");
+		try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(feed))) {
+			Writer out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 1 << 16);
+			zip.putNextEntry(new ZipEntry("stops.txt"));
+			out.write("stop_id,stop_name,stop_lat,stop_lon\n");
+			for (int s = 0; s < routes * stopsPerTrip; s++) {
+				out.write("S" + s + ",Stop " + s + "," + (14 + s * 1e-5) + "," + (121 + s * 1e-5) + "\n");
+			}
+			out.flush();
+			zip.putNextEntry(new ZipEntry("routes.txt"));
+			out.write("route_id,route_short_name\n");
+			for (int r = 0; r < routes; r++) {
+				out.write("R" + r + "," + r + "\n");
+			}
+			out.flush();
+			zip.putNextEntry(new ZipEntry("trips.txt"));
+			out.write("route_id,trip_id,direction_id\n");
+			for (int r = 0; r < routes; r++) {
+				for (int d = 0; d < 2; d++) {
+					for (int t = 0; t < tripsPerDirection; t++) {
+						out.write("R" + r + ",T" + r + "_" + d + "_" + t + "," + d + "\n");
+					}
+				}
+			}
+			out.flush();
+			zip.putNextEntry(new ZipEntry("stop_times.txt"));
+			out.write("trip_id,arrival_time,departure_time,stop_id,stop_sequence\n");
+			long rows = 0;
+			for (int r = 0; r < routes; r++) {
+				for (int d = 0; d < 2; d++) {
+					for (int t = 0; t < tripsPerDirection; t++) {
+						// Trip 7 of every direction has one extra stop and is the one kept
+						int stops = t == 7 ? stopsPerTrip + 1 : stopsPerTrip;
+						for (int i = 0; i < stops; i++) {
+							int seconds = 5 * 3600 + t * 600 + i * 90;
+							String time = String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+							out.write("T" + r + "_" + d + "_" + t + "," + time + "," + time + ",S" + (r * stopsPerTrip + i % stopsPerTrip)
+									+ "," + (i + 1) + "\n");
+							rows++;
+						}
+					}
+				}
+			}
+			out.flush();
+			zip.closeEntry();
+			assertTrue(rows > 1_200_000);
+		}
+
+		long started = System.nanoTime();
+		List<GtfsFeedReader.Pattern> patterns;
+		int stopCount;
+		try (GtfsFeedReader reader = new GtfsFeedReader(feed)) {
+			int[] stops = new int[1];
+			reader.readStops(stop -> stops[0]++);
+			stopCount = stops[0];
+			patterns = reader.readPatterns();
+		}
+		double elapsedMs = (System.nanoTime() - started) / 1_000_000.0;
+
+		assertEquals(routes * stopsPerTrip, stopCount);
+		assertEquals(routes * 2, patterns.size());
+		for (GtfsFeedReader.Pattern pattern : patterns) {
+			assertEquals(stopsPerTrip + 1, pattern.stopIds.size());
+			assertEquals(5 * 3600 + 7 * 600, pattern.departures.get(0));
+		}
+		// Two passes over 1.2 million rows, with a wide margin for slow build machines
+		assertTrue(elapsedMs < 15_000, "Reading took " + elapsedMs + " ms");
+	}
+
+	private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(content.getBytes(StandardCharsets.UTF_8));
+		zip.closeEntry();
+	}
+}
@@ -0,0 +1,95 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GtfsFeedWriterTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void writesAFeedThatReadsBack() throws IOException {
+		Path feed = dir.resolve("feed.zip");
+		LocalDate date = LocalDate.of(2026, 10, 18);
+		try (OutputStream out = Files.newOutputStream(feed)) {
+			GtfsFeedWriter writer = new GtfsFeedWriter(out);
+			writer.agency("UrbanSync", "https://example.com", "Asia/Manila");
+			writer.beginStops();
+			writer.stop("stop-1", "Cubao", null, 14.62, 121.05);
+			writer.stop("S2", "Quiapo, Church", "By the church", 14.60, 120.98);
+			writer.beginRoutes();
+			writer.route("route-1", "R-1", "Cubao - Quiapo", null);
+			writer.beginTrips();
+			writer.trip("route-1", date, "schedule-7", "Southbound");
+			writer.beginStopTimes();
+			// Departs before midnight and arrives after it
+			writer.stopTime("schedule-7", 23 * 3600 + 50 * 60, 23 * 3600 + 50 * 60, "stop-1", 1);
+			writer.stopTime("schedule-7", 24 * 3600 + 5 * 60 + 30, 24 * 3600 + 5 * 60 + 30, "S2", 2);
+			writer.beginCalendarDates();
+			writer.serviceDate(date);
+			writer.finish();
+		}
+
+		try (GtfsFeedReader reader = new GtfsFeedReader(feed)) {
+			List<GtfsFeedReader.Stop> stops = new ArrayList<>();
+			reader.readStops(stops::add);
+			assertEquals(2, stops.size());
+			assertEquals("Quiapo, Church", stops.get(1).name);
+			assertEquals(14.60, stops.get(1).latitude);
+
+			List<GtfsFeedReader.Pattern> patterns = reader.readPatterns();
+			assertEquals(1, patterns.size());
+			assertEquals("R-1", patterns.get(0).route.shortName);
+			assertEquals("Southbound", patterns.get(0).headsign);
+			assertEquals(List.of("stop-1", "S2"), patterns.get(0).stopIds);
+			assertEquals(List.of(23 * 3600 + 50 * 60, 24 * 3600 + 5 * 60 + 30), patterns.get(0).arrivals);
+			assertEquals(0, reader.getSkippedRows());
+		}
+		try (ZipFile zip = new ZipFile(feed.toFile())) {
+			String stopTimes = new String(zip.getInputStream(zip.getEntry(GtfsFeedReader.STOP_TIMES)).readAllBytes(), StandardCharsets.UTF_8);
+			assertTrue(stopTimes.contains("schedule-7,24:05:30,24:05:30,S2,2,0\r\n"), stopTimes);
+			String dates = new String(zip.getInputStream(zip.getEntry(GtfsFeedWriter.CALENDAR_DATES)).readAllBytes(), StandardCharsets.UTF_8);
+			assertEquals("service_id,date,exception_type\r\n20261018,20261018,1\r\n", dates);
+		}
+	}
+
+	@Test
+	@Tag("benchmark")
+	void writesAMillionStopTimesInSeconds() throws IOException {
+		// A month of 1,000 daily trips over 35 stops
+		int trips = 30_000;
+		int stops = 35;
+		long started = System.nanoTime();
+		try (OutputStream out = OutputStream.nullOutputStream()) {
+			GtfsFeedWriter writer = new GtfsFeedWriter(out);
+			writer.beginStopTimes();
+			for (int t = 0; t < trips; t++) {
+				String tripId = "schedule-" + t;
+				int departure = 5 * 3600 + (t % 1000) * 60;
+				for (int i = 0; i < stops; i++) {
+					int time = departure + i * 150;
+					writer.stopTime(tripId, time, time, "stop-" + i, i + 1);
+				}
+			}
+			writer.finish();
+		}
+		double elapsedMs = (System.nanoTime() - started) / 1_000_000.0;
+		// Mostly deflate; a wide margin for slow build machines
+		assertTrue(elapsedMs < 15_000, "Writing took " + elapsedMs + " ms");
+	}
+}
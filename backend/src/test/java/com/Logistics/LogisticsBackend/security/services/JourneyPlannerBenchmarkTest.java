@@ -0,0 +1,194 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+class JourneyPlannerBenchmarkTest {
+
+	private static final long DAY = 24 * 3600;
+	private static final int MINUTE = 60;
+	private static final int TRANSFER = 2 * MINUTE;
+
+	@Test
+	void changesBusWhenItArrivesEarlierAndKeepsTheTransferTime() {
+		Map<Long, TransitNetwork.Pattern> patterns = Map.of(
+				// 1 -> 2 -> 3 slowly, 1 -> 2 quickly, 2 -> 3 quickly
+				1L, new TransitNetwork.Pattern(new long[] { 1, 2, 3 }, new int[] { 0, 30 * MINUTE, 60 * MINUTE }),
+				2L, new TransitNetwork.Pattern(new long[] { 1, 2 }, new int[] { 0, 10 * MINUTE }),
+				3L, new TransitNetwork.Pattern(new long[] { 2, 3 }, new int[] { 0, 10 * MINUTE }));
+		List<TransitNetwork.Trip> trips = List.of(
+				new TransitNetwork.Trip(10, 1, 8 * 3600),
+				new TransitNetwork.Trip(20, 2, 8 * 3600),
+				// Leaves one minute after the quick trip arrives: too tight to change
+				new TransitNetwork.Trip(30, 3, 8 * 3600 + 11 * MINUTE),
+				new TransitNetwork.Trip(31, 3, 8 * 3600 + 15 * MINUTE));
+		TransitNetwork network = TransitNetwork.build(0, DAY, patterns, trips);
+
+		TransitNetwork.Journey journey = network.earliestArrival(1, 3, 8 * 3600, TRANSFER);
+
+		assertEquals(2, journey.legs.size());
+		assertEquals(20, journey.legs.get(0).scheduleId);
+		assertEquals(31, journey.legs.get(1).scheduleId);
+		assertEquals(2, journey.legs.get(1).fromStopId);
+		assertEquals(8 * 3600 + 25 * MINUTE, journey.arrival());
+
+		// Without the second quick trip, staying on the slow bus wins
+		TransitNetwork withoutTrip = network.withTrips(Set.of(31L), List.of());
+		journey = withoutTrip.earliestArrival(1, 3, 8 * 3600, TRANSFER);
+		assertEquals(1, journey.legs.size());
+		assertEquals(10, journey.legs.get(0).scheduleId);
+		assertEquals(9 * 3600, journey.arrival());
+
+		// Route 3 loses its stops: only the slow bus is left
+		TransitNetwork withoutRoute = network.withPattern(3, null);
+		assertEquals(10, withoutRoute.earliestArrival(1, 3, 8 * 3600, TRANSFER).legs.get(0).scheduleId);
+		assertNull(withoutRoute.earliestArrival(1, 3, 8 * 3600 + MINUTE, TRANSFER));
+		// The network it was derived from is unchanged
+		assertEquals(31, network.earliestArrival(1, 3, 8 * 3600, TRANSFER).legs.get(1).scheduleId);
+	}
+
+	@Test
+	void incrementalChangesMatchAFullBuild() {
+		Random random = new Random(7);
+		Map<Long, TransitNetwork.Pattern> patterns = randomPatterns(random, 60, 80);
+		List<TransitNetwork.Trip> trips = randomTrips(random, patterns, 3000);
+		TransitNetwork incremental = TransitNetwork.build(0, DAY, patterns, trips);
+
+		Map<Long, TransitNetwork.Trip> expected = new HashMap<>();
+		trips.forEach(trip -> expected.put(trip.scheduleId, trip));
+		Map<Long, TransitNetwork.Pattern> expectedPatterns = new HashMap<>(patterns);
+		long nextId = trips.size() + 1;
+		for (int round = 0; round < 20; round++) {
+			List<Long> removed = new ArrayList<>();
+			List<TransitNetwork.Trip> upserted = new ArrayList<>();
+			Set<Long> touched = new HashSet<>();
+			for (int i = 0; i < 20; i++) {
+				long id = 1 + random.nextInt((int) nextId - 1);
+				// A schedule is either removed or upserted within one change
+				if (!touched.add(id)) {
+					continue;
+				}
+				if (random.nextBoolean()) {
+					removed.add(id);
+					expected.remove(id);
+				} else {
+					TransitNetwork.Trip moved = new TransitNetwork.Trip(id, 1 + random.nextInt(80), 5 * 3600 + random.nextInt(16 * 3600));
+					upserted.add(moved);
+					expected.put(id, moved);
+				}
+			}
+			TransitNetwork.Trip added = new TransitNetwork.Trip(nextId++, 1 + random.nextInt(80), 5 * 3600 + random.nextInt(16 * 3600));
+			upserted.add(added);
+			expected.put(added.scheduleId, added);
+			incremental = incremental.withTrips(removed, upserted);
+
+			long routeId = 1 + random.nextInt(80);
+			TransitNetwork.Pattern pattern = randomPatterns(random, 60, 1).get(1L);
+			expectedPatterns.put(routeId, pattern);
+			incremental = incremental.withPattern(routeId, pattern);
+		}
+		TransitNetwork rebuilt = TransitNetwork.build(0, DAY, expectedPatterns, expected.values());
+
+		assertEquals(rebuilt.connectionCount(), incremental.connectionCount());
+		assertEquals(rebuilt.tripCount(), incremental.tripCount());
+		for (int i = 0; i < 300; i++) {
+			long from = 1 + random.nextInt(60);
+			long to = 1 + random.nextInt(60);
+			long departAfter = 5 * 3600 + random.nextInt(14 * 3600);
+			TransitNetwork.Journey a = incremental.earliestArrival(from, to, departAfter, TRANSFER);
+			TransitNetwork.Journey b = rebuilt.earliestArrival(from, to, departAfter, TRANSFER);
+			assertEquals(b == null, a == null);
+			if (a != null) {
+				assertEquals(b.arrival(), a.arrival());
+			}
+		}
+	}
+
+	@Test
+	@Tag("benchmark")
+	void answersQueriesOnAFullDayInUnderTenMilliseconds() {
+		// 500 stops, 100 routes of 8 to 20 stops, 20k trips between 05:00 and 23:00
+		Random random = new Random(42);
+		Map<Long, TransitNetwork.Pattern> patterns = randomPatterns(random, 500, 100);
+		List<TransitNetwork.Trip> trips = randomTrips(random, patterns, 20_000);
+		TransitNetwork network = TransitNetwork.build(0, DAY, patterns, trips);
+		assertEquals(500, network.stopCount());
+		assertEquals(20_000, network.tripCount());
+
+		long[][] queries = new long[500][];
+		for (int i = 0; i < queries.length; i++) {
+			long from = 1 + random.nextInt(500);
+			long to = (from + random.nextInt(499)) % 500 + 1;
+			queries[i] = new long[] { from, to, 6 * 3600 + random.nextInt(12 * 3600) };
+		}
+		for (long[] query : queries) {
+			network.earliestArrival(query[0], query[1], query[2], TRANSFER);
+		}
+
+		int found = 0;
+		long slowest = 0;
+		long started = System.nanoTime();
+		for (long[] query : queries) {
+			long queryStarted = System.nanoTime();
+			if (network.earliestArrival(query[0], query[1], query[2], TRANSFER) != null) {
+				found++;
+			}
+			slowest = Math.max(slowest, System.nanoTime() - queryStarted);
+		}
+		double averageMs = (System.nanoTime() - started) / 1_000_000.0 / queries.length;
+
+		assertTrue(averageMs < 10, "Average query over " + network.connectionCount() + " connections took " + averageMs
+				+ " ms, slowest " + slowest / 1_000_000 + " ms");
+		assertTrue(found > queries.length * 9 / 10, "Only " + found + " of " + queries.length + " queries found a journey");
+		assertNotNull(network.earliestArrival(queries[0][0], queries[0][1], queries[0][2], TRANSFER));
+
+		// An incremental change rebuilds the arrays without reloading anything
+		long changeStarted = System.nanoTime();
+		network.withTrips(Set.of(1L, 2L, 3L), List.of(new TransitNetwork.Trip(20_001, 1, 7 * 3600)));
+		long changeMs = (System.nanoTime() - changeStarted) / 1_000_000;
+		assertTrue(changeMs < 1000, "Incremental change took " + changeMs + " ms");
+	}
+
+	// Routes over stops 1..stops, each hop 2 to 6 minutes plus boarding
+	private static Map<Long, TransitNetwork.Pattern> randomPatterns(Random random, int stops, int routes) {
+		Map<Long, TransitNetwork.Pattern> patterns = new HashMap<>();
+		for (long route = 1; route <= routes; route++) {
+			int length = 8 + random.nextInt(13);
+			long[] stopIds = new long[length];
+			int[] offsets = new int[length];
+			for (int i = 0; i < length; i++) {
+				stopIds[i] = 1 + random.nextInt(stops);
+				offsets[i] = i == 0 ? 0 : offsets[i - 1] + (2 + random.nextInt(5) + RouteSummaryService.BOARDING_TIME_MIN) * MINUTE;
+			}
+			patterns.put(route, new TransitNetwork.Pattern(stopIds, offsets));
+		}
+		// Make sure every stop is served
+		for (int stop = 1; stop <= stops; stop++) {
+			TransitNetwork.Pattern pattern = patterns.get(1L + (stop - 1) % routes);
+			pattern.stopIds[(stop - 1) / routes % pattern.stopIds.length] = stop;
+		}
+		return patterns;
+	}
+
+	private static List<TransitNetwork.Trip> randomTrips(Random random, Map<Long, TransitNetwork.Pattern> patterns, int count) {
+		List<TransitNetwork.Trip> trips = new ArrayList<>();
+		for (long id = 1; id <= count; id++) {
+			long route = 1 + (id - 1) % patterns.size();
+			trips.add(new TransitNetwork.Trip(id, route, 5 * 3600 + random.nextInt(18 * 3600)));
+		}
+		return trips;
+	}
+}
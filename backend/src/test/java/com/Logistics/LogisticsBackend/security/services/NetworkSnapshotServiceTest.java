@@ -0,0 +1,162 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.Logistics.LogisticsBackend.controller.RouteController;
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.event.RouteStopsChangedEvent;
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.RouteStop;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.StopRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class NetworkSnapshotServiceTest {
+
+	private final List<Route> routes = new ArrayList<>();
+	private final List<Stop> stops = new ArrayList<>();
+	private final List<RouteStop> routeStops = new ArrayList<>();
+
+	private RouteRepository routeRepository;
+	private NetworkSnapshotService snapshots;
+
+	@BeforeEach
+	void setUp() {
+		Route route = route(1L, "R-1");
+		routes.add(route);
+		routes.add(route(2L, "R-2"));
+		stops.add(stop(10L, "Cubao"));
+		stops.add(stop(11L, "Quiapo"));
+		routeStops.add(routeStop(100L, route, stops.get(0), 1));
+		routeStops.add(routeStop(101L, route, stops.get(1), 2));
+
+		routeRepository = mock(RouteRepository.class);
+		StopRepository stopRepository = mock(StopRepository.class);
+		RouteStopService routeStopService = mock(RouteStopService.class);
+		when(routeRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(routes));
+		when(stopRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(stops));
+		when(routeStopService.getAllRouteStops()).thenAnswer(invocation -> new ArrayList<>(routeStops));
+
+		snapshots = new NetworkSnapshotService();
+		ReflectionTestUtils.setField(snapshots, "routeRepository", routeRepository);
+		ReflectionTestUtils.setField(snapshots, "stopRepository", stopRepository);
+		ReflectionTestUtils.setField(snapshots, "routeStopService", routeStopService);
+		ReflectionTestUtils.setField(snapshots, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(snapshots, "objectMapper", new ObjectMapper().findAndRegisterModules());
+	}
+
+	@Test
+	void servesTheSameBytesUntilSomethingChanges() {
+		NetworkSnapshotService.Body first = snapshots.routes();
+		assertEquals(first, snapshots.routes());
+		snapshots.stops();
+		snapshots.routeStops();
+		verify(routeRepository, times(1)).findAll();
+
+		// Renaming a stop changes the stop listings but not the routes, so the routes keep their ETag
+		String stopsEtag = snapshots.stops().getEtag();
+		String routeStopsEtag = snapshots.stopsForRoute(1L).getEtag();
+		stops.get(0).setName("Cubao Terminal");
+		snapshots.onNetworkChanged(new NetworkChangedEvent());
+
+		assertNotEquals(stopsEtag, snapshots.stops().getEtag());
+		assertNotEquals(routeStopsEtag, snapshots.stopsForRoute(1L).getEtag());
+		assertEquals(first.getEtag(), snapshots.routes().getEtag());
+		assertArrayEquals(first.getJson(), snapshots.routes().getJson());
+		verify(routeRepository, times(2)).findAll();
+	}
+
+	@Test
+	void reconcilePicksUpChangesMadeElsewhere() {
+		String stopsEtag = snapshots.stops().getEtag();
+		// Renamed by another instance: no event reaches this one
+		stops.get(1).setName("Quiapo Church");
+		assertEquals(stopsEtag, snapshots.stops().getEtag());
+
+		snapshots.reconcile();
+		assertNotEquals(stopsEtag, snapshots.stops().getEtag());
+		verify(routeRepository, times(2)).findAll();
+	}
+
+	@Test
+	void listsStopsPerRoute() {
+		String json = new String(snapshots.stopsForRoute(1L).getJson(), StandardCharsets.UTF_8);
+		assertTrue(json.indexOf("Cubao") < json.indexOf("Quiapo"));
+		assertEquals("[]", new String(snapshots.stopsForRoute(2L).getJson(), StandardCharsets.UTF_8));
+		assertThrows(ResourceNotFoundException.class, () -> snapshots.stopsForRoute(3L));
+
+		routes.add(route(3L, "R-3"));
+		snapshots.onRouteStopsChanged(new RouteStopsChangedEvent(3L));
+		assertEquals("[]", new String(snapshots.stopsForRoute(3L).getJson(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void answersAMatchingIfNoneMatchWithNotModified() throws Exception {
+		RouteController controller = new RouteController();
+		ReflectionTestUtils.setField(controller, "networkSnapshotService", snapshots);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(controller).build();
+		String etag = snapshots.routes().getEtag();
+
+		mvc.perform(get("/api/routes"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", etag))
+				.andExpect(content().bytes(snapshots.routes().getJson()));
+		mvc.perform(get("/api/routes").header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().bytes(new byte[0]));
+		mvc.perform(get("/api/routes").header("If-None-Match", "\"stale\""))
+				.andExpect(status().isOk());
+	}
+
+	private static Route route(Long id, String code) {
+		Route route = new Route();
+		route.setId(id);
+		route.setRouteCode(code);
+		route.setName("Route " + code);
+		return route;
+	}
+
+	private static Stop stop(Long id, String name) {
+		Stop stop = new Stop();
+		stop.setId(id);
+		stop.setName(name);
+		return stop;
+	}
+
+	private static RouteStop routeStop(Long id, Route route, Stop stop, int order) {
+		RouteStop routeStop = new RouteStop();
+		routeStop.setId(id);
+		routeStop.setRoute(route);
+		routeStop.setStop(stop);
+		routeStop.setStopOrder(order);
+		routeStop.setArrivalTime(LocalTime.of(6, order));
+		return routeStop;
+	}
+}
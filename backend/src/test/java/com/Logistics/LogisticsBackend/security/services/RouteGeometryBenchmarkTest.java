@@ -0,0 +1,101 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.Logistics.LogisticsBackend.util.GeoDistance;
+
+class RouteGeometryBenchmarkTest {
+
+	private static final RouteGeometry.SpeedProfile PROFILE = RouteGeometry.SpeedProfile.parse("1:12,3:18,8:25,*:35");
+
+	@Test
+	void measuresHopsAndStopsAtMissingPositions() {
+		double[] latitudes = { 14.6000, 14.6085, 14.6265, Double.NaN, 14.7000 };
+		double[] longitudes = { 121.0000, 121.0000, 121.0000, 121.0000, 121.0000 };
+		double[] km = new double[5];
+		int[] minutes = new int[5];
+
+		RouteGeometry.cumulativeKm(latitudes, longitudes, 1.0, km);
+		RouteGeometry.travelMinutes(km, PROFILE, minutes);
+
+		assertEquals(0, km[0]);
+		assertEquals(GeoDistance.haversineMeters(14.6, 121.0, 14.6085, 121.0) / 1000, km[1], 1e-9);
+		assertEquals(GeoDistance.haversineMeters(14.6, 121.0, 14.6265, 121.0) / 1000, km[2], 1e-9);
+		assertTrue(Double.isNaN(km[3]));
+		assertTrue(Double.isNaN(km[4]));
+		// Just under 1 km at 12 km/h, then 2 km at 18 km/h
+		assertEquals(RouteGeometry.UNKNOWN_MINUTES, minutes[0]);
+		assertEquals(5, minutes[1]);
+		assertEquals(7, minutes[2]);
+		assertEquals(RouteGeometry.UNKNOWN_MINUTES, minutes[3]);
+		assertEquals(RouteGeometry.UNKNOWN_MINUTES, minutes[4]);
+
+		// The detour factor stretches every hop; two stops at the same spot still take a minute
+		double[] stretched = new double[3];
+		RouteGeometry.cumulativeKm(new double[] { 14.6, 14.6085, 14.6085 }, new double[] { 121.0, 121.0, 121.0 }, 1.3, stretched);
+		RouteGeometry.travelMinutes(stretched, PROFILE, minutes);
+		assertEquals(km[1] * 1.3, stretched[1], 1e-9);
+		assertEquals(1, minutes[2]);
+	}
+
+	@Test
+	void parsesSpeedProfiles() {
+		assertEquals(12, PROFILE.kmhFor(0.5));
+		assertEquals(12, PROFILE.kmhFor(1));
+		assertEquals(25, PROFILE.kmhFor(7.9));
+		assertEquals(35, PROFILE.kmhFor(500));
+		assertThrows(IllegalArgumentException.class, () -> RouteGeometry.SpeedProfile.parse("1:12,3:18"));
+		assertThrows(IllegalArgumentException.class, () -> RouteGeometry.SpeedProfile.parse("3:12,1:18,*:30"));
+		assertThrows(IllegalArgumentException.class, () -> RouteGeometry.SpeedProfile.parse("1:0,*:30"));
+	}
+
+	@Test
+	@Tag("benchmark")
+	void measuresTwoThousandRoutesInMilliseconds() {
+		// 2,000 routes of 60 stops each, a few hundred meters apart
+		Random random = new Random(42);
+		int routes = 2000;
+		int stops = 60;
+		double[][] latitudes = new double[routes][stops];
+		double[][] longitudes = new double[routes][stops];
+		for (int r = 0; r < routes; r++) {
+			double lat = 14.1 + random.nextDouble();
+			double lon = 120.6 + random.nextDouble();
+			for (int s = 0; s < stops; s++) {
+				lat += (random.nextDouble() - 0.5) * 0.008;
+				lon += (random.nextDouble() - 0.5) * 0.008;
+				latitudes[r][s] = lat;
+				longitudes[r][s] = lon;
+			}
+		}
+		double[] km = new double[stops];
+		int[] minutes = new int[stops];
+		for (int round = 0; round < 5; round++) {
+			measureAll(latitudes, longitudes, km, minutes);
+		}
+
+		long started = System.nanoTime();
+		double total = measureAll(latitudes, longitudes, km, minutes);
+		double elapsedMs = (System.nanoTime() - started) / 1_000_000.0;
+
+		assertTrue(elapsedMs < 200, "Measuring took " + elapsedMs + " ms");
+		assertTrue(total > 0);
+	}
+
+	private static double measureAll(double[][] latitudes, double[][] longitudes, double[] km, int[] minutes) {
+		double total = 0;
+		for (int r = 0; r < latitudes.length; r++) {
+			RouteGeometry.cumulativeKm(latitudes[r], longitudes[r], 1.3, km);
+			RouteGeometry.travelMinutes(km, PROFILE, minutes);
+			total += km[km.length - 1] + minutes[minutes.length - 1];
+		}
+		return total;
+	}
+}
@@ -0,0 +1,134 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.Logistics.LogisticsBackend.exception.ResourceNotFoundException;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.RouteStop;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.payload.response.RouteStopPage;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.RouteStopRepository;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RouteStopQueryCountTest {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private RouteStopRepository routeStopRepository;
+
+	@Autowired
+	private RouteRepository routeRepository;
+
+	private final List<Long> routeIds = new ArrayList<>();
+	private RouteStopService routeStopService;
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		// 3 routes of 4 stops each, 12 stops in all
+		for (int r = 0; r < 3; r++) {
+			Route route = new Route();
+			route.setRouteCode("R-" + r);
+			route.setName("Route " + r);
+			entityManager.persist(route);
+			routeIds.add(route.getId());
+			for (int s = 0; s < 4; s++) {
+				Stop stop = new Stop();
+				stop.setName("Stop " + r + "-" + s);
+				entityManager.persist(stop);
+				RouteStop routeStop = new RouteStop();
+				routeStop.setRoute(route);
+				routeStop.setStop(stop);
+				routeStop.setRankKey((s + 1) * RouteStopService.RANK_GAP);
+				entityManager.persist(routeStop);
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		routeStopService = new RouteStopService();
+		ReflectionTestUtils.setField(routeStopService, "routeStopRepository", routeStopRepository);
+		ReflectionTestUtils.setField(routeStopService, "routeRepository", routeRepository);
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void listsEveryRouteStopInOneStatement() {
+		List<RouteStop> routeStops = routeStopService.getAllRouteStops();
+
+		assertEquals(12, routeStops.size());
+		assertEquals(List.of(1, 2, 3, 4, 1), routeStops.subList(0, 5).stream().map(RouteStop::getStopOrder).toList());
+		assertEquals("Stop 0-0", routeStops.get(0).getStop().getName());
+		assertEquals(routeIds.get(2), routeStops.get(11).getRouteId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		// What the listing used to cost: the EAGER links load each route and stop on their own
+		entityManager.clear();
+		statistics.clear();
+		routeStopRepository.findAll();
+		assertEquals(1 + 3 + 12, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void listsOneRouteInOneStatement() {
+		List<RouteStop> routeStops = routeStopService.getStopsForRoute(routeIds.get(1));
+
+		assertEquals(List.of("Stop 1-0", "Stop 1-1", "Stop 1-2", "Stop 1-3"),
+				routeStops.stream().map(rs -> rs.getStop().getName()).toList());
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		assertThrows(ResourceNotFoundException.class, () -> routeStopService.getStopsForRoute(-1L));
+	}
+
+	@Test
+	void pagesAcrossRoutesInOneStatementEach() {
+		List<Integer> stopOrders = new ArrayList<>();
+		List<String> stops = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			statistics.clear();
+			RouteStopPage page = routeStopService.findRouteStops(null, cursor, 5);
+			assertEquals(1, statistics.getPrepareStatementCount());
+			page.getItems().forEach(rs -> {
+				stopOrders.add(rs.getStopOrder());
+				stops.add(rs.getStop().getName());
+			});
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(3, pages);
+		assertEquals(List.of(1, 2, 3, 4, 1, 2, 3, 4, 1, 2, 3, 4), stopOrders);
+		assertEquals("Stop 1-2", stops.get(6));
+
+		RouteStopPage first = routeStopService.findRouteStops(routeIds.get(2), null, 3);
+		RouteStopPage rest = routeStopService.findRouteStops(routeIds.get(2), first.getNextCursor(), 3);
+		assertEquals(List.of(1, 2, 3), first.getItems().stream().map(RouteStop::getStopOrder).toList());
+		assertEquals("Stop 2-3", rest.getItems().get(0).getStop().getName());
+		assertEquals(4, rest.getItems().get(0).getStopOrder());
+		assertNull(rest.getNextCursor());
+
+		assertThrows(IllegalArgumentException.class, () -> routeStopService.findRouteStops(null, "not a cursor", 5));
+		assertThrows(IllegalArgumentException.class, () -> routeStopService.findRouteStops(routeIds.get(0), first.getNextCursor(), 5));
+	}
+}
@@ -0,0 +1,248 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.Logistics.LogisticsBackend.exception.DuplicateResourceException;
+import com.Logistics.LogisticsBackend.model.Bus;
+import com.Logistics.LogisticsBackend.model.ERole;
+import com.Logistics.LogisticsBackend.model.Role;
+import com.Logistics.LogisticsBackend.model.Route;
+import com.Logistics.LogisticsBackend.model.Schedule;
+import com.Logistics.LogisticsBackend.model.User;
+import com.Logistics.LogisticsBackend.payload.request.ScheduleRequest;
+import com.Logistics.LogisticsBackend.payload.response.RouteSummary;
+import com.Logistics.LogisticsBackend.repository.BusRepository;
+import com.Logistics.LogisticsBackend.repository.RouteRepository;
+import com.Logistics.LogisticsBackend.repository.ScheduleRepository;
+import com.Logistics.LogisticsBackend.repository.UserRepository;
+
+/**
+ * Many threads booking the same driver at once must produce exactly one schedule. The repositories
+ * are backed by an in-memory table with read-committed visibility: a thread's rows become visible
+ * to the others only when its simulated transaction commits, and the write is slowed down so that
+ * unguarded check-then-insert races would show up.
+ */
+class ScheduleServiceConcurrencyTest {
+
+	private static final int THREADS = 32;
+	private static final int TRIP_MINUTES = 45;
+
+	private final List<Schedule> committed = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<List<Schedule>> pending = ThreadLocal.withInitial(ArrayList::new);
+	private final AtomicLong ids = new AtomicLong();
+
+	private ScheduleService scheduleService;
+	private ScheduleConflictIndex scheduleConflictIndex;
+	private ScheduleRepository scheduleRepository;
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		scheduleRepository = mock(ScheduleRepository.class);
+		when(scheduleRepository.saveAndFlush(any(Schedule.class))).thenAnswer(invocation -> {
+			Schedule schedule = invocation.getArgument(0);
+			Thread.sleep(2);
+			schedule.setId(ids.incrementAndGet());
+			pending.get().add(schedule);
+			return schedule;
+		});
+		when(scheduleRepository.findOverlappingSchedulesForDriver(anyLong(), any(), any(), anyLong())).thenAnswer(invocation ->
+				overlapping(s -> s.getDriver().getId(), invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+		when(scheduleRepository.findOverlappingSchedulesForBus(anyLong(), any(), any(), anyLong())).thenAnswer(invocation ->
+				overlapping(s -> s.getBus().getId(), invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+		when(scheduleRepository.findByRouteIdAndDepartureDateTimeBetween(anyLong(), any(), any())).thenAnswer(invocation -> {
+			Long routeId = invocation.getArgument(0);
+			LocalDateTime from = invocation.getArgument(1);
+			LocalDateTime to = invocation.getArgument(2);
+			return committed.stream()
+					.filter(s -> s.getRoute().getId().equals(routeId))
+					.filter(s -> !s.getDepartureDateTime().isBefore(from) && !s.getDepartureDateTime().isAfter(to))
+					.collect(Collectors.toList());
+		});
+		when(scheduleRepository.findScheduleSlotsBetween(any(), any())).thenReturn(List.of());
+
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(driver(invocation.getArgument(0))));
+		BusRepository busRepository = mock(BusRepository.class);
+		when(busRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(bus(invocation.getArgument(0))));
+		RouteRepository routeRepository = mock(RouteRepository.class);
+		when(routeRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(route(invocation.getArgument(0))));
+		RouteSummaryService routeSummaryService = mock(RouteSummaryService.class);
+		when(routeSummaryService.getSummary(anyLong())).thenAnswer(invocation ->
+				new RouteSummary(invocation.getArgument(0), 0, BigDecimal.ZERO, 0, TRIP_MINUTES, null, null, new int[0]));
+
+		scheduleConflictIndex = new ScheduleConflictIndex();
+		ReflectionTestUtils.setField(scheduleConflictIndex, "windowDays", 14);
+		ReflectionTestUtils.setField(scheduleConflictIndex, "scheduleRepository", scheduleRepository);
+
+		ResourceLockService resourceLockService = new ResourceLockService();
+		ReflectionTestUtils.setField(resourceLockService, "stripeCount", 256);
+		ReflectionTestUtils.setField(resourceLockService, "timeoutMs", 10000L);
+		ReflectionTestUtils.setField(resourceLockService, "jobLockService", new JobLockService());
+		resourceLockService.init();
+
+		scheduleService = new ScheduleService();
+		ReflectionTestUtils.setField(scheduleService, "scheduleRepository", scheduleRepository);
+		ReflectionTestUtils.setField(scheduleService, "userRepository", userRepository);
+		ReflectionTestUtils.setField(scheduleService, "busRepository", busRepository);
+		ReflectionTestUtils.setField(scheduleService, "routeRepository", routeRepository);
+		ReflectionTestUtils.setField(scheduleService, "routeSummaryService", routeSummaryService);
+		ReflectionTestUtils.setField(scheduleService, "scheduleConflictIndex", scheduleConflictIndex);
+		ReflectionTestUtils.setField(scheduleService, "resourceLockService", resourceLockService);
+		ReflectionTestUtils.setField(scheduleService, "eventPublisher", (ApplicationEventPublisher) event -> {
+		});
+
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void sameDriverIsBookedOnceWhenCheckedAgainstTheDatabase() throws Exception {
+		// Index not loaded: every check goes to the (simulated) database
+		assertSameDriverBookedOnce();
+	}
+
+	@Test
+	void sameDriverIsBookedOnceWhenCheckedAgainstTheIndex() throws Exception {
+		scheduleConflictIndex.reload();
+		assertSameDriverBookedOnce();
+	}
+
+	@Test
+	void unrelatedDriversAreAllBooked() throws Exception {
+		LocalDateTime departure = LocalDate.now().plusDays(1).atTime(8, 0);
+		List<Future<Boolean>> results = new ArrayList<>();
+		CountDownLatch start = new CountDownLatch(1);
+		for (int i = 0; i < THREADS; i++) {
+			long id = 100 + i;
+			results.add(executor.submit(() -> book(start, request(id, id, id, departure))));
+		}
+		start.countDown();
+
+		assertEquals(THREADS, successes(results));
+		assertEquals(THREADS, committed.size());
+	}
+
+	private void assertSameDriverBookedOnce() throws Exception {
+		LocalDateTime departure = LocalDate.now().plusDays(1).atTime(8, 0);
+		List<Future<Boolean>> results = new ArrayList<>();
+		CountDownLatch start = new CountDownLatch(1);
+		for (int i = 0; i < THREADS; i++) {
+			// Same driver, a different bus and route each, departures a few minutes apart so every pair overlaps
+			long other = 100 + i;
+			LocalDateTime at = departure.plusMinutes(i % 10);
+			results.add(executor.submit(() -> book(start, request(1L, other, other, at))));
+		}
+		start.countDown();
+
+		assertEquals(1, successes(results));
+		assertEquals(1, committed.size());
+		assertTrue(committed.stream().allMatch(s -> s.getDriver().getId() == 1L));
+	}
+
+	private int successes(List<Future<Boolean>> results) throws Exception {
+		int successes = 0;
+		for (Future<Boolean> result : results) {
+			if (result.get(30, TimeUnit.SECONDS)) {
+				successes++;
+			}
+		}
+		return successes;
+	}
+
+	/** Runs one booking in a simulated transaction; false if it was rejected as a conflict. */
+	private boolean book(CountDownLatch start, ScheduleRequest request) throws InterruptedException {
+		start.await();
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		boolean success = false;
+		try {
+			scheduleService.createSchedule(request);
+			committed.addAll(pending.get());
+			success = true;
+		} catch (DuplicateResourceException e) {
+			// Rolled back
+		} finally {
+			List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+			TransactionSynchronizationManager.clearSynchronization();
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+			pending.get().clear();
+			int status = success ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+			for (TransactionSynchronization synchronization : synchronizations) {
+				synchronization.afterCompletion(status);
+			}
+		}
+		return success;
+	}
+
+	private List<Schedule> overlapping(Function<Schedule, Long> resource, Long resourceId,
+			LocalDateTime start, LocalDateTime end, Long excludeId) {
+		return committed.stream()
+				.filter(s -> resource.apply(s).equals(resourceId) && !s.getId().equals(excludeId))
+				.filter(s -> s.getDepartureDateTime().isBefore(end) && s.getEstimatedArrivalDateTime().isAfter(start))
+				.collect(Collectors.toList());
+	}
+
+	private static ScheduleRequest request(long driverId, long busId, long routeId, LocalDateTime departure) {
+		ScheduleRequest request = new ScheduleRequest();
+		request.setDriverId(driverId);
+		request.setBusId(busId);
+		request.setRouteId(routeId);
+		request.setDepartureDateTime(departure);
+		return request;
+	}
+
+	private static User driver(Long id) {
+		User user = new User();
+		user.setId(id);
+		user.setStatus(User.EmployeeStatus.ACTIVE);
+		user.getRoles().add(new Role(ERole.ROLE_DRIVER));
+		return user;
+	}
+
+	private static Bus bus(Long id) {
+		Bus bus = new Bus();
+		bus.setId(id);
+		bus.setStatus("ACTIVE");
+		return bus;
+	}
+
+	private static Route route(Long id) {
+		Route route = new Route();
+		route.setId(id);
+		return route;
+	}
+}
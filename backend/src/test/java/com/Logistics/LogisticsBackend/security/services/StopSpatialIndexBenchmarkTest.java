@@ -0,0 +1,132 @@
+package com.Logistics.LogisticsBackend.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.Logistics.LogisticsBackend.event.NetworkChangedEvent;
+import com.Logistics.LogisticsBackend.model.Stop;
+import com.Logistics.LogisticsBackend.payload.response.NearbyStop;
+import com.Logistics.LogisticsBackend.repository.StopRepository;
+import com.Logistics.LogisticsBackend.util.GeoDistance;
+
+class StopSpatialIndexBenchmarkTest {
+
+	private static final int STOPS = 100_000;
+
+	private final List<Object[]> rows = new ArrayList<>();
+	private StopRepository stopRepository;
+	private StopSpatialIndex index;
+
+	@BeforeEach
+	void setUp() {
+		// 100k stops spread over a metro area of roughly 110 by 100 km around Manila
+		Random random = new Random(42);
+		for (long id = 1; id <= STOPS; id++) {
+			rows.add(new Object[] { id, "Stop " + id, 14.1 + random.nextDouble(), 120.6 + random.nextDouble() });
+		}
+		stopRepository = mock(StopRepository.class);
+		when(stopRepository.findLocatedStops()).thenReturn(rows);
+
+		index = new StopSpatialIndex();
+		ReflectionTestUtils.setField(index, "cellDegrees", 0.01);
+		ReflectionTestUtils.setField(index, "maxRadiusMeters", 20000.0);
+		ReflectionTestUtils.setField(index, "stopRepository", stopRepository);
+		index.reload();
+	}
+
+	@Test
+	void matchesABruteForceScan() {
+		Random random = new Random(7);
+		for (int i = 0; i < 50; i++) {
+			double lat = 14.1 + random.nextDouble();
+			double lon = 120.6 + random.nextDouble();
+			double radius = 100 + random.nextInt(3000);
+
+			List<NearbyStop> found = index.near(lat, lon, radius, STOPS);
+
+			assertEquals(new HashSet<>(bruteForce(lat, lon, radius)), found.stream().map(NearbyStop::getId).collect(Collectors.toSet()));
+			for (int j = 1; j < found.size(); j++) {
+				assertTrue(found.get(j - 1).getDistanceMeters() <= found.get(j).getDistanceMeters());
+			}
+		}
+	}
+
+	@Test
+	void nearestStopsWithoutRadiusAndFollowsChanges() {
+		Stop stop = new Stop();
+		stop.setId(STOPS + 1L);
+		stop.setName("Terminal");
+		stop.setLatitude(14.5);
+		stop.setLongitude(121.0);
+		when(stopRepository.findById(STOPS + 1L)).thenReturn(Optional.of(stop));
+		index.onNetworkChanged(NetworkChangedEvent.stop(STOPS + 1L));
+
+		List<NearbyStop> nearest = index.near(14.5, 121.0, null, 5);
+		assertEquals(5, nearest.size());
+		assertEquals(STOPS + 1L, nearest.get(0).getId());
+		assertEquals(0.0, nearest.get(0).getDistanceMeters());
+		// Nothing closer was skipped: besides the terminal, only the three in between are nearer than the fifth
+		assertEquals(3, bruteForce(14.5, 121.0, nearest.get(4).getDistanceMeters() - 0.05).size());
+
+		// Moving the stop moves it out of its old cell
+		stop.setLatitude(14.9);
+		index.onNetworkChanged(NetworkChangedEvent.stop(STOPS + 1L));
+		assertTrue(index.near(14.5, 121.0, 10.0, 5).isEmpty());
+		assertEquals(STOPS + 1L, index.near(14.9, 121.0, 10.0, 5).get(0).getId());
+
+		when(stopRepository.findById(STOPS + 1L)).thenReturn(Optional.empty());
+		index.onNetworkChanged(NetworkChangedEvent.stop(STOPS + 1L));
+		assertTrue(index.near(14.9, 121.0, 10.0, 5).isEmpty());
+	}
+
+	@Test
+	@Tag("benchmark")
+	void answersInUnderAMillisecondWithAHundredThousandStops() {
+		Random random = new Random(11);
+		double[][] queries = new double[2000][];
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = new double[] { 14.1 + random.nextDouble(), 120.6 + random.nextDouble() };
+		}
+		for (double[] query : queries) {
+			index.near(query[0], query[1], 1000.0, 20);
+			index.near(query[0], query[1], null, 10);
+		}
+
+		long started = System.nanoTime();
+		int found = 0;
+		for (double[] query : queries) {
+			found += index.near(query[0], query[1], 1000.0, 20).size();
+			found += index.near(query[0], query[1], null, 10).size();
+		}
+		double averageMs = (System.nanoTime() - started) / 1_000_000.0 / (queries.length * 2);
+
+		assertTrue(averageMs < 1, "Average lookup took " + averageMs + " ms");
+		assertTrue(found > queries.length * 20);
+	}
+
+	private List<Long> bruteForce(double lat, double lon, double radius) {
+		List<Object[]> within = new ArrayList<>();
+		for (Object[] row : rows) {
+			double distance = GeoDistance.haversineMeters(lat, lon, (Double) row[2], (Double) row[3]);
+			if (distance <= radius) {
+				within.add(new Object[] { row[0], Math.round(distance * 10) / 10.0 });
+			}
+		}
+		within.sort((a, b) -> Double.compare((Double) a[1], (Double) b[1]));
+		return within.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+	}
+}
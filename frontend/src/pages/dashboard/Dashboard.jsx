@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { Chart as ChartJS, ArcElement, Tooltip, Legend } from 'chart.js/auto';
 import { Pie, Bar } from 'react-chartjs-2';
 import api from '../../services/api';
+import { getScheduleCountsByDay } from '../../services/schedule.service';
 import { TruckIcon, MapIcon, UserGroupIcon } from '@heroicons/react/24/outline';
 
 // No need to register components when importing from 'chart.js/auto'
@@ -31,11 +32,15 @@ const Dashboard = () => {
     useEffect(() => {
         const fetchData = async () => {
             try {
-                const [busesRes, routesRes, employeesRes, schedulesRes] = await Promise.all([
+                // Trips from a week ago to a month ahead, counted by the server
+                const today = new Date();
+                const from = new Date(today.getFullYear(), today.getMonth(), today.getDate() - 7);
+                const to = new Date(today.getFullYear(), today.getMonth(), today.getDate() + 30);
+                const [busesRes, routesRes, employeesRes, scheduleCountsRes] = await Promise.all([
                     api.get('/buses'),
                     api.get('/routes'),
                     api.get('/employees'),
-                    api.get('/schedules')
+                    getScheduleCountsByDay(from, to)
                 ]);
 
                 setStats({
@@ -72,21 +77,15 @@ const Dashboard = () => {
                 };
                 setBusStatusData(chartData);
 
-                // Process schedule data for bar chart
-                const scheduleCountsByDate = schedulesRes.data.reduce((acc, schedule) => {
-                    const date = new Date(schedule.departureDateTime).toLocaleDateString(undefined, { year: 'numeric', month: 'short', day: 'numeric' });
-                    acc[date] = (acc[date] || 0) + 1;
-                    return acc;
-                }, {});
-
-                const sortedDates = Object.keys(scheduleCountsByDate).sort((a, b) => new Date(a) - new Date(b));
+                // Process schedule counts for bar chart; dates come back in order
+                const formatDay = (date) => new Date(`${date}T00:00`).toLocaleDateString(undefined, { year: 'numeric', month: 'short', day: 'numeric' });
 
                 const scheduleChartData = {
-                    labels: sortedDates,
+                    labels: scheduleCountsRes.data.map(day => formatDay(day.date)),
                     datasets: [
                         {
                             label: 'Number of Scheduled Trips',
-                            data: sortedDates.map(date => scheduleCountsByDate[date]),
+                            data: scheduleCountsRes.data.map(day => day.count),
                             backgroundColor: 'rgba(30, 58, 138, 0.6)', // Marine Blue
                             borderColor: 'rgba(30, 58, 138, 1)',
                             borderWidth: 1,
@@ -1,5 +1,6 @@
 import { useState, useEffect } from 'react';
 import api from '../../services/api';
+import { getSchedulePage, toLocalDate } from '../../services/schedule.service';
 import ScheduleForm from '../../components/dashboard/ScheduleForm';
 import Modal from '../../components/dashboard/Modal';
 import Button from '../../components/Button';
@@ -22,16 +23,33 @@ export default function Schedule() {
     const [editingSchedule, setEditingSchedule] = useState(null);
     const [entriesToShow, setEntriesToShow] = useState(10);
 
+    // Departure window, as yyyy-MM-dd with both days included, and the cursor of the next page
+    const [fromDate, setFromDate] = useState(() => toLocalDate(new Date()));
+    const [toDate, setToDate] = useState(() => {
+        const weekAhead = new Date();
+        weekAhead.setDate(weekAhead.getDate() + 7);
+        return toLocalDate(weekAhead);
+    });
+    const [nextCursor, setNextCursor] = useState(null);
+
     useEffect(() => {
-        fetchSchedules();
         fetchFormData();
     }, []);
 
-    const fetchSchedules = async () => {
+    useEffect(() => {
+        fetchSchedules();
+    }, [fromDate, toDate, entriesToShow]);
+
+    // The first page of the window, or the next one after `cursor`
+    const fetchSchedules = async (cursor = null) => {
         setLoading(true);
         try {
-            const response = await api.get('/schedules');
-            setSchedules(response.data);
+            const from = new Date(`${fromDate}T00:00`);
+            const to = new Date(`${toDate}T00:00`);
+            to.setDate(to.getDate() + 1);
+            const response = await getSchedulePage(from, to, entriesToShow, cursor);
+            setSchedules(previous => cursor ? [...previous, ...response.data.items] : response.data.items);
+            setNextCursor(response.data.nextCursor);
             setError(null);
         } catch (err) {
             console.error('Error fetching schedules:', err);
@@ -110,8 +128,6 @@ export default function Schedule() {
         return new Date(dateTimeString).toLocaleString();
     };
 
-    const displayedSchedules = schedules.slice(0, entriesToShow);
-
     return (
         <div className="p-8">
             <div className="flex justify-between items-center mb-6">
@@ -124,6 +140,25 @@ export default function Schedule() {
             </div>
 
             <div className="flex justify-between items-center mb-4">
+                <div className="flex items-center space-x-2">
+                    <label htmlFor="fromDate" className="text-sm text-gray-600">From</label>
+                    <input
+                        id="fromDate"
+                        type="date"
+                        value={fromDate}
+                        onChange={(e) => e.target.value && setFromDate(e.target.value)}
+                        className="mt-1 block px-3 py-2 text-base border-gray-300 focus:outline-none focus:ring-indigo-500 focus:border-indigo-500 sm:text-sm rounded-md"
+                    />
+                    <label htmlFor="toDate" className="text-sm text-gray-600">To</label>
+                    <input
+                        id="toDate"
+                        type="date"
+                        value={toDate}
+                        min={fromDate}
+                        onChange={(e) => e.target.value && setToDate(e.target.value)}
+                        className="mt-1 block px-3 py-2 text-base border-gray-300 focus:outline-none focus:ring-indigo-500 focus:border-indigo-500 sm:text-sm rounded-md"
+                    />
+                </div>
                 <div className="flex items-center">
                     <label htmlFor="entries" className="mr-2 text-sm text-gray-600">Show</label>
                     <select 
@@ -135,7 +170,7 @@ export default function Schedule() {
                         <option value={10}>10</option>
                         <option value={25}>25</option>
                         <option value={50}>50</option>
-                        <option value={schedules.length}>All</option>
+                        <option value={100}>100</option>
                     </select>
                 </div>
             </div>
@@ -159,10 +194,10 @@ export default function Schedule() {
                         </tr>
                     </thead>
                     <tbody className="bg-white divide-y divide-gray-200">
-                        {loading ? (
+                        {loading && schedules.length === 0 ? (
                             <tr><td colSpan="7" className="text-center py-4">Loading schedules...</td></tr>
                         ) : schedules.length > 0 ? (
-                            displayedSchedules.map((schedule) => (
+                            schedules.map((schedule) => (
                                 <tr key={schedule.id}>
                                     <td className="px-6 py-4 whitespace-nowrap text-sm font-medium text-gray-900">{schedule.route.name}</td>
                                     <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-500">{schedule.driver.firstName} {schedule.driver.lastName}</td>
@@ -191,6 +226,14 @@ export default function Schedule() {
                     </tbody>
                 </table>
             </div>
+
+            {nextCursor && (
+                <div className="flex justify-center mt-4">
+                    <Button onClick={() => fetchSchedules(nextCursor)} disabled={loading}>
+                        {loading ? 'Loading...' : 'Load more'}
+                    </Button>
+                </div>
+            )}
         </div>
     );
 }
\ No newline at end of file
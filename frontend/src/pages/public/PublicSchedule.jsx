@@ -1,5 +1,6 @@
 import React, { useState, useEffect, useMemo } from 'react';
 import api from '../../services/api';
+import { getSchedulesBetween } from '../../services/schedule.service';
 import { Link } from 'react-router-dom';
 
 
@@ -125,9 +126,11 @@ export default function PublicSchedule() {
             setLoading(true);
             setError(null);
             try {
-                // Fetch all necessary data in parallel
-                const [schedulesRes, routesRes, stopsRes] = await Promise.all([
-                    api.get('/schedules'),
+                // Fetch all necessary data in parallel; schedules are the departures of the next 24 hours
+                const now = new Date();
+                const dayAhead = new Date(now.getTime() + 24 * 60 * 60 * 1000);
+                const [upcomingSchedules, routesRes, stopsRes] = await Promise.all([
+                    getSchedulesBetween(now, dayAhead),
                     api.get('/routes'),
                     api.get('/stops')
                 ]);
@@ -145,7 +148,7 @@ export default function PublicSchedule() {
                 }, {});
 
                 // Enrich the route object within each schedule with the stops data
-                const schedulesWithFullRouteData = schedulesRes.data.map(schedule => ({
+                const schedulesWithFullRouteData = upcomingSchedules.map(schedule => ({
                     ...schedule,
                     route: {
                         ...schedule.route,
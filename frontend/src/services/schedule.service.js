@@ -0,0 +1,32 @@
+import api from './api';
+
+const pad = (n) => String(n).padStart(2, '0');
+
+// Local date and time as the API reads them, without an offset
+export const toLocalDate = (date) =>
+  `${date.getFullYear()}-${pad(date.getMonth() + 1)}-${pad(date.getDate())}`;
+
+export const toLocalDateTime = (date) =>
+  `${toLocalDate(date)}T${pad(date.getHours())}:${pad(date.getMinutes())}:00`;
+
+// One page of schedules departing in [from, to); pass the previous page's nextCursor for the next one
+export const getSchedulePage = (from, to, limit, cursor) =>
+  api.get('/schedules', {
+    params: { from: toLocalDateTime(from), to: toLocalDateTime(to), limit, cursor: cursor || undefined },
+  });
+
+// Every schedule departing in [from, to), read page by page
+export const getSchedulesBetween = async (from, to) => {
+  const schedules = [];
+  let cursor = null;
+  do {
+    const response = await getSchedulePage(from, to, 500, cursor);
+    schedules.push(...response.data.items);
+    cursor = response.data.nextCursor;
+  } while (cursor);
+  return schedules;
+};
+
+// Number of schedules on each day from `from` to `to`, both included
+export const getScheduleCountsByDay = (from, to) =>
+  api.get('/schedules/counts', { params: { from: toLocalDate(from), to: toLocalDate(to) } });